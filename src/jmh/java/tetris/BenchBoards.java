@@ -0,0 +1,42 @@
+package tetris;
+
+import java.util.Random;
+
+/** Deterministic playfields shared by the benchmarks. */
+final class BenchBoards {
+
+    private BenchBoards() {
+    }
+
+    /**
+     * Fills the bottom {@code fillPercent} of the board with ragged rows (one hole each)
+     * and makes the lowest {@code fullLines} rows complete.
+     */
+    static void fill(int[] rows, byte[] cells, int fillPercent, int fullLines) {
+        BoardSize size = BoardSize.DEFAULT;
+        fill(cells, size.width(), size.totalHeight(), fillPercent, fullLines);
+        for (int y = 0; y < size.totalHeight(); y++) {
+            int mask = 0;
+            for (int x = 0; x < size.width(); x++) {
+                if (cells[y * size.width() + x] != 0) {
+                    mask |= 1 << x;
+                }
+            }
+            rows[y] = mask;
+        }
+    }
+
+    /** Same layout for a board of any size, as row-major PieceShape ordinals. */
+    static void fill(byte[] cells, int width, int height, int fillPercent, int fullLines) {
+        Random random = new Random(42);
+        int filledRows = height * fillPercent / 100;
+        for (int y = height - 1; y >= 0; y--) {
+            int depth = height - 1 - y;
+            int hole = depth < fullLines || depth >= filledRows ? -1 : random.nextInt(width);
+            for (int x = 0; x < width; x++) {
+                boolean set = (depth < fullLines || depth < filledRows) && x != hole;
+                cells[y * width + x] = (byte) (set ? 1 + random.nextInt(7) : 0);
+            }
+        }
+    }
+}
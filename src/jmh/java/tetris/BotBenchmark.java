@@ -0,0 +1,44 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotBenchmark {
+
+    @Param({"0", "50"})
+    public int fillPercent;
+
+    @Param({"1", "2", "3"})
+    public int depth;
+
+    private static final BoardSize SIZE = BoardSize.DEFAULT;
+
+    private final int[] rows = new int[SIZE.totalHeight()];
+    private final PlacementGenerator generator = new PlacementGenerator(SIZE.width(), SIZE.totalHeight());
+    private BotSearch search;
+
+    @Setup
+    public void setUp() {
+        BenchBoards.fill(rows, new byte[SIZE.width() * SIZE.totalHeight()], fillPercent, 0);
+        search = new BotSearch(Heuristic.DEFAULT, depth, 16, false);
+    }
+
+    @Benchmark
+    public int generatePlacements() {
+        Shape.PieceShape t = Shape.PieceShape.TShape;
+        return generator.generate(rows, t, 0, GameEngine.spawnX(SIZE.width()), GameEngine.spawnY(t));
+    }
+
+    @Benchmark
+    public BotSearch.Plan search() {
+        Shape.PieceShape t = Shape.PieceShape.TShape;
+        return search.search(rows, t, 0, GameEngine.spawnX(SIZE.width()), GameEngine.spawnY(t), Shape.PieceShape.LShape);
+    }
+}
@@ -0,0 +1,74 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({"0", "25", "50", "75"})
+    public int fillPercent;
+
+    @Param({"0", "1", "4"})
+    public int fullLines;
+
+    private static final BoardSize SIZE = BoardSize.DEFAULT;
+
+    private final byte[] cells = new byte[SIZE.width() * SIZE.totalHeight()];
+
+    private GameEngine engine;
+    private Shape piece;
+
+    @Setup
+    public void setUp() {
+        BenchBoards.fill(cells, SIZE.width(), SIZE.totalHeight(), fillPercent, fullLines);
+        engine = new GameEngine();
+        engine.start();
+        engine.loadGrid(cells);
+        piece = new Shape();
+        piece.setPieceShape(Shape.PieceShape.TShape);
+    }
+
+    @Benchmark
+    public boolean tryMove() {
+        // Sweep the whole board so both open and blocked positions are measured.
+        boolean any = false;
+        for (int y = 0; y < SIZE.totalHeight(); y++) {
+            for (int x = 0; x < SIZE.width(); x++) {
+                any |= engine.tryMove(piece, x, y);
+            }
+        }
+        return any;
+    }
+
+    @Benchmark
+    public int dropDistance() {
+        // Every column from the spawn row, as the ghost piece and hard drop would ask.
+        Shape.Orientation o = piece.getOrientation();
+        int total = 0;
+        for (int x = -o.minX; x < SIZE.width() - o.maxX; x++) {
+            total += engine.dropDistance(o, x, -o.minY);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int loadGrid() {
+        // Baseline for removeFullLines, which has to restore the board first.
+        engine.loadGrid(cells);
+        return engine.getRowMask(SIZE.totalHeight() - 1);
+    }
+
+    @Benchmark
+    public int removeFullLines() {
+        engine.loadGrid(cells);
+        engine.removeFullLines();
+        return engine.getRowMask(SIZE.totalHeight() - 1);
+    }
+}
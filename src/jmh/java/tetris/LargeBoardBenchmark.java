@@ -0,0 +1,55 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Line clears and drops on stress-sized boards, where per-cell copying used to dominate. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LargeBoardBenchmark {
+
+    @Param({"10x20", "100x1000", "1000x10000"})
+    public String board;
+
+    @Param({"1", "4"})
+    public int fullLines;
+
+    private BoardSize size;
+    private byte[] cells;
+    private GameEngine engine;
+    private Shape piece;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        size = BoardSize.parse(board);
+        cells = new byte[size.width() * size.totalHeight()];
+        BenchBoards.fill(cells, size.width(), size.totalHeight(), 50, fullLines);
+        engine = new GameEngine(new UniformRandomizer(0), size);
+        engine.start(1);
+        piece = new Shape();
+        piece.setPieceShape(Shape.PieceShape.LineShape);
+    }
+
+    // Restoring the board costs as much as the clear on small boards, so it stays out of the timing.
+    @Setup(Level.Invocation)
+    public void reload() {
+        engine.loadGrid(cells);
+    }
+
+    @Benchmark
+    public int removeFullLines() {
+        engine.removeFullLines();
+        return engine.getNumLinesRemoved();
+    }
+
+    @Benchmark
+    public int dropDistance() {
+        Shape.Orientation o = piece.getOrientation();
+        return engine.dropDistance(o, size.width() / 2, -o.minY);
+    }
+}
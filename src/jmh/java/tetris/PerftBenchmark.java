@@ -0,0 +1,38 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerftBenchmark {
+
+    @Param({"empty", "ragged", "overhang", "tall"})
+    public String position;
+
+    @Param({"3"})
+    public int depth;
+
+    private PlacementPerft perft;
+    private int[] rows;
+    private Shape.PieceShape[] pieces;
+
+    @Setup
+    public void setUp() {
+        perft = new PlacementPerft(BoardSize.DEFAULT, depth);
+        PlacementPerft.Position p = PlacementPerft.POSITIONS.stream()
+                .filter(candidate -> candidate.name().equals(position)).findFirst().orElseThrow();
+        rows = perft.rows(p);
+        pieces = PlacementPerft.pieces(p.pieces());
+    }
+
+    @Benchmark
+    public long perft() {
+        return perft.perft(rows, pieces, depth);
+    }
+}
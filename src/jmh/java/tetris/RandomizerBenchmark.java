@@ -0,0 +1,32 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomizerBenchmark {
+
+    private final PieceRandomizer uniform = new UniformRandomizer(42);
+    private final PieceRandomizer sevenBag = new SevenBagRandomizer(42);
+
+    @Benchmark
+    public Shape.PieceShape getRandomShape() {
+        return Shape.PieceShape.getRandomShape();
+    }
+
+    @Benchmark
+    public Shape.PieceShape uniformNext() {
+        return uniform.next();
+    }
+
+    @Benchmark
+    public Shape.PieceShape sevenBagNext() {
+        return sevenBag.next();
+    }
+}
@@ -0,0 +1,67 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @Param({"480x960", "1920x2160"})
+    public String size;
+
+    @Param({"0", "50", "75"})
+    public int fillPercent;
+
+    private Board board;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        int separator = size.indexOf('x');
+        int width = Integer.parseInt(size.substring(0, separator));
+        int height = Integer.parseInt(size.substring(separator + 1));
+
+        BoardSize boardSize = BoardSize.DEFAULT;
+        byte[] cells = new byte[boardSize.width() * boardSize.totalHeight()];
+        BenchBoards.fill(cells, boardSize.width(), boardSize.totalHeight(), fillPercent, 0);
+
+        board = new Board();
+        board.setSize(width, height);
+        // The loop's thread only starts when the board is added to a window, so the engine can be set up directly.
+        GameLoop loop = board.getLoop();
+        loop.getEngine().start(42);
+        loop.getEngine().loadGrid(cells);
+        loop.publish();
+
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        board.paintComponent(graphics);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage paintComponentAfterLock() {
+        // A lock or line clear forces the cached stack layer to be rebuilt.
+        board.invalidateStack();
+        board.paintComponent(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,42 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+
+    @Param({"TShape", "LineShape", "SquareShape"})
+    public Shape.PieceShape pieceShape;
+
+    private Shape shape;
+
+    @Setup
+    public void setUp() {
+        shape = new Shape();
+        shape.setPieceShape(pieceShape);
+    }
+
+    @Benchmark
+    public int turnRight() {
+        shape.turnRight();
+        return shape.getOrientationIndex();
+    }
+
+    @Benchmark
+    public int turnLeft() {
+        shape.turnLeft();
+        return shape.getOrientationIndex();
+    }
+
+    @Benchmark
+    public Shape rotatedRight() {
+        return shape.rotatedRight();
+    }
+}
@@ -0,0 +1,62 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorEnvBenchmark {
+
+    @Param({"256", "4096"})
+    public int envs;
+
+    private VectorEnv env;
+    private int[] actions;
+    private float[] rewards;
+    private boolean[] dones;
+    private byte[] observations;
+    private SplitMix64 random;
+    private long nextSeed;
+
+    @Setup
+    public void setUp() {
+        env = new VectorEnv(envs, RandomizerType.SEVEN_BAG, BoardSize.DEFAULT);
+        long[] seeds = new long[envs];
+        for (int e = 0; e < envs; e++) {
+            seeds[e] = e;
+        }
+        env.reset(seeds);
+        nextSeed = envs;
+        actions = new int[envs];
+        rewards = new float[envs];
+        dones = new boolean[envs];
+        observations = new byte[envs * env.getObservationSize()];
+        random = new SplitMix64(42);
+    }
+
+    @Benchmark
+    public boolean step() {
+        // Random play tops out quickly, so finished games are restarted as a training loop would.
+        for (int e = 0; e < envs; e++) {
+            actions[e] = random.nextInt(VectorEnv.ACTIONS);
+        }
+        env.step(actions, rewards, dones);
+        for (int e = 0; e < envs; e++) {
+            if (dones[e]) {
+                env.reset(e, nextSeed++);
+            }
+        }
+        return dones[0];
+    }
+
+    @Benchmark
+    public byte[] observe() {
+        env.observe(observations);
+        return observations;
+    }
+}
@@ -0,0 +1,160 @@
+package tetris;
+
+import java.awt.Canvas;
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Active rendering for a {@link Board}: a heavyweight canvas with a
+ * two-buffer {@link BufferStrategy}, drawn by its own thread on a fixed
+ * frame clock instead of through coalesced repaint() calls. AWT gives the
+ * strategy page flipping where the pipeline supports it and otherwise blits
+ * from an accelerated VolatileImage back buffer.
+ *
+ * A frame is only drawn when the published snapshot, the canvas size or the
+ * buffer contents changed since the last one, so an idle game costs nothing
+ * but the clock. With vsync, each frame is followed by Toolkit.sync() so it
+ * reaches the screen before the next deadline. If no buffer strategy can be
+ * created the board is told to fall back to Swing painting.
+ */
+final class ActiveRenderer implements Runnable {
+
+    private final Board board;
+    private final GameLoop loop;
+    private final int fps;
+    private final boolean vsync;
+    private final Canvas canvas = new Canvas() {
+        // The render thread owns the screen; expose events only ask it for a fresh frame.
+        @Override
+        public void paint(Graphics g) {
+            exposed = true;
+        }
+
+        @Override
+        public void update(Graphics g) {
+            exposed = true;
+        }
+    };
+
+    private volatile boolean exposed = true;
+    private volatile Thread thread;
+
+    // Render-thread state
+    private GameSnapshot drawn;
+    private int drawnWidth;
+    private int drawnHeight;
+
+    /** @param fps frames per second, or 0 for the display's refresh rate (60 if unknown) */
+    ActiveRenderer(Board board, GameLoop loop, int fps, boolean vsync) {
+        this.board = board;
+        this.loop = loop;
+        this.fps = fps;
+        this.vsync = vsync;
+        canvas.setBackground(board.getBackground());
+        // Keys go to the board, which stays the focus owner.
+        canvas.setFocusable(false);
+    }
+
+    Canvas getCanvas() {
+        return canvas;
+    }
+
+    /** Has the next frame drawn even if nothing it shows has changed. */
+    void requestFrame() {
+        exposed = true;
+    }
+
+    /** The refresh rate of the screen the component is on, or 0 if it is not known. */
+    static int refreshRate(GraphicsConfiguration gc) {
+        if (gc == null) {
+            return 0;
+        }
+        int rate = gc.getDevice().getDisplayMode().getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? 0 : rate;
+    }
+
+    /** Starts the render thread; the canvas must be displayable. */
+    synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(this, "tetris-render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void stop() {
+        Thread t = thread;
+        thread = null;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    @Override
+    public void run() {
+        BufferStrategy strategy;
+        try {
+            canvas.createBufferStrategy(2);
+            strategy = canvas.getBufferStrategy();
+        } catch (IllegalStateException e) {
+            strategy = null;
+        }
+        if (strategy == null) {
+            board.activeRenderingFailed(this);
+            return;
+        }
+        int rate = fps > 0 ? fps : refreshRate(canvas.getGraphicsConfiguration());
+        long frameNanos = 1_000_000_000L / (rate > 0 ? rate : 60);
+        try {
+            long next = System.nanoTime();
+            while (thread == Thread.currentThread()) {
+                if (needsFrame()) {
+                    drawFrame(strategy, next);
+                }
+                next += frameNanos;
+                long now = System.nanoTime();
+                // Drop frames after a stall rather than drawing a burst of them.
+                if (now - next > frameNanos) {
+                    next = now;
+                }
+                LockSupport.parkNanos(next - now);
+            }
+        } finally {
+            strategy.dispose();
+        }
+    }
+
+    private boolean needsFrame() {
+        return exposed || loop.latest() != drawn
+                || canvas.getWidth() != drawnWidth || canvas.getHeight() != drawnHeight;
+    }
+
+    private void drawFrame(BufferStrategy strategy, long deadline) {
+        exposed = false;
+        GameSnapshot snapshot = loop.latest();
+        int width = canvas.getWidth();
+        int height = canvas.getHeight();
+        // Contents can be lost, e.g. when the display mode changes; then the whole frame is drawn again.
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    board.renderFrame(g, snapshot, width, height, canvas.getGraphicsConfiguration());
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        if (vsync) {
+            Toolkit.getDefaultToolkit().sync();
+        }
+        board.frameShown(snapshot, System.nanoTime() - deadline);
+        drawn = snapshot;
+        drawnWidth = width;
+        drawnHeight = height;
+    }
+}
@@ -0,0 +1,121 @@
+package tetris;
+
+import java.util.function.Predicate;
+
+/**
+ * Delayed auto shift (DAS) and auto repeat rate (ARR), counted in logic
+ * ticks so held keys repeat the same way on every platform and in replays.
+ * A horizontal press moves once; if the key is still held after the DAS
+ * delay, it moves again every ARR ticks, or straight to the wall when ARR
+ * is 0. The most recently pressed direction wins. Soft drop repeats every
+ * {@link #SOFT_DROP_TICKS} while held. Not thread-safe: used only by the logic thread.
+ */
+final class AutoRepeat {
+
+    /** 10 ticks = 167 ms at 60 Hz. */
+    static final int DEFAULT_DAS_TICKS = 10;
+    /** 2 ticks = 33 ms at 60 Hz. */
+    static final int DEFAULT_ARR_TICKS = 2;
+    static final int SOFT_DROP_TICKS = 2;
+
+    private int dasTicks = DEFAULT_DAS_TICKS;
+    private int arrTicks = DEFAULT_ARR_TICKS;
+
+    private boolean leftHeld;
+    private boolean rightHeld;
+    private boolean softDropHeld;
+    // The direction currently shifting, or null
+    private InputBuffer.Key shift;
+    private int shiftTimer;
+    private int softDropTimer;
+
+    void configure(int dasTicks, int arrTicks) {
+        this.dasTicks = Math.max(0, dasTicks);
+        this.arrTicks = Math.max(0, arrTicks);
+    }
+
+    int getDasTicks() {
+        return dasTicks;
+    }
+
+    int getArrTicks() {
+        return arrTicks;
+    }
+
+    /** Records a key press and returns the action to apply right away. */
+    InputAction press(InputBuffer.Key key) {
+        switch (key) {
+            case LEFT -> {
+                leftHeld = true;
+                startShift(key);
+            }
+            case RIGHT -> {
+                rightHeld = true;
+                startShift(key);
+            }
+            case SOFT_DROP -> {
+                softDropHeld = true;
+                softDropTimer = SOFT_DROP_TICKS;
+            }
+            default -> {
+            }
+        }
+        return key.action;
+    }
+
+    void release(InputBuffer.Key key) {
+        switch (key) {
+            case LEFT -> {
+                leftHeld = false;
+                if (shift == key) {
+                    // Fall back to the other direction if it is still held; it charges from scratch.
+                    shift = null;
+                    if (rightHeld) startShift(InputBuffer.Key.RIGHT);
+                }
+            }
+            case RIGHT -> {
+                rightHeld = false;
+                if (shift == key) {
+                    shift = null;
+                    if (leftHeld) startShift(InputBuffer.Key.LEFT);
+                }
+            }
+            case SOFT_DROP -> softDropHeld = false;
+            default -> {
+            }
+        }
+    }
+
+    /** Forgets all held keys, e.g. when the window loses focus. */
+    void clear() {
+        leftHeld = rightHeld = softDropHeld = false;
+        shift = null;
+    }
+
+    /**
+     * Advances the timers by one tick, applying any repeats through perform,
+     * which returns whether the action moved the piece.
+     */
+    void tick(Predicate<InputAction> perform) {
+        if (shift != null && --shiftTimer <= 0) {
+            if (arrTicks == 0) {
+                while (perform.test(shift.action)) {
+                    // Shift until the wall or the stack stops the piece.
+                }
+                shiftTimer = 1;
+            } else {
+                perform.test(shift.action);
+                shiftTimer = arrTicks;
+            }
+        }
+        if (softDropHeld && --softDropTimer <= 0) {
+            perform.test(InputAction.SOFT_DROP);
+            softDropTimer = SOFT_DROP_TICKS;
+        }
+    }
+
+    private void startShift(InputBuffer.Key key) {
+        shift = key;
+        shiftTimer = Math.max(1, dasTicks);
+    }
+}
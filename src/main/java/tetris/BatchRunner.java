@@ -0,0 +1,192 @@
+package tetris;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+/**
+ * Plays many independent games headless, spread over a ForkJoinPool, and
+ * prints aggregate statistics. Every game gets its own seed derived from
+ * the base seed, so a batch is reproducible.
+ */
+public final class BatchRunner {
+
+    private BatchRunner() {
+    }
+
+    /** Plays one game to the end (or until maxPieces are placed). */
+    public static void playGame(GameEngine engine, GamePolicy policy, long seed, int maxPieces) {
+        engine.start(seed);
+        while (engine.isStarted() && engine.getPiecesPlaced() < maxPieces) {
+            policy.nextAction(engine).apply(engine);
+        }
+    }
+
+    /**
+     * Plays a started or restored game on to the end (or maxPieces), saving
+     * it to the checkpoint record every `every` pieces and once when it stops.
+     */
+    public static void playGame(GameEngine engine, GamePolicy policy, int maxPieces,
+                                CheckpointFile checkpoints, int record, int every) {
+        int saved = engine.getPiecesPlaced();
+        while (engine.isStarted() && engine.getPiecesPlaced() < maxPieces) {
+            policy.nextAction(engine).apply(engine);
+            if (engine.getPiecesPlaced() - saved >= every) {
+                checkpoints.save(record, engine);
+                saved = engine.getPiecesPlaced();
+            }
+        }
+        checkpoints.save(record, engine);
+    }
+
+    public static long seedFor(long baseSeed, long game) {
+        return new SplitMix64(baseSeed + game).nextLong();
+    }
+
+    public static BatchStats run(long games, int threads, long baseSeed, RandomizerType randomizerType,
+                                 LongFunction<GamePolicy> policies, int maxPieces) {
+        return run(games, threads, baseSeed, randomizerType, BoardSize.DEFAULT, policies, maxPieces);
+    }
+
+    public static BatchStats run(long games, int threads, long baseSeed, RandomizerType randomizerType,
+                                 BoardSize boardSize, LongFunction<GamePolicy> policies, int maxPieces) {
+        return run(games, threads, baseSeed, randomizerType, boardSize, policies, maxPieces, null, 0);
+    }
+
+    /**
+     * Like the other overloads, but with one checkpoint record per game: a
+     * game that already has a checkpoint continues from it instead of
+     * starting over, so a crashed batch can be rerun with the same file.
+     * Policies are not checkpointed and start afresh on a resumed game.
+     */
+    public static BatchStats run(long games, int threads, long baseSeed, RandomizerType randomizerType,
+                                 BoardSize boardSize, LongFunction<GamePolicy> policies, int maxPieces,
+                                 CheckpointFile checkpoints, int checkpointEvery) {
+        return run(games, threads, baseSeed, randomizerType, boardSize, policies, maxPieces, checkpoints,
+                checkpointEvery, null);
+    }
+
+    /**
+     * Like the overload above, also submitting every game's result to the
+     * score log if it is not null. Games restored from the checkpoint
+     * already over are counted in the stats but not submitted again.
+     */
+    public static BatchStats run(long games, int threads, long baseSeed, RandomizerType randomizerType,
+                                 BoardSize boardSize, LongFunction<GamePolicy> policies, int maxPieces,
+                                 CheckpointFile checkpoints, int checkpointEvery, ScoreLog scores) {
+        if (checkpoints != null && checkpoints.getRecords() < games) {
+            throw new IllegalArgumentException("Checkpoint file has fewer records than games");
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> LongStream.range(0, games).parallel().collect(
+                    BatchStats::new,
+                    (stats, game) -> {
+                        long seed = seedFor(baseSeed, game);
+                        GameEngine engine = new GameEngine(randomizerType.create(seed), boardSize);
+                        // A game restored already over was submitted by the run that finished it.
+                        boolean playedHere = true;
+                        if (checkpoints == null) {
+                            playGame(engine, policies.apply(seed), seed, maxPieces);
+                        } else {
+                            int record = (int) game;
+                            if (checkpoints.restore(record, engine)) {
+                                playedHere = engine.isStarted() && engine.getPiecesPlaced() < maxPieces;
+                            } else {
+                                engine.start(seed);
+                            }
+                            playGame(engine, policies.apply(seed), maxPieces, checkpoints, record, checkpointEvery);
+                        }
+                        stats.add(engine);
+                        if (scores != null && playedHere) {
+                            scores.submit(ScoreRecord.of(engine, randomizerType));
+                        }
+                    },
+                    BatchStats::merge)).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static LongFunction<GamePolicy> policy(String name) {
+        return policy(name, BoardSize.DEFAULT);
+    }
+
+    static LongFunction<GamePolicy> policy(String name, BoardSize boardSize) {
+        switch (name) {
+            case "random":
+                return RandomPolicy::new;
+            case "bot":
+                // Games already run in parallel, so each bot searches on its own thread.
+                // The search itself is thread-safe, so one instance serves every game.
+                BotSearch search = new BotSearch(Heuristic.DEFAULT, 2, 8, false, null, boardSize);
+                return seed -> new BotPolicy(search);
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    /**
+     * Usage: --simulate [--games N] [--threads T] [--seed S] [--policy random|bot] [--randomizer uniform|bag]
+     * [--max-pieces M] [--board WIDTHxHEIGHT] [--checkpoint FILE [--checkpoint-every N]] [--scores FILE]
+     */
+    public static void main(String[] args) throws IOException {
+        long games = 10_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long baseSeed = 1;
+        String policy = "random";
+        RandomizerType randomizerType = RandomizerType.SEVEN_BAG;
+        int maxPieces = 10_000;
+        BoardSize boardSize = BoardSize.DEFAULT;
+        Path checkpointFile = null;
+        int checkpointEvery = 100;
+        Path scoresFile = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games" -> games = Long.parseLong(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--seed" -> baseSeed = Long.parseLong(args[++i]);
+                case "--policy" -> policy = args[++i];
+                case "--randomizer" -> randomizerType = RandomizerType.parse(args[++i]);
+                case "--max-pieces" -> maxPieces = Integer.parseInt(args[++i]);
+                case "--board" -> boardSize = BoardSize.parse(args[++i]);
+                case "--checkpoint" -> checkpointFile = Paths.get(args[++i]);
+                case "--checkpoint-every" -> checkpointEvery = Integer.parseInt(args[++i]);
+                case "--scores" -> scoresFile = Paths.get(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        CheckpointFile checkpoints = checkpointFile == null ? null
+                : CheckpointFile.open(checkpointFile, randomizerType, boardSize, Math.toIntExact(games));
+        ScoreLog scores = scoresFile == null ? null : ScoreLog.open(scoresFile, ScoreLog.DEFAULT_TOP);
+        long startNanos = System.nanoTime();
+        BatchStats stats;
+        try {
+            stats = run(games, threads, baseSeed, randomizerType, boardSize, policy(policy, boardSize), maxPieces,
+                    checkpoints, checkpointEvery, scores);
+        } finally {
+            if (checkpoints != null) {
+                checkpoints.close();
+            }
+            if (scores != null) {
+                // Waits for the writer to drain the queue.
+                scores.close();
+            }
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+        System.out.printf("games           %d (%d threads, policy %s, %s, board %s)%n",
+                stats.getGames(), threads, policy, randomizerType, boardSize);
+        System.out.printf("games/s         %.0f%n", stats.getGames() / seconds);
+        System.out.printf("pieces/s        %.0f%n", stats.getTotalPieces() / seconds);
+        System.out.printf("lines/game      %.2f%n", stats.getMeanLines());
+        System.out.printf("pieces/game     %.2f (max %d)%n", stats.getMeanPieces(), stats.getMaxPieces());
+        System.out.printf("score mean      %.1f%n", stats.getMeanScore());
+        System.out.printf("score p50/p90/p99/max  %d / %d / %d / %d%n", stats.scorePercentile(0.5),
+                stats.scorePercentile(0.9), stats.scorePercentile(0.99), stats.getMaxScore());
+    }
+}
@@ -0,0 +1,92 @@
+package tetris;
+
+import java.util.Arrays;
+
+/** Aggregate results of many games. Each worker fills its own instance; they are merged at the end. */
+public class BatchStats {
+
+    private static final int SCORE_BUCKET = 100;
+
+    private long games;
+    private long totalLines;
+    private long totalScore;
+    private long totalPieces;
+    private int maxScore;
+    private int maxPieces;
+    // Scores only move in steps of 100, so a bucket per step is exact.
+    private long[] scoreHistogram = new long[64];
+
+    public void add(GameEngine engine) {
+        add(engine.getScore(), engine.getNumLinesRemoved(), engine.getPiecesPlaced());
+    }
+
+    public void add(int score, int lines, int pieces) {
+        games++;
+        totalLines += lines;
+        totalScore += score;
+        totalPieces += pieces;
+        maxScore = Math.max(maxScore, score);
+        maxPieces = Math.max(maxPieces, pieces);
+        int bucket = score / SCORE_BUCKET;
+        if (bucket >= scoreHistogram.length) {
+            scoreHistogram = Arrays.copyOf(scoreHistogram, Math.max(bucket + 1, scoreHistogram.length * 2));
+        }
+        scoreHistogram[bucket]++;
+    }
+
+    public void merge(BatchStats other) {
+        games += other.games;
+        totalLines += other.totalLines;
+        totalScore += other.totalScore;
+        totalPieces += other.totalPieces;
+        maxScore = Math.max(maxScore, other.maxScore);
+        maxPieces = Math.max(maxPieces, other.maxPieces);
+        if (other.scoreHistogram.length > scoreHistogram.length) {
+            scoreHistogram = Arrays.copyOf(scoreHistogram, other.scoreHistogram.length);
+        }
+        for (int i = 0; i < other.scoreHistogram.length; i++) {
+            scoreHistogram[i] += other.scoreHistogram[i];
+        }
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public double getMeanLines() {
+        return games == 0 ? 0 : (double) totalLines / games;
+    }
+
+    public double getMeanScore() {
+        return games == 0 ? 0 : (double) totalScore / games;
+    }
+
+    public double getMeanPieces() {
+        return games == 0 ? 0 : (double) totalPieces / games;
+    }
+
+    public long getTotalPieces() {
+        return totalPieces;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /** Score at or below which the given fraction (0..1) of games fall. */
+    public int scorePercentile(double fraction) {
+        long target = (long) Math.ceil(fraction * games);
+        long seen = 0;
+        for (int i = 0; i < scoreHistogram.length; i++) {
+            seen += scoreHistogram[i];
+            if (seen >= target && seen > 0) {
+                return i * SCORE_BUCKET;
+            }
+        }
+        return maxScore;
+    }
+}
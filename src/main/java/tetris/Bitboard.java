@@ -0,0 +1,70 @@
+package tetris;
+
+/**
+ * Static operations on a playfield stored as one bitmask per row, shared by
+ * the engine and the search code so both apply exactly the same rules.
+ */
+final class Bitboard {
+
+    /** Widest board whose rows fit an int mask. */
+    static final int MAX_WIDTH = 32;
+
+    private Bitboard() {
+    }
+
+    static boolean fits(int[] rows, int width, int height, Shape.Orientation o, int x, int y) {
+        return fits(rows, 0, width, height, o, x, y);
+    }
+
+    /** Like the overload above for a board whose rows start at rows[base], e.g. one of many in a shared array. */
+    static boolean fits(int[] rows, int base, int width, int height, Shape.Orientation o, int x, int y) {
+        int left = x + o.minX;
+        int top = y + o.minY;
+        if (left < 0 || left + o.width > width || top < 0 || top + o.height > height) {
+            return false;
+        }
+        int[] masks = o.rowMasks;
+        for (int r = 0; r < masks.length; r++) {
+            if ((rows[base + top + r] & (masks[r] << left)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void place(int[] rows, Shape.Orientation o, int x, int y) {
+        place(rows, 0, o, x, y);
+    }
+
+    static void place(int[] rows, int base, Shape.Orientation o, int x, int y) {
+        int left = x + o.minX;
+        int top = y + o.minY;
+        for (int r = 0; r < o.height; r++) {
+            rows[base + top + r] |= o.rowMasks[r] << left;
+        }
+    }
+
+    /** Removes full rows in one bottom-up pass, shifting the rest down; returns how many were removed. */
+    static int clearFullRows(int[] rows, int width, int height) {
+        return clearFullRows(rows, 0, width, height - 1);
+    }
+
+    /**
+     * Removes full rows among rows[base]..rows[base + bottom], shifting the
+     * rows above them down; rows below bottom are left alone.
+     */
+    static int clearFullRows(int[] rows, int base, int width, int bottom) {
+        int fullRow = width == 32 ? -1 : (1 << width) - 1;
+        int dst = base + bottom;
+        for (int y = base + bottom; y >= base; y--) {
+            if (rows[y] != fullRow) {
+                rows[dst--] = rows[y];
+            }
+        }
+        int cleared = dst + 1 - base;
+        for (int y = dst; y >= base; y--) {
+            rows[y] = 0;
+        }
+        return cleared;
+    }
+}
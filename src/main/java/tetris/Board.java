@@ -0,0 +1,260 @@
+package tetris;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Swing view of a game. The rules run on a {@link GameLoop} thread; this
+ * panel only posts key presses to it and paints the latest snapshot it
+ * publishes.
+ */
+public class Board extends JPanel {
+
+    private final BoardRenderer renderer;
+    private GameSnapshot latencyMeasured;
+    // Non-null while the render thread, not paintComponent, draws the board
+    private volatile ActiveRenderer activeRenderer;
+
+    private final GameLoop loop;
+
+    public Board() {
+        this(RandomizerType.UNIFORM);
+    }
+
+    public Board(RandomizerType randomizerType) {
+        this(randomizerType, BoardSize.DEFAULT);
+    }
+
+    public Board(RandomizerType randomizerType, BoardSize boardSize) {
+        this.renderer = new BoardRenderer(boardSize, Color.BLACK);
+        this.loop = new GameLoop(randomizerType, boardSize, this::snapshotPublished);
+        initBoard();
+    }
+
+    private void initBoard() {
+        setFocusable(true);
+        TAdapter keys = new TAdapter();
+        addKeyListener(keys);
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                keys.releaseAll();
+            }
+        });
+        setBackground(Color.BLACK); 
+    }
+
+    public GameLoop getLoop() {
+        return loop;
+    }
+
+    /** Records every finished game as a replay file in the given directory, or stops recording if null. */
+    public void setReplayDirectory(Path replayDirectory) {
+        loop.setReplayDirectory(replayDirectory);
+    }
+
+    /**
+     * Switches to active rendering: a canvas drawn by its own thread at the
+     * given frame rate (0 for the display's refresh rate), optionally synced
+     * to the display after every frame. Call before the board is shown. Falls
+     * back to Swing painting when running headless or when no buffer strategy
+     * can be created.
+     */
+    public void setActiveRendering(int fps, boolean vsync) {
+        if (GraphicsEnvironment.isHeadless() || activeRenderer != null) {
+            return;
+        }
+        ActiveRenderer active = new ActiveRenderer(this, loop, fps, vsync);
+        setLayout(new BorderLayout());
+        add(active.getCanvas(), BorderLayout.CENTER);
+        activeRenderer = active;
+    }
+
+    public boolean isActiveRendering() {
+        return activeRenderer != null;
+    }
+
+    // Called on the render thread when the canvas has no buffer strategy.
+    void activeRenderingFailed(ActiveRenderer active) {
+        System.err.println("Active rendering unavailable, painting through Swing");
+        SwingUtilities.invokeLater(() -> {
+            if (activeRenderer == active) {
+                activeRenderer = null;
+                remove(active.getCanvas());
+                revalidate();
+                repaint();
+            }
+        });
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        loop.start();
+        ActiveRenderer active = activeRenderer;
+        if (active != null) {
+            active.start();
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        ActiveRenderer active = activeRenderer;
+        if (active != null) {
+            active.stop();
+        }
+        loop.stop();
+        super.removeNotify();
+    }
+
+    public void start() {
+        loop.postStart();
+    }
+
+    // Runs on the logic thread; repaint() is thread-safe. Score and preview views subscribe to the loop's events.
+    private void snapshotPublished(GameSnapshot previous, GameSnapshot current) {
+        // In active mode the render thread picks up the latest snapshot on its own frame clock.
+        if (activeRenderer == null) {
+            repaintChanged(previous, current);
+        }
+    }
+
+    private void repaintChanged(GameSnapshot previous, GameSnapshot current) {
+        if (current.getStackVersion() != previous.getStackVersion()
+                || current.isPaused() != previous.isPaused()
+                || current.isStarted() != previous.isStarted()) {
+            repaint();
+        } else {
+            // Only the cells the piece left and entered need repainting.
+            repaint(renderer.pieceBounds(previous).union(renderer.pieceBounds(current)));
+        }
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+        if (activeRenderer != null) {
+            // The canvas covers the panel and is drawn by the render thread.
+            return;
+        }
+        renderFrame(g, loop.latest(), getWidth(), getHeight(), getGraphicsConfiguration());
+    }
+
+    // Called on the EDT, or on the render thread in active mode.
+    void renderFrame(Graphics g, GameSnapshot snapshot, int width, int height, GraphicsConfiguration gc) {
+        long paintStart = System.nanoTime();
+        renderer.setGraphicsConfiguration(gc);
+        renderer.fit(width, height);
+        renderer.render(g, snapshot, width, height);
+
+        long paintEnd = System.nanoTime();
+        GameMetrics metrics = loop.getMetrics();
+        metrics.paintTime.record(paintEnd - paintStart);
+        // The first paint of a snapshot that carries a key press is when the player can see it.
+        if (snapshot.getInputNanos() != 0 && snapshot != latencyMeasured) {
+            latencyMeasured = snapshot;
+            metrics.inputLatency.record(paintEnd - snapshot.getInputNanos());
+        }
+    }
+
+    // Called on the render thread once a frame is on screen, lateNanos after its deadline.
+    void frameShown(GameSnapshot snapshot, long lateNanos) {
+        loop.getMetrics().frameLateness.record(lateNanos);
+    }
+
+    public void updateCellSize() {
+        // In active mode the render thread sizes cells from the canvas before every frame.
+        if (activeRenderer == null) {
+            renderer.fit(getWidth(), getHeight());
+        }
+    }
+
+    /** Forces the cached stack layer to be redrawn on the next paint. */
+    void invalidateStack() {
+        renderer.invalidateStack();
+        ActiveRenderer active = activeRenderer;
+        if (active != null) {
+            active.requestFrame();
+        } else {
+            repaint();
+        }
+    }
+
+    // Maps a key code to a movement key, or null for the non-movement keys.
+    private static InputBuffer.Key movementKey(int keycode) {
+        return switch (keycode) {
+            case KeyEvent.VK_LEFT, KeyEvent.VK_A -> InputBuffer.Key.LEFT;
+            case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> InputBuffer.Key.RIGHT;
+            case KeyEvent.VK_DOWN, KeyEvent.VK_S -> InputBuffer.Key.SOFT_DROP;
+            case KeyEvent.VK_UP, KeyEvent.VK_W -> InputBuffer.Key.ROTATE_RIGHT;
+            case KeyEvent.VK_Z -> InputBuffer.Key.ROTATE_LEFT;
+            case KeyEvent.VK_SPACE -> InputBuffer.Key.HARD_DROP;
+            default -> null;
+        };
+    }
+
+    // Back-dates to the OS event time so EDT queueing counts towards input latency.
+    private static long eventNanos(KeyEvent e) {
+        return System.nanoTime()
+                - TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - e.getWhen()));
+    }
+
+    /**
+     * Forwards key-down and key-up edges to the loop, which handles repeat
+     * itself; OS auto-repeat presses for a key already held are ignored.
+     */
+    class TAdapter extends KeyAdapter {
+        private final boolean[] held = new boolean[InputBuffer.Key.values().length];
+
+        @Override
+        public void keyPressed(KeyEvent e) {
+            long inputNanos = eventNanos(e);
+            GameSnapshot snapshot = loop.latest();
+            if (!snapshot.isStarted()) { 
+                if (e.getKeyCode() == KeyEvent.VK_S) {
+                    start();
+                }
+                return;
+            }
+
+            int keycode = e.getKeyCode();
+            if (keycode == KeyEvent.VK_P) {
+                loop.postTogglePause();
+                return;
+            }
+            if (snapshot.isPaused()) { 
+                return;
+            }
+            if (keycode == KeyEvent.VK_B) {
+                loop.postToggleBot();
+                return;
+            }
+
+            InputBuffer.Key key = movementKey(keycode);
+            if (key != null && !held[key.ordinal()]) {
+                held[key.ordinal()] = true;
+                loop.keyPressed(key, inputNanos);
+            }
+        }
+
+        @Override
+        public void keyReleased(KeyEvent e) {
+            InputBuffer.Key key = movementKey(e.getKeyCode());
+            if (key != null && held[key.ordinal()]) {
+                held[key.ordinal()] = false;
+                loop.keyReleased(key, eventNanos(e));
+            }
+        }
+
+        void releaseAll() {
+            Arrays.fill(held, false);
+            loop.postReleaseAllKeys();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package tetris;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws game snapshots: the playfield, landed stack, falling piece with its
+ * ghost, and the pause and game-over overlays. It needs no component, so the
+ * same code paints the Swing panel, the active-rendering canvas and
+ * off-screen images. The background, grid and stack are cached in one layer
+ * that is only redrawn when the stack or the cell size changes.
+ *
+ * Not thread-safe: one thread draws at a time. {@link #pieceBounds} may be
+ * called from any thread.
+ */
+public final class BoardRenderer {
+
+    private static final Color PAUSE_SHADE = new Color(50, 50, 50, 180);
+    private static final Color GAME_OVER_SHADE = new Color(50, 50, 50, 200);
+    private static final Font PAUSE_FONT = new Font("Helvetica", Font.BOLD, 20);
+    private static final Font GAME_OVER_FONT = new Font("Helvetica", Font.BOLD, 24);
+    private static final Font GAME_OVER_TEXT_FONT = new Font("Helvetica", Font.PLAIN, 14);
+
+    private final BoardSize boardSize;
+    private final int boardWidth;
+    private final int visibleHeight;
+    private final int hiddenRows;
+    private final int totalHeight;
+    private final Color background;
+
+    // Read by the logic thread to size dirty rectangles.
+    private volatile int cellSize;
+    private volatile boolean stackDirty = true;
+
+    private BufferedImage stackLayer;
+    private long renderedStackVersion = -1;
+    private GraphicsConfiguration graphicsConfiguration;
+    private BufferedImage[] tiles = SpriteCache.tiles(1);
+    private BufferedImage[] ghostTiles = SpriteCache.ghostTiles(1);
+
+    public BoardRenderer(BoardSize boardSize, Color background) {
+        this.boardSize = boardSize;
+        this.boardWidth = boardSize.width();
+        this.visibleHeight = boardSize.visibleHeight();
+        this.hiddenRows = boardSize.hiddenRows();
+        this.totalHeight = boardSize.totalHeight();
+        this.background = background;
+    }
+
+    public BoardSize getBoardSize() {
+        return boardSize;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /** Sets the largest square cell size that fits the visible board into width x height pixels. */
+    public void fit(int width, int height) {
+        if (width > 0 && height > 0) {
+            setCellSize(Math.max(1, Math.min(width / boardWidth, height / visibleHeight)));
+        }
+    }
+
+    public void setCellSize(int size) {
+        if (size != cellSize) {
+            cellSize = size;
+            tiles = SpriteCache.tiles(size);
+            ghostTiles = SpriteCache.ghostTiles(size);
+            stackDirty = true;
+        }
+    }
+
+    /** Pixel size of the visible board at the current cell size, including the closing grid line. */
+    public int boardPixelWidth() {
+        return boardWidth * cellSize + 1;
+    }
+
+    public int boardPixelHeight() {
+        return visibleHeight * cellSize + 1;
+    }
+
+    /**
+     * Lets the stack layer be created in the format of the screen it is
+     * drawn to; with null it is a plain RGB image.
+     */
+    public void setGraphicsConfiguration(GraphicsConfiguration gc) {
+        if (gc != graphicsConfiguration) {
+            graphicsConfiguration = gc;
+            stackLayer = null;
+        }
+    }
+
+    /** Forces the cached stack layer to be redrawn on the next render. */
+    public void invalidateStack() {
+        stackDirty = true;
+    }
+
+    /** Draws the whole frame, filling the area right of and below the board with the background. */
+    public void render(Graphics g, GameSnapshot snapshot, int width, int height) {
+        if (stackDirty || stackLayer == null || snapshot.getStackVersion() != renderedStackVersion) {
+            renderStackLayer(snapshot);
+        }
+        // The layer covers the board; only the margins around it need the background.
+        int layerWidth = stackLayer.getWidth();
+        int layerHeight = stackLayer.getHeight();
+        g.setColor(background);
+        g.fillRect(layerWidth, 0, width - layerWidth, height);
+        g.fillRect(0, layerHeight, layerWidth, height - layerHeight);
+        g.drawImage(stackLayer, 0, 0, null);
+        drawCurrentFallingPiece(g, snapshot);
+
+        if (snapshot.isPaused()) {
+            drawPauseScreen(g);
+        }
+        // Show Game Over overlay if game is finished and not started
+        if (snapshot.isFallingFinished() && !snapshot.isStarted()) {
+            drawGameOverScreen(g, snapshot);
+        }
+    }
+
+    /** Pixel bounds of the falling piece and its ghost below it (empty if there is none). */
+    public Rectangle pieceBounds(GameSnapshot snapshot) {
+        if (snapshot.getPieceShape() == Shape.PieceShape.NoShape) {
+            return new Rectangle();
+        }
+        int size = cellSize;
+        Shape.Orientation o = snapshot.getOrientation();
+        int left = snapshot.getPieceX() + o.minX;
+        int top = snapshot.getPieceY() + o.minY - hiddenRows;
+        int rows = snapshot.getGhostY() - snapshot.getPieceY() + o.height;
+        return new Rectangle(left * size, top * size, o.width * size + 1, rows * size + 1);
+    }
+
+    private void renderStackLayer(GameSnapshot snapshot) {
+        int width = Math.max(boardPixelWidth(), 1);
+        int height = Math.max(boardPixelHeight(), 1);
+        if (stackLayer == null || stackLayer.getWidth() != width || stackLayer.getHeight() != height) {
+            GraphicsConfiguration gc = graphicsConfiguration;
+            stackLayer = gc != null
+                    ? gc.createCompatibleImage(width, height)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g = stackLayer.createGraphics();
+        try {
+            drawGameArea(g);
+            drawLandedPieces(g, snapshot);
+        } finally {
+            g.dispose();
+        }
+        stackDirty = false;
+        renderedStackVersion = snapshot.getStackVersion();
+    }
+
+    private void drawGameArea(Graphics g) {
+        int boardPixelWidth = boardWidth * cellSize;
+        int boardPixelHeight = visibleHeight * cellSize;
+
+        g.setColor(background);
+        g.fillRect(0, 0, boardPixelWidth + 1, boardPixelHeight + 1);
+
+        g.setColor(Color.DARK_GRAY);
+        for (int i = 0; i <= boardWidth; i++) {
+            g.drawLine(i * cellSize, 0, i * cellSize, boardPixelHeight);
+        }
+        for (int i = 0; i <= visibleHeight; i++) {
+            g.drawLine(0, i * cellSize, boardPixelWidth, i * cellSize);
+        }
+    }
+
+    private void drawLandedPieces(Graphics g, GameSnapshot snapshot) {
+        for (int x = 0; x < boardWidth; x++) {
+            for (int yGrid = hiddenRows; yGrid < totalHeight; yGrid++) {
+                int cell = snapshot.getCell(x, yGrid);
+                if (cell != 0) {
+                    int yScreen = yGrid - hiddenRows;
+                    drawSquare(g, x * cellSize, yScreen * cellSize, cell);
+                }
+            }
+        }
+    }
+
+    private void drawCurrentFallingPiece(Graphics g, GameSnapshot snapshot) {
+        Shape.PieceShape shape = snapshot.getPieceShape();
+        if (shape != Shape.PieceShape.NoShape) {
+            Shape.Orientation o = snapshot.getOrientation();
+            int curPieceX = snapshot.getPieceX();
+            int curPieceY = snapshot.getPieceY();
+            int ghostY = snapshot.getGhostY();
+            for (int i = 0; i < 4; i++) {
+                int xGrid = curPieceX + o.getX(i);
+                int yGhost = ghostY + o.getY(i);
+                if (ghostY != curPieceY && yGhost >= hiddenRows) {
+                    g.drawImage(ghostTiles[shape.ordinal()], xGrid * cellSize,
+                            (yGhost - hiddenRows) * cellSize, null);
+                }
+            }
+            for (int i = 0; i < 4; i++) {
+                int xGrid = curPieceX + o.getX(i);
+                int yGrid = curPieceY + o.getY(i);
+
+                if (yGrid >= hiddenRows) {
+                    int yScreen = yGrid - hiddenRows;
+                    drawSquare(g, xGrid * cellSize, yScreen * cellSize, shape.ordinal());
+                }
+            }
+        }
+    }
+
+    private void drawSquare(Graphics g, int screenX, int screenY, int shapeOrdinal) {
+        g.drawImage(tiles[shapeOrdinal], screenX, screenY, null);
+    }
+
+    private void drawPauseScreen(Graphics g) {
+        g.setColor(PAUSE_SHADE);
+        g.fillRect(0, 0, boardWidth * cellSize, visibleHeight * cellSize);
+        g.setColor(Color.WHITE);
+        g.setFont(PAUSE_FONT);
+        String msg = "PAUSED";
+        FontMetrics fm = g.getFontMetrics();
+        int msgWidth = fm.stringWidth(msg);
+        g.drawString(msg, (boardWidth * cellSize - msgWidth) / 2, (visibleHeight * cellSize) / 2);
+    }
+
+    private void drawGameOverScreen(Graphics g, GameSnapshot snapshot) {
+        g.setColor(GAME_OVER_SHADE);
+        g.fillRect(0, 0, boardWidth * cellSize, visibleHeight * cellSize);
+        g.setColor(Color.RED);
+        g.setFont(GAME_OVER_FONT);
+        String msg = "GAME OVER";
+        FontMetrics fm = g.getFontMetrics();
+        int msgWidth = fm.stringWidth(msg);
+        g.drawString(msg, (boardWidth * cellSize - msgWidth) / 2, (visibleHeight * cellSize) / 2 - 20);
+
+        g.setColor(Color.WHITE);
+        g.setFont(GAME_OVER_TEXT_FONT);
+        String scoreMsg = "Final Score: " + snapshot.getScore();
+        int scoreMsgWidth = fm.stringWidth(scoreMsg);
+        g.drawString(scoreMsg, (boardWidth * cellSize - scoreMsgWidth) / 2 + 20, (visibleHeight * cellSize) / 2 + 10);
+
+        String restartMsg = "Press 'S' to Restart";
+        int restartMsgWidth = fm.stringWidth(restartMsg);
+        g.drawString(restartMsg, (boardWidth * cellSize - restartMsgWidth) / 2 + 15, (visibleHeight * cellSize) / 2 + 40);
+    }
+}
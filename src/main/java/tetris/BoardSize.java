@@ -0,0 +1,39 @@
+package tetris;
+
+/**
+ * Playfield dimensions, fixed for the lifetime of a GameEngine. Pieces
+ * spawn in the hidden rows above the visible area.
+ */
+public record BoardSize(int width, int visibleHeight, int hiddenRows) {
+
+    public static final BoardSize DEFAULT = new BoardSize(10, 20, 2);
+
+    public BoardSize {
+        // A piece needs four columns to rotate the I and a few rows to spawn in.
+        if (width < 4 || visibleHeight < 4 || hiddenRows < 2) {
+            throw new IllegalArgumentException("Board too small: " + width + "x" + visibleHeight + "+" + hiddenRows);
+        }
+        if ((long) width * (visibleHeight + hiddenRows) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Board too large: " + width + "x" + visibleHeight);
+        }
+    }
+
+    public int totalHeight() {
+        return visibleHeight + hiddenRows;
+    }
+
+    /** Parses "WIDTHxHEIGHT" (visible height, default hidden rows). */
+    public static BoardSize parse(String text) {
+        int x = text.indexOf('x');
+        if (x < 0) {
+            throw new IllegalArgumentException("Expected WIDTHxHEIGHT: " + text);
+        }
+        return new BoardSize(Integer.parseInt(text.substring(0, x)), Integer.parseInt(text.substring(x + 1)),
+                DEFAULT.hiddenRows);
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + visibleHeight;
+    }
+}
@@ -0,0 +1,122 @@
+package tetris;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Plays with {@link BotSearch}: plans once per piece, then feeds the planned
+ * moves to the engine one per call. Every move goes through the engine's
+ * normal tryMove rules, so the bot can only do what a player could.
+ *
+ * The bot follows where its plan expects the piece to be. When something
+ * else moved the piece, such as gravity, and the plan was about to soft-drop
+ * it there anyway, those steps are skipped; any other difference makes it
+ * plan again from the live position.
+ */
+public class BotPolicy implements GamePolicy {
+
+    private final BotSearch search;
+    private final Executor planner;
+    private InputAction[] plan;
+    private int step;
+    private int planPiece = -1;
+    // Where the piece should be before plan[step]
+    private int planOrientation;
+    private int planX;
+    private int planY;
+    private Request planning;
+
+    private record Request(int pieces, int orientation, int x, int y, CompletableFuture<InputAction[]> actions) {
+    }
+
+    public BotPolicy(BotSearch search) {
+        this(search, Runnable::run);
+    }
+
+    /** A bot that runs its searches on the given executor; see {@link #pollAction}. */
+    public BotPolicy(BotSearch search, Executor planner) {
+        this.search = search;
+        this.planner = planner;
+    }
+
+    @Override
+    public InputAction nextAction(GameEngine engine) {
+        InputAction action;
+        while ((action = pollAction(engine)) == null) {
+            planning.actions().join();
+        }
+        return action;
+    }
+
+    /**
+     * Like {@link #nextAction}, but returns null instead of waiting while a
+     * plan is still being searched. The search works on a copy of the board,
+     * so the game may go on meanwhile; a plan that no longer fits the piece
+     * when it arrives is searched again.
+     */
+    public InputAction pollAction(GameEngine engine) {
+        if (plan != null && (engine.getPiecesPlaced() != planPiece || !follow(engine))) {
+            plan = null;
+        }
+        while (plan == null) {
+            if (planning == null || planning.pieces() != engine.getPiecesPlaced()) {
+                planning = plan(engine);
+            }
+            if (!planning.actions().isDone()) {
+                return null;
+            }
+            Request done = planning;
+            planning = null;
+            plan = done.actions().join();
+            step = 0;
+            planPiece = done.pieces();
+            planOrientation = done.orientation();
+            planX = done.x();
+            planY = done.y();
+            if (!follow(engine)) {
+                plan = null;
+            }
+        }
+        InputAction action = plan[step++];
+        Shape.PieceShape shape = engine.getCurrentPiece().getPieceShape();
+        switch (action) {
+            case MOVE_LEFT -> planX--;
+            case MOVE_RIGHT -> planX++;
+            case SOFT_DROP -> planY++;
+            case ROTATE_RIGHT -> planOrientation = shape.rotatedRight(planOrientation);
+            case ROTATE_LEFT -> planOrientation = shape.rotatedLeft(planOrientation);
+            default -> {
+            }
+        }
+        return action;
+    }
+
+    /** Whether the live piece is where the rest of the plan starts, after skipping drops it already made. */
+    private boolean follow(GameEngine engine) {
+        Shape current = engine.getCurrentPiece();
+        if (current.getOrientationIndex() != planOrientation || engine.getCurPieceX() != planX) {
+            return false;
+        }
+        while (engine.getCurPieceY() > planY && step < plan.length && plan[step] == InputAction.SOFT_DROP) {
+            planY++;
+            step++;
+        }
+        return engine.getCurPieceY() == planY && step < plan.length;
+    }
+
+    private Request plan(GameEngine engine) {
+        int[] rows = new int[engine.getTotalHeight()];
+        engine.copyRows(rows);
+        Shape current = engine.getCurrentPiece();
+        Shape.PieceShape piece = current.getPieceShape();
+        int orientation = current.getOrientationIndex();
+        int x = engine.getCurPieceX();
+        int y = engine.getCurPieceY();
+        Shape.PieceShape next = engine.getNextPiece().getPieceShape();
+        CompletableFuture<InputAction[]> actions = CompletableFuture.supplyAsync(() -> {
+            BotSearch.Plan found = search.search(rows, piece, orientation, x, y, next);
+            return found == null ? new InputAction[]{InputAction.HARD_DROP} : found.actions();
+        }, planner);
+        return new Request(engine.getPiecesPlaced(), orientation, x, y, actions);
+    }
+}
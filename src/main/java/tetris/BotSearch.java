@@ -0,0 +1,230 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Placement search for the bot. Ply 1 places the current piece at every
+ * reachable lock position, ply 2 does the same for the known next piece,
+ * and a third ply scores each surviving board by the average, over all
+ * seven pieces, of its best placement. After every ply only the best
+ * {@code beamWidth} boards are kept. Expansions within a ply are independent
+ * and can run on the common ForkJoinPool.
+ *
+ * An optional {@link TranspositionTable} caches values under the board's
+ * Zobrist hash, shared by every ply: each board's static value at depth 0,
+ * and at depth 1 the third ply's best placement of each piece and their
+ * average. Boards reached through different move orders, or again on the
+ * next move, are scored once. Lines terms are added outside the table, so
+ * cached and fresh values are identical.
+ */
+public class BotSearch {
+
+    private static final Shape.PieceShape[] PIECES = Shape.PieceShape.values();
+    private static final double DEAD = -1e9;
+    // Keys the average over all pieces apart from the boards and board-plus-piece entries.
+    private static final long ANY_PIECE = 0x9E3779B97F4A7C15L;
+
+    private final Heuristic heuristic;
+    private final int depth;
+    private final int beamWidth;
+    private final boolean parallel;
+    private final TranspositionTable table;
+    private final Zobrist zobrist;
+    private final int width;
+    private final int height;
+
+    private final ThreadLocal<PlacementGenerator> generators;
+
+    /** The moves to reach the chosen placement, ending with a hard drop. */
+    public record Plan(InputAction[] actions, double value) {
+    }
+
+    // hash is the board's Zobrist hash, or 0 without a table
+    private record Node(int[] rows, long hash, int root, int lines, double value) {
+    }
+
+    public BotSearch(Heuristic heuristic, int depth, int beamWidth, boolean parallel) {
+        this(heuristic, depth, beamWidth, parallel, null);
+    }
+
+    public BotSearch(Heuristic heuristic, int depth, int beamWidth, boolean parallel, TranspositionTable table) {
+        this(heuristic, depth, beamWidth, parallel, table, BoardSize.DEFAULT);
+    }
+
+    /** A search for boards of the given size, which must be at most {@link Bitboard#MAX_WIDTH} wide. */
+    public BotSearch(Heuristic heuristic, int depth, int beamWidth, boolean parallel, TranspositionTable table,
+                     BoardSize size) {
+        if (size.width() > Bitboard.MAX_WIDTH) {
+            throw new IllegalArgumentException("The bot supports boards up to " + Bitboard.MAX_WIDTH + " columns");
+        }
+        this.heuristic = heuristic;
+        this.table = table;
+        this.width = size.width();
+        this.height = size.totalHeight();
+        this.zobrist = table == null ? null : new Zobrist(width, height, 0x5EED);
+        this.depth = Math.max(1, Math.min(depth, 3));
+        this.beamWidth = beamWidth;
+        this.parallel = parallel;
+        this.generators = ThreadLocal.withInitial(
+                () -> new PlacementGenerator(width, height));
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    /** The cache this search uses, or null. */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /** Plans the current piece of a running game; returns null if it has no legal placement. */
+    public Plan search(GameEngine engine) {
+        if (engine.getWidth() != width || engine.getTotalHeight() != height) {
+            throw new IllegalArgumentException("Search was built for a different board size");
+        }
+        int[] rows = new int[height];
+        engine.copyRows(rows);
+        Shape current = engine.getCurrentPiece();
+        return search(rows, current.getPieceShape(), current.getOrientationIndex(),
+                engine.getCurPieceX(), engine.getCurPieceY(), engine.getNextPiece().getPieceShape());
+    }
+
+    public Plan search(int[] rows, Shape.PieceShape piece, int orientation, int x, int y, Shape.PieceShape next) {
+        PlacementGenerator generator = generators.get();
+        int count = generator.generate(rows, piece, orientation, x, y);
+        if (count == 0) {
+            return null;
+        }
+        if (table != null) {
+            table.newSearch();
+        }
+        int[] roots = new int[count];
+        List<Node> beam = new ArrayList<>(count);
+        Node root = new Node(rows, table == null ? 0 : zobrist.hashRows(rows), 0, 0, 0);
+        for (int i = 0; i < count; i++) {
+            roots[i] = generator.getLockState(i);
+            beam.add(child(root, generator, roots[i], i));
+        }
+        beam = prune(beam.stream());
+
+        if (depth >= 2 && next != null && next != Shape.PieceShape.NoShape) {
+            beam = prune(stream(beam).flatMap(node -> expand(node, next).stream()));
+        }
+        if (depth >= 3) {
+            beam = prune(stream(beam).map(this::expectedValue));
+        }
+
+        Node best = beam.get(0);
+        // Regenerate: the thread-local generator may have been reused by the expansions above.
+        generator.generate(rows, piece, orientation, x, y);
+        InputAction[] path = generator.pathTo(roots[best.root()]);
+        InputAction[] actions = Arrays.copyOf(path, path.length + 1);
+        actions[path.length] = InputAction.HARD_DROP;
+        return new Plan(actions, best.value());
+    }
+
+    private Stream<Node> stream(List<Node> nodes) {
+        return parallel ? nodes.parallelStream() : nodes.stream();
+    }
+
+    private List<Node> prune(Stream<Node> nodes) {
+        return nodes.sorted(Comparator.comparingDouble(Node::value).reversed())
+                .limit(beamWidth)
+                .collect(Collectors.toList());
+    }
+
+    private Node child(Node parent, PlacementGenerator generator, int state, int root) {
+        int[] after = parent.rows().clone();
+        Shape.Orientation o = generator.orientationData(state);
+        int y = generator.yOf(state);
+        Bitboard.place(after, o, generator.xOf(state), y);
+        int cleared = Bitboard.clearFullRows(after, width, height);
+        int total = parent.lines() + cleared;
+        long hash = 0;
+        if (table != null) {
+            if (cleared == 0) {
+                // Only the rows the piece landed in changed.
+                hash = parent.hash();
+                for (int r = y + o.minY; r <= y + o.maxY; r++) {
+                    hash ^= zobrist.hashRow(r, parent.rows()[r]) ^ zobrist.hashRow(r, after[r]);
+                }
+            } else {
+                hash = zobrist.hashRows(after);
+            }
+        }
+        return new Node(after, hash, root, total, boardValue(after, hash) + heuristic.linesScore(total));
+    }
+
+    // Static value of the board without its lines term, looked up first when there is a table.
+    private double boardValue(int[] rows, long hash) {
+        if (table != null) {
+            double cached = table.probe(hash, 0);
+            if (!Double.isNaN(cached)) {
+                return cached;
+            }
+        }
+        double value = heuristic.evaluate(rows, width, height, 0);
+        if (table != null) {
+            table.store(hash, 0, value);
+        }
+        return value;
+    }
+
+    private List<Node> expand(Node node, Shape.PieceShape piece) {
+        PlacementGenerator generator = generators.get();
+        int count = generator.generate(node.rows(), piece, 0, GameEngine.spawnX(width), GameEngine.spawnY(piece));
+        if (count == 0) {
+            return List.of(new Node(node.rows(), node.hash(), node.root(), node.lines(), DEAD));
+        }
+        List<Node> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            children.add(child(node, generator, generator.getLockState(i), node.root()));
+        }
+        return children;
+    }
+
+    private Node expectedValue(Node node) {
+        double average = DEAD;
+        if (table != null) {
+            average = table.probe(node.hash() ^ ANY_PIECE, 1);
+        }
+        if (table == null || Double.isNaN(average)) {
+            double sum = 0;
+            for (int p = 1; p < PIECES.length; p++) {
+                sum += bestPlacementValue(node.rows(), node.hash(), PIECES[p]);
+            }
+            average = sum / (PIECES.length - 1);
+            if (table != null) {
+                table.store(node.hash() ^ ANY_PIECE, 1, average);
+            }
+        }
+        return new Node(node.rows(), node.hash(), node.root(), node.lines(),
+                average + heuristic.linesScore(node.lines()));
+    }
+
+    // Best value of placing the piece on the board, counting only the lines it clears itself.
+    private double bestPlacementValue(int[] rows, long boardHash, Shape.PieceShape piece) {
+        long key = 0;
+        if (table != null) {
+            key = boardHash ^ zobrist.pieceKey(piece, 0, GameEngine.spawnX(width), GameEngine.spawnY(piece));
+            double cached = table.probe(key, 1);
+            if (!Double.isNaN(cached)) {
+                return cached;
+            }
+        }
+        double best = DEAD;
+        for (Node child : expand(new Node(rows, boardHash, 0, 0, 0), piece)) {
+            best = Math.max(best, child.value());
+        }
+        if (table != null) {
+            table.store(key, 1, best);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,202 @@
+package tetris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Game checkpoints in a memory-mapped file with a fixed binary layout, so
+ * saving is a handful of stores into the page cache and survives the
+ * process crashing. The file holds a number of records, one per game, and
+ * each record has two slots that saves alternate between. A slot is written
+ * body first, then its CRC, then its sequence number, and on resume the
+ * newest slot whose CRC matches wins, so a save torn by a crash falls back
+ * to the one before it. Call {@link #force()} to also survive the machine
+ * going down.
+ *
+ * Layout: a 64-byte header (magic, version, randomizer, board size, record
+ * count, slot size), then records * 2 slots of a long sequence, an int CRC32C
+ * of the body, 4 bytes of padding and the {@link GameEngine#writeState} body.
+ *
+ * Different records may be saved and restored from different threads at
+ * once; a single record must not.
+ */
+public final class CheckpointFile implements Closeable {
+
+    private static final int MAGIC = 0x54434B50; // "TCKP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_HEADER = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final RandomizerType randomizerType;
+    private final BoardSize boardSize;
+    private final int records;
+    private final int bodyBytes;
+    private final int slotBytes;
+
+    private CheckpointFile(FileChannel channel, MappedByteBuffer map, RandomizerType randomizerType,
+                           BoardSize boardSize, int records) {
+        this.channel = channel;
+        this.map = map;
+        this.randomizerType = randomizerType;
+        this.boardSize = boardSize;
+        this.records = records;
+        this.bodyBytes = GameEngine.stateBytes(boardSize);
+        this.slotBytes = slotBytes(boardSize);
+    }
+
+    private static int slotBytes(BoardSize boardSize) {
+        // Keep slots 8-byte aligned so the sequence number is a single aligned store.
+        long bytes = (SLOT_HEADER + GameEngine.stateBytes(boardSize) + 7L) & ~7L;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Board too large to checkpoint: " + boardSize);
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Opens the file, creating it if it does not exist. An existing file
+     * keeps its checkpoints but must have been created with the same
+     * randomizer, board size and record count.
+     */
+    public static CheckpointFile open(Path file, RandomizerType randomizerType, BoardSize boardSize, int records)
+            throws IOException {
+        long length = HEADER_SIZE + 2L * records * slotBytes(boardSize);
+        if (records < 1 || length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cannot map " + records + " checkpoint records");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            boolean fresh = channel.size() == 0;
+            if (!fresh && channel.size() != length) {
+                throw new IOException(file + " was created for a different board size or record count");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            if (fresh) {
+                map.putInt(0, MAGIC);
+                map.putInt(4, VERSION);
+                map.putInt(8, randomizerType.ordinal());
+                map.putInt(12, boardSize.width());
+                map.putInt(16, boardSize.visibleHeight());
+                map.putInt(20, boardSize.hiddenRows());
+                map.putInt(24, records);
+                map.putInt(28, slotBytes(boardSize));
+            } else if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION
+                    || map.getInt(8) != randomizerType.ordinal() || map.getInt(12) != boardSize.width()
+                    || map.getInt(16) != boardSize.visibleHeight() || map.getInt(20) != boardSize.hiddenRows()
+                    || map.getInt(24) != records) {
+                throw new IOException(file + " is not a checkpoint file for " + randomizerType + " " + boardSize);
+            }
+            return new CheckpointFile(channel, map, randomizerType, boardSize, records);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public RandomizerType getRandomizerType() {
+        return randomizerType;
+    }
+
+    public BoardSize getBoardSize() {
+        return boardSize;
+    }
+
+    public int getRecords() {
+        return records;
+    }
+
+    /** Saves the engine's full state into the given record, replacing its older slot. */
+    public void save(int record, GameEngine engine) {
+        checkEngine(engine);
+        int a = slotOffset(record, 0);
+        int b = a + slotBytes;
+        long seqA = map.getLong(a);
+        long seqB = map.getLong(b);
+        int newer = seqA > seqB ? a : b;
+        // Replace the older slot, unless the newer one is torn: then the older one is all that is left.
+        int slot = newer == a ? b : a;
+        if (map.getLong(newer) > 0 && !intact(newer)) {
+            slot = newer;
+        }
+        ByteBuffer body = map.slice(slot + SLOT_HEADER, bodyBytes);
+        engine.writeState(body);
+        map.putInt(slot + 8, crc(body.flip()));
+        map.putLong(slot, Math.max(seqA, seqB) + 1);
+    }
+
+    /**
+     * Restores the newest intact checkpoint of the record into the engine.
+     * Returns false, leaving the engine alone, if the record has none.
+     */
+    public boolean restore(int record, GameEngine engine) {
+        checkEngine(engine);
+        int slot = newestSlot(record);
+        if (slot < 0) {
+            return false;
+        }
+        engine.readState(map.slice(slot + SLOT_HEADER, bodyBytes));
+        return true;
+    }
+
+    /** Number of saves behind the record's newest intact checkpoint, 0 if it has none. */
+    public long getSequence(int record) {
+        int slot = newestSlot(record);
+        return slot < 0 ? 0 : map.getLong(slot);
+    }
+
+    /** Writes the mapped pages to the storage device. */
+    public void force() {
+        map.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int newestSlot(int record) {
+        int best = -1;
+        long bestSeq = 0;
+        for (int s = 0; s < 2; s++) {
+            int slot = slotOffset(record, s);
+            long seq = map.getLong(slot);
+            if (seq > bestSeq && intact(slot)) {
+                best = slot;
+                bestSeq = seq;
+            }
+        }
+        return best;
+    }
+
+    private boolean intact(int slot) {
+        return map.getInt(slot + 8) == crc(map.slice(slot + SLOT_HEADER, bodyBytes));
+    }
+
+    private int slotOffset(int record, int slot) {
+        if (record < 0 || record >= records) {
+            throw new IndexOutOfBoundsException("Record " + record + " of " + records);
+        }
+        return HEADER_SIZE + (2 * record + slot) * slotBytes;
+    }
+
+    private void checkEngine(GameEngine engine) {
+        if (!engine.getSize().equals(boardSize)) {
+            throw new IllegalArgumentException("Checkpoint is for " + boardSize + ", engine is " + engine.getSize());
+        }
+    }
+
+    private static int crc(ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,110 @@
+package tetris;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Hands game events to a listener on another thread at most once per loop
+ * tick. Events from the logic thread only overwrite the pending one of
+ * their type, so the listener sees the latest event of each type that
+ * happened since its last delivery, in the order GameStarted, PieceLocked,
+ * LinesCleared, ScoreChanged, PieceSpawned, GameOver. A new game drops what
+ * is pending from the previous one. While a delivery is still queued on the
+ * executor, nothing else is queued, so a slow UI thread never builds a
+ * backlog.
+ * <p>
+ * Each tick's events are published as a whole, in one array that is never
+ * written after it is shared, and a delivery takes everything pending with
+ * one swap. A tick that ends while a delivery runs therefore waits for the
+ * next one instead of being half delivered.
+ */
+final class CoalescingDispatcher implements Consumer<GameEvent> {
+
+    private static final int TYPES = 6;
+
+    private final Consumer<GameEvent> listener;
+    private final Executor executor;
+    // Undelivered events by slot, replaced as a whole and never modified once set.
+    private final AtomicReference<GameEvent[]> pending = new AtomicReference<>();
+    private final AtomicBoolean queued = new AtomicBoolean();
+    // Logic-thread state: this tick's events by slot
+    private final GameEvent[] tick = new GameEvent[TYPES];
+    private boolean dirty;
+
+    CoalescingDispatcher(Consumer<GameEvent> listener, Executor executor) {
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    Consumer<GameEvent> getListener() {
+        return listener;
+    }
+
+    // Called on the logic thread.
+    @Override
+    public void accept(GameEvent event) {
+        int slot = slot(event);
+        if (slot == 0) {
+            Arrays.fill(tick, null);
+        }
+        tick[slot] = event;
+        dirty = true;
+    }
+
+    // Called on the logic thread at the end of every tick.
+    void endTick() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        GameEvent[] events = tick.clone();
+        Arrays.fill(tick, null);
+        pending.accumulateAndGet(events, CoalescingDispatcher::merge);
+        // Published before the check: a delivery that already cleared queued has yet to take pending.
+        if (queued.compareAndSet(false, true)) {
+            executor.execute(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        // Cleared first: a tick published during delivery is picked up by the next one.
+        queued.set(false);
+        GameEvent[] events = pending.getAndSet(null);
+        if (events == null) {
+            return;
+        }
+        for (GameEvent event : events) {
+            if (event != null) {
+                listener.accept(event);
+            }
+        }
+    }
+
+    /** The undelivered events with a newer tick's on top; a new game drops the older ones. */
+    private static GameEvent[] merge(GameEvent[] older, GameEvent[] newer) {
+        if (older == null || newer[0] != null) {
+            return newer;
+        }
+        GameEvent[] merged = older.clone();
+        for (int i = 1; i < TYPES; i++) {
+            if (newer[i] != null) {
+                merged[i] = newer[i];
+            }
+        }
+        return merged;
+    }
+
+    private static int slot(GameEvent event) {
+        return switch (event) {
+            case GameEvent.GameStarted e -> 0;
+            case GameEvent.PieceLocked e -> 1;
+            case GameEvent.LinesCleared e -> 2;
+            case GameEvent.ScoreChanged e -> 3;
+            case GameEvent.PieceSpawned e -> 4;
+            case GameEvent.GameOver e -> 5;
+        };
+    }
+}
@@ -0,0 +1,467 @@
+package tetris;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Headless Tetris rules. The playfield is stored as one bitmask per row
+ * (bit x set means column x is occupied), so collision, landing and line
+ * detection are plain bitwise operations. Board dimensions are chosen per
+ * engine; see {@link RowStore} for how rows of any width are kept. Nothing
+ * here touches AWT or Swing, which lets games be stepped off the EDT or many
+ * at a time.
+ */
+public class GameEngine {
+
+    private static final Shape.PieceShape[] SHAPES = Shape.PieceShape.values();
+    /** Cell id of garbage rows sent by an opponent, one past the last PieceShape ordinal. */
+    public static final byte GARBAGE_CELL = (byte) SHAPES.length;
+    // writeState layout before the cells: seed, randomizer, 5 ints, 4 bytes.
+    private static final int FIXED_STATE_BYTES = 8 + PieceRandomizer.STATE_BYTES + 5 * 4 + 4;
+
+    private final BoardSize size;
+    private final int width;
+    private final int totalHeight;
+    private final RowStore grid;
+    // Highest occupied row per column, totalHeight if empty; lets drops skip the row scan.
+    private final int[] columnTops;
+    // Highest non-empty row; every row above it is empty.
+    private int stackTop;
+    private final long[] seenScratch;
+
+    private boolean isFallingFinished = false;
+    private boolean isStarted = false;
+
+    private int numLinesRemoved = 0;
+    private int score = 0;
+    private int piecesPlaced = 0;
+    private long stackVersion = 0;
+
+    private int curPieceX = 0;
+    private int curPieceY = 0;
+
+    private Shape currentPiece;
+    private Shape nextPiece;
+
+    private final PieceRandomizer randomizer;
+    private long seed;
+
+    public GameEngine() {
+        this(new UniformRandomizer(0));
+    }
+
+    public GameEngine(PieceRandomizer randomizer) {
+        this(randomizer, BoardSize.DEFAULT);
+    }
+
+    public GameEngine(PieceRandomizer randomizer, BoardSize size) {
+        this.randomizer = randomizer;
+        this.size = size;
+        this.width = size.width();
+        this.totalHeight = size.totalHeight();
+        grid = new RowStore(width, totalHeight);
+        columnTops = new int[width];
+        seenScratch = new long[grid.words()];
+        currentPiece = new Shape();
+        nextPiece = new Shape();
+        Arrays.fill(columnTops, totalHeight);
+        stackTop = totalHeight;
+    }
+
+    /** Starts a game with a fresh random seed. */
+    public void start() {
+        start(ThreadLocalRandom.current().nextLong());
+    }
+
+    /** Starts a game whose piece sequence is fully determined by the seed. */
+    public void start(long seed) {
+        this.seed = seed;
+        randomizer.reset(seed);
+        nextPiece.setPieceShape(randomizer.next());
+        isStarted = true;
+        isFallingFinished = false;
+        numLinesRemoved = 0;
+        score = 0;
+        piecesPlaced = 0;
+        stackVersion++;
+        clearBoardGrid();
+        spawnNewPiece();
+    }
+
+    private void clearBoardGrid() {
+        grid.clear();
+        Arrays.fill(columnTops, totalHeight);
+        stackTop = totalHeight;
+    }
+
+    // One pass down from row `from` (everything above it must be empty); each column's first set bit is its top.
+    private void recomputeColumnTops(int from) {
+        Arrays.fill(columnTops, totalHeight);
+        Arrays.fill(seenScratch, 0);
+        stackTop = totalHeight;
+        int found = 0;
+        for (int y = from; y < totalHeight && found < width; y++) {
+            if (grid.isEmpty(y)) {
+                continue;
+            }
+            stackTop = Math.min(stackTop, y);
+            for (int w = 0; w < seenScratch.length; w++) {
+                long fresh = grid.word(y, w) & ~seenScratch[w];
+                seenScratch[w] |= fresh;
+                while (fresh != 0) {
+                    columnTops[(w << 6) + Long.numberOfTrailingZeros(fresh)] = y;
+                    found++;
+                    fresh &= fresh - 1;
+                }
+            }
+        }
+    }
+
+    private void spawnNewPiece() {
+        currentPiece.setPieceShape(nextPiece.getPieceShape());
+        nextPiece.setPieceShape(randomizer.next());
+
+        curPieceX = spawnX(width);
+        curPieceY = spawnY(currentPiece.getPieceShape());
+
+        if (!tryMove(currentPiece, curPieceX, curPieceY)) {
+            topOut();
+        } else {
+            isFallingFinished = false;
+        }
+    }
+
+    private void topOut() {
+        currentPiece.setPieceShape(Shape.PieceShape.NoShape);
+        isStarted = false;
+        isFallingFinished = true;
+    }
+
+    /**
+     * Pushes the stack up by count rows and fills the bottom rows with
+     * garbage, leaving holeX open. The falling piece moves up with the stack
+     * if it has to. Returns false if the stack was pushed off the top, which
+     * ends the game.
+     */
+    public boolean addGarbage(int count, int holeX) {
+        if (!isStarted || count <= 0) {
+            return isStarted;
+        }
+        count = Math.min(count, totalHeight);
+        boolean overflow = stackTop < count;
+        int from = Math.max(0, stackTop - count);
+        grid.pushUp(from, count);
+        for (int y = totalHeight - count; y < totalHeight; y++) {
+            for (int x = 0; x < width; x++) {
+                if (x != holeX) {
+                    grid.set(x, y, GARBAGE_CELL);
+                }
+            }
+        }
+        recomputeColumnTops(from);
+        stackVersion++;
+        if (overflow) {
+            topOut();
+            return false;
+        }
+        int lift = 0;
+        while (!canPlace(currentPiece, curPieceX, curPieceY - lift)) {
+            if (++lift > count) {
+                topOut();
+                return false;
+            }
+        }
+        curPieceY -= lift;
+        return true;
+    }
+
+    static int spawnX(int width) {
+        return width / 2;
+    }
+
+    /** New pieces start in orientation 0 with their top cell on the first row. */
+    static int spawnY(Shape.PieceShape shape) {
+        return -shape.getOrientation(0).minY;
+    }
+
+    /**
+     * Copies the row bitmasks of the landed stack into dst, one int per row,
+     * for the bot code; only boards up to {@link Bitboard#MAX_WIDTH} columns wide fit.
+     */
+    public void copyRows(int[] dst) {
+        if (width > Bitboard.MAX_WIDTH) {
+            throw new IllegalStateException("A " + width + "-column board does not fit int row masks");
+        }
+        for (int y = 0; y < totalHeight; y++) {
+            dst[y] = grid.rowMask(y);
+        }
+    }
+
+    /** Returns true if the piece fits at the given position without moving anything. */
+    public boolean canPlace(Shape piece, int x, int y) {
+        return canPlace(piece.getOrientation(), x, y);
+    }
+
+    public boolean canPlace(Shape.Orientation o, int x, int y) {
+        return grid.fits(o, x, y);
+    }
+
+    /** Moves the current piece, taking the given piece's shape and orientation, if it fits there. */
+    public boolean tryMove(Shape pieceToTry, int newX, int newY) {
+        if (!canPlace(pieceToTry, newX, newY)) {
+            return false;
+        }
+        if (pieceToTry != currentPiece) {
+            // Copied, so the engine never holds on to the caller's piece.
+            currentPiece.setPieceShape(pieceToTry.getPieceShape());
+            currentPiece.setOrientation(pieceToTry.getOrientationIndex());
+        }
+        curPieceX = newX;
+        curPieceY = newY;
+        return true;
+    }
+
+    private void pieceLanded() {
+        byte id = (byte) currentPiece.getPieceShape().ordinal();
+        Shape.Orientation o = currentPiece.getOrientation();
+        for (int i = 0; i < 4; i++) {
+            int x = curPieceX + o.getX(i);
+            int y = curPieceY + o.getY(i);
+            grid.set(x, y, id);
+            columnTops[x] = Math.min(columnTops[x], y);
+        }
+        stackTop = Math.min(stackTop, curPieceY + o.minY);
+
+        piecesPlaced++;
+        stackVersion++;
+        // Only the rows the piece landed in can have become full.
+        for (int y = curPieceY + o.minY; y <= curPieceY + o.maxY; y++) {
+            if (grid.isFull(y)) {
+                removeFullLines(curPieceY + o.maxY);
+                break;
+            }
+        }
+
+        if (!isFallingFinished) {
+            spawnNewPiece();
+        }
+    }
+
+    public boolean moveLeft() {
+        return tryMove(currentPiece, curPieceX - 1, curPieceY);
+    }
+
+    public boolean moveRight() {
+        return tryMove(currentPiece, curPieceX + 1, curPieceY);
+    }
+
+    public boolean rotateRight() {
+        return tryRotate(currentPiece.getPieceShape().rotatedRight(currentPiece.getOrientationIndex()));
+    }
+
+    public boolean rotateLeft() {
+        return tryRotate(currentPiece.getPieceShape().rotatedLeft(currentPiece.getOrientationIndex()));
+    }
+
+    private boolean tryRotate(int orientation) {
+        if (!canPlace(currentPiece.getPieceShape().getOrientation(orientation), curPieceX, curPieceY)) {
+            return false;
+        }
+        currentPiece.setOrientation(orientation);
+        return true;
+    }
+
+    /** Moves the piece down one row, locking it if it cannot fall. Returns true if it locked. */
+    public boolean oneLineDown() {
+        if (!tryMove(currentPiece, curPieceX, curPieceY + 1)) {
+            pieceLanded();
+            return true;
+        }
+        return false;
+    }
+
+    public void dropDownHard() {
+        curPieceY += dropDistance(currentPiece.getOrientation(), curPieceX, curPieceY);
+        pieceLanded();
+    }
+
+    /**
+     * Rows the piece can fall from (x, y) before it lands. When every column
+     * of the piece is above that column's highest block this is a lookup
+     * per column; only a piece tucked under an overhang walks down row by row.
+     */
+    public int dropDistance(Shape.Orientation o, int x, int y) {
+        int distance = Integer.MAX_VALUE;
+        for (int c = 0; c < o.width; c++) {
+            int gap = columnTops[x + o.minX + c] - 1 - (y + o.columnBottoms[c]);
+            if (gap < 0) {
+                int d = 0;
+                while (canPlace(o, x, y + d + 1)) {
+                    d++;
+                }
+                return d;
+            }
+            distance = Math.min(distance, gap);
+        }
+        return distance;
+    }
+
+    /** Row the current piece would land on if hard-dropped now. */
+    public int getGhostY() {
+        if (currentPiece.getPieceShape() == Shape.PieceShape.NoShape) {
+            return curPieceY;
+        }
+        return curPieceY + dropDistance(currentPiece.getOrientation(), curPieceX, curPieceY);
+    }
+
+    void removeFullLines() {
+        removeFullLines(totalHeight - 1);
+    }
+
+    // Clears full rows from the stack top down to `bottom` in one pass; rows below it are left alone.
+    private void removeFullLines(int bottom) {
+        int top = stackTop;
+        int numFullLinesInThisTurn = top > bottom ? 0 : grid.removeFullRows(top, bottom);
+
+        if (numFullLinesInThisTurn > 0) {
+            recomputeColumnTops(top);
+            numLinesRemoved += numFullLinesInThisTurn;
+            if (numFullLinesInThisTurn == 1) score += 100;
+            else if (numFullLinesInThisTurn == 2) score += 300;
+            else if (numFullLinesInThisTurn == 3) score += 500;
+            else if (numFullLinesInThisTurn == 4) score += 800;
+        }
+    }
+
+    /** Replaces the landed stack; cellIds holds one PieceShape ordinal per cell, row-major, 0 for empty. */
+    void loadGrid(byte[] cellIds) {
+        grid.load(cellIds);
+        recomputeColumnTops(0);
+        stackVersion++;
+    }
+
+    /**
+     * Bytes writeState uses for a board of the given size. Throws
+     * IllegalArgumentException if that does not fit in an int.
+     */
+    static int stateBytes(BoardSize size) {
+        long bytes = FIXED_STATE_BYTES + (long) size.width() * size.totalHeight();
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Board too large to save: " + size);
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Writes everything needed to continue this game, including the
+     * randomizer's position, as a fixed layout of stateBytes(getSize())
+     * bytes at dst's position.
+     */
+    void writeState(ByteBuffer dst) {
+        dst.putLong(seed);
+        randomizer.writeState(dst);
+        dst.putInt(score);
+        dst.putInt(numLinesRemoved);
+        dst.putInt(piecesPlaced);
+        dst.putInt(curPieceX);
+        dst.putInt(curPieceY);
+        dst.put((byte) currentPiece.getPieceShape().ordinal());
+        dst.put((byte) currentPiece.getOrientationIndex());
+        dst.put((byte) nextPiece.getPieceShape().ordinal());
+        dst.put((byte) ((isStarted ? 1 : 0) | (isFallingFinished ? 2 : 0)));
+        grid.copyCells(dst);
+    }
+
+    /** Continues the game saved by writeState on an engine of the same size and randomizer type. */
+    void readState(ByteBuffer src) {
+        seed = src.getLong();
+        randomizer.readState(src);
+        score = src.getInt();
+        numLinesRemoved = src.getInt();
+        piecesPlaced = src.getInt();
+        curPieceX = src.getInt();
+        curPieceY = src.getInt();
+        currentPiece.setPieceShape(SHAPES[src.get()]);
+        currentPiece.setOrientation(src.get());
+        nextPiece.setPieceShape(SHAPES[src.get()]);
+        int flags = src.get();
+        isStarted = (flags & 1) != 0;
+        isFallingFinished = (flags & 2) != 0;
+        grid.load(src);
+        recomputeColumnTops(0);
+        stackVersion++;
+    }
+
+    /** Copies the landed stack, one PieceShape ordinal per cell, row-major. */
+    public void copyCells(byte[] dst) {
+        grid.copyCells(dst);
+    }
+
+    /** Changes whenever the landed stack does, so views can tell when to redraw it. */
+    public long getStackVersion() {
+        return stackVersion;
+    }
+
+    public boolean isOccupied(int x, int y) {
+        return grid.isOccupied(x, y);
+    }
+
+    /** Columns 0..31 of the row as a bitmask. */
+    public int getRowMask(int y) {
+        return grid.rowMask(y);
+    }
+
+    public BoardSize getSize() {
+        return size;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /** Visible plus hidden rows. */
+    public int getTotalHeight() {
+        return totalHeight;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    public boolean isFallingFinished() {
+        return isFallingFinished;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getNumLinesRemoved() {
+        return numLinesRemoved;
+    }
+
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    public Shape getCurrentPiece() {
+        return currentPiece;
+    }
+
+    public Shape getNextPiece() {
+        return nextPiece;
+    }
+
+    public int getCurPieceX() {
+        return curPieceX;
+    }
+
+    public int getCurPieceY() {
+        return curPieceY;
+    }
+}
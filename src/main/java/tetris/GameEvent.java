@@ -0,0 +1,34 @@
+package tetris;
+
+/**
+ * Something that happened in a game run by a {@link GameLoop}, stamped with
+ * the loop tick it happened on. After a lock the events come in the order
+ * PieceLocked, LinesCleared, ScoreChanged, then PieceSpawned or GameOver.
+ */
+public sealed interface GameEvent {
+
+    long tick();
+
+    /** A new game began, or a saved one was resumed with the given totals. */
+    record GameStarted(long tick, long seed, int score, int lines, int pieces) implements GameEvent {
+    }
+
+    /** A piece entered the board at its spawn position; next is the preview piece. */
+    record PieceSpawned(long tick, Shape.PieceShape shape, Shape.PieceShape next) implements GameEvent {
+    }
+
+    /** The falling piece became part of the stack at (x, y) in the given orientation. */
+    record PieceLocked(long tick, Shape.PieceShape shape, int orientation, int x, int y, int pieces)
+            implements GameEvent {
+    }
+
+    record LinesCleared(long tick, int count, int totalLines) implements GameEvent {
+    }
+
+    record ScoreChanged(long tick, int score, int previousScore) implements GameEvent {
+    }
+
+    /** The next piece could not spawn. */
+    record GameOver(long tick, int score, int lines, int pieces) implements GameEvent {
+    }
+}
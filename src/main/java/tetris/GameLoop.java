@@ -0,0 +1,412 @@
+package tetris;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Runs the game on its own thread with a fixed 60 Hz timestep, independent
+ * of how long the EDT takes to paint. Other threads never touch the engine.
+ * They post commands, which the logic thread drains at the start of each
+ * tick, and read the latest published {@link GameSnapshot}. Spawns, locks,
+ * line clears, score changes and game ends are also reported as typed
+ * {@link GameEvent}s, either as they happen on the logic thread or
+ * coalesced to one delivery per tick on another thread.
+ */
+public class GameLoop implements Runnable {
+
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    /** Gravity every 24 ticks, the original 400 ms Timer period. */
+    public static final int GRAVITY_TICKS = 24;
+    // After a stall, catch up at most this many ticks before resynchronising the clock.
+    private static final int MAX_CATCH_UP_TICKS = 10;
+
+    private final GameEngine engine;
+    private final RandomizerType randomizerType;
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<GameSnapshot> latest = new AtomicReference<>();
+    private final List<BiConsumer<GameSnapshot, GameSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<GameEvent>> eventListeners = new CopyOnWriteArrayList<>();
+    private final List<CoalescingDispatcher> dispatchers = new CopyOnWriteArrayList<>();
+
+    private final InputBuffer input = new InputBuffer(256);
+    private final InputBuffer.Sink keySink = this::keyEvent;
+    private final Predicate<InputAction> performSink = this::perform;
+    private final GameMetrics metrics = new GameMetrics();
+    private final ReplayRecorder recorder = new ReplayRecorder();
+    private volatile Path replayDirectory;
+    private volatile CheckpointFile checkpoint;
+    private volatile ScoreLog scoreLog;
+    private volatile int checkpointEvery;
+
+    // Logic-thread state
+    private boolean paused;
+    private boolean changed;
+    private long tick;
+    private long gameStartTick;
+    // False for a game resumed from a checkpoint, whose inputs before the resume were not recorded
+    private boolean recording;
+    private int gravityCounter;
+    private long lastGravityNanos;
+    // Earliest key press applied since the last publish, 0 if none
+    private long pendingInputNanos;
+    private BotPolicy bot;
+    private final AutoRepeat autoRepeat = new AutoRepeat();
+
+    private volatile Thread thread;
+
+    /**
+     * @param listener called on the logic thread with (previous, current) after
+     *                 each publication; it must not block
+     */
+    public GameLoop(RandomizerType randomizerType, BiConsumer<GameSnapshot, GameSnapshot> listener) {
+        this(randomizerType, BoardSize.DEFAULT, listener);
+    }
+
+    public GameLoop(RandomizerType randomizerType, BoardSize size, BiConsumer<GameSnapshot, GameSnapshot> listener) {
+        this.randomizerType = randomizerType;
+        this.engine = new GameEngine(randomizerType.create(0), size); // start() reseeds every game
+        if (listener != null) {
+            listeners.add(listener);
+        }
+        eventListeners.add(metrics::count);
+        latest.set(GameSnapshot.capture(engine, null, false, 0, 0));
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(this, "tetris-logic");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        Thread t = thread;
+        thread = null;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /** Runs the action on the logic thread at the start of the next tick. */
+    public void post(Runnable command) {
+        commands.add(command);
+    }
+
+    public void post(InputAction action) {
+        post(action, System.nanoTime());
+    }
+
+    /**
+     * Posts a player input that happened at the given System.nanoTime(), for
+     * input latency tracking. Ignored while the bot plays.
+     */
+    public void post(InputAction action, long inputNanos) {
+        post(() -> {
+            if (engine.isStarted() && !paused && bot == null) {
+                if (perform(action) && pendingInputNanos == 0) {
+                    pendingInputNanos = inputNanos;
+                }
+            }
+        });
+    }
+
+    /** Queues a key-down stamped with System.nanoTime(); safe to call from one producer thread. */
+    void keyPressed(InputBuffer.Key key, long nanos) {
+        input.offer(key, true, nanos);
+    }
+
+    void keyReleased(InputBuffer.Key key, long nanos) {
+        input.offer(key, false, nanos);
+    }
+
+    /** Drops all held keys, for when the window loses focus and will not see their release. */
+    public void postReleaseAllKeys() {
+        post(autoRepeat::clear);
+    }
+
+    /** Sets the delayed auto shift and auto repeat rate, both in ticks. */
+    public void setAutoRepeat(int dasTicks, int arrTicks) {
+        post(() -> autoRepeat.configure(dasTicks, arrTicks));
+    }
+
+    public void postStart() {
+        post(this::startGame);
+    }
+
+    public void postTogglePause() {
+        post(this::togglePause);
+    }
+
+    public void postToggleBot() {
+        post(() -> {
+            if (bot != null) {
+                bot = null;
+            } else if (engine.getWidth() <= Bitboard.MAX_WIDTH) {
+                autoRepeat.clear();
+                // A depth-3 search takes several milliseconds, so it runs off the logic thread.
+                bot = new BotPolicy(new BotSearch(Heuristic.DEFAULT, 3, 16, true,
+                        new TranspositionTable(1 << 16), engine.getSize()), ForkJoinPool.commonPool());
+            }
+        });
+    }
+
+    /** Adds another publication listener, with the same contract as the constructor's. */
+    public void addListener(BiConsumer<GameSnapshot, GameSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Calls the listener on the logic thread for every game event, as it
+     * happens; it must not block.
+     */
+    public void addEventListener(Consumer<GameEvent> listener) {
+        eventListeners.add(listener);
+    }
+
+    /**
+     * Calls the listener on the executor at most once per tick, with the
+     * latest event of each type since the previous call (see
+     * {@link CoalescingDispatcher}). With SwingUtilities::invokeLater this
+     * updates a Swing view no more often than the game changes.
+     */
+    public void addEventListener(Consumer<GameEvent> listener, Executor executor) {
+        CoalescingDispatcher dispatcher = new CoalescingDispatcher(listener, executor);
+        dispatchers.add(dispatcher);
+        eventListeners.add(dispatcher);
+    }
+
+    public void removeEventListener(Consumer<GameEvent> listener) {
+        eventListeners.remove(listener);
+        for (CoalescingDispatcher dispatcher : dispatchers) {
+            if (dispatcher.getListener() == listener) {
+                dispatchers.remove(dispatcher);
+                eventListeners.remove(dispatcher);
+            }
+        }
+    }
+
+    /** Adds every finished game to the leaderboard log, or stops if null. */
+    public void setScoreLog(ScoreLog scoreLog) {
+        this.scoreLog = scoreLog;
+    }
+
+    /** Saves the game to record 0 of the file every given number of pieces and when it ends, or stops if null. */
+    public void setCheckpoint(CheckpointFile checkpoint, int everyPieces) {
+        this.checkpointEvery = Math.max(1, everyPieces);
+        this.checkpoint = checkpoint;
+    }
+
+    /** Continues the game saved in record 0 of the checkpoint; a game that had ended is only shown. */
+    public void postResume(CheckpointFile file) {
+        post(() -> {
+            if (paused || !file.restore(0, engine)) return;
+            recording = false;
+            gravityCounter = 0;
+            lastGravityNanos = 0;
+            changed = true;
+            emit(new GameEvent.GameStarted(tick, engine.getSeed(), engine.getScore(), engine.getNumLinesRemoved(),
+                    engine.getPiecesPlaced()));
+            emitSpawnOrGameOver();
+        });
+    }
+
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    public GameSnapshot latest() {
+        return latest.get();
+    }
+
+    /** Records every finished game as a replay file in the given directory, or stops recording if null. */
+    public void setReplayDirectory(Path replayDirectory) {
+        this.replayDirectory = replayDirectory;
+    }
+
+    /** Direct engine access, only for callers that own the loop while its thread is not running. */
+    GameEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (thread == Thread.currentThread()) {
+            long now = System.nanoTime();
+            if (now - next > MAX_CATCH_UP_TICKS * TICK_NANOS) {
+                next = now;
+            }
+            while (next - now <= 0) {
+                tick();
+                next += TICK_NANOS;
+            }
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+
+    /** Advances the game by one fixed step. */
+    void tick() {
+        long tickStart = System.nanoTime();
+        tick++;
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+        }
+        // Repeats for keys already held run before this tick's new presses, so DAS counts whole ticks.
+        if (engine.isStarted() && !paused && bot == null) {
+            autoRepeat.tick(performSink);
+        }
+        input.drain(keySink);
+        if (engine.isStarted() && !paused) {
+            // The bot plays one planned move per tick once the piece's plan is ready; gravity keeps
+            // running meanwhile, and the bot re-plans if it moved the piece off the plan.
+            if (bot != null) {
+                InputAction action = bot.pollAction(engine);
+                if (action != null) {
+                    perform(action);
+                }
+            }
+            if (engine.isStarted() && ++gravityCounter >= GRAVITY_TICKS) {
+                gravityCounter = 0;
+                if (lastGravityNanos != 0) {
+                    metrics.gravityJitter.record(Math.abs(tickStart - lastGravityNanos - GRAVITY_TICKS * TICK_NANOS));
+                }
+                lastGravityNanos = tickStart;
+                perform(InputAction.GRAVITY);
+            }
+        }
+        if (changed) {
+            changed = false;
+            publish();
+        }
+        for (CoalescingDispatcher dispatcher : dispatchers) {
+            dispatcher.endTick();
+        }
+        metrics.tickTime.record(System.nanoTime() - tickStart);
+    }
+
+    void publish() {
+        GameSnapshot previous = latest.get();
+        GameSnapshot current = GameSnapshot.capture(engine, previous, paused, tick, pendingInputNanos);
+        pendingInputNanos = 0;
+        latest.set(current);
+        for (BiConsumer<GameSnapshot, GameSnapshot> listener : listeners) {
+            listener.accept(previous, current);
+        }
+    }
+
+    private void keyEvent(InputBuffer.Key key, boolean down, long nanos) {
+        if (!down) {
+            autoRepeat.release(key);
+            return;
+        }
+        // The player's keys would pull the piece off the bot's plan.
+        if (bot != null) return;
+        InputAction action = autoRepeat.press(key);
+        if (engine.isStarted() && !paused && perform(action) && pendingInputNanos == 0) {
+            pendingInputNanos = nanos;
+        }
+    }
+
+    private void startGame() {
+        if (paused) return;
+        engine.start();
+        recorder.begin(randomizerType, engine.getSeed(), engine.getSize());
+        recording = true;
+        gameStartTick = tick;
+        gravityCounter = 0;
+        lastGravityNanos = 0;
+        changed = true;
+        emit(new GameEvent.GameStarted(tick, engine.getSeed(), 0, 0, 0));
+        emitSpawnOrGameOver();
+    }
+
+    private void togglePause() {
+        if (!engine.isStarted() || engine.isFallingFinished()) return;
+        paused = !paused;
+        lastGravityNanos = 0;
+        changed = true;
+    }
+
+    /** Applies the action and returns whether it moved the piece or changed the stack. */
+    private boolean perform(InputAction action) {
+        if (recording) recorder.record(action, tick - gameStartTick);
+        Shape piece = engine.getCurrentPiece();
+        Shape.PieceShape shape = piece.getPieceShape();
+        int x = engine.getCurPieceX();
+        int y = engine.getCurPieceY();
+        int orientation = piece.getOrientationIndex();
+        long stackVersion = engine.getStackVersion();
+        int lines = engine.getNumLinesRemoved();
+        int score = engine.getScore();
+        // A hard drop locks where the ghost is; a piece that could not fall locks where it stands.
+        int lockY = action == InputAction.HARD_DROP ? engine.getGhostY() : y;
+        if (action.apply(engine)) {
+            emit(new GameEvent.PieceLocked(tick, shape, orientation, x, lockY, engine.getPiecesPlaced()));
+            if (engine.getNumLinesRemoved() != lines) {
+                emit(new GameEvent.LinesCleared(tick, engine.getNumLinesRemoved() - lines,
+                        engine.getNumLinesRemoved()));
+            }
+            if (engine.getScore() != score) {
+                emit(new GameEvent.ScoreChanged(tick, engine.getScore(), score));
+            }
+            if (engine.isFallingFinished()) {
+                ScoreLog log = scoreLog;
+                if (log != null) {
+                    log.submit(ScoreRecord.of(engine, randomizerType));
+                }
+                saveReplay();
+            }
+            emitSpawnOrGameOver();
+            CheckpointFile file = checkpoint;
+            if (file != null && (engine.getPiecesPlaced() % checkpointEvery == 0 || !engine.isStarted())) {
+                file.save(0, engine);
+            }
+        }
+        boolean moved = x != engine.getCurPieceX() || y != engine.getCurPieceY()
+                || orientation != engine.getCurrentPiece().getOrientationIndex()
+                || stackVersion != engine.getStackVersion();
+        changed |= moved;
+        return moved;
+    }
+
+    private void emitSpawnOrGameOver() {
+        if (engine.isStarted()) {
+            emit(new GameEvent.PieceSpawned(tick, engine.getCurrentPiece().getPieceShape(),
+                    engine.getNextPiece().getPieceShape()));
+        } else {
+            emit(new GameEvent.GameOver(tick, engine.getScore(), engine.getNumLinesRemoved(),
+                    engine.getPiecesPlaced()));
+        }
+    }
+
+    private void emit(GameEvent event) {
+        for (Consumer<GameEvent> listener : eventListeners) {
+            listener.accept(event);
+        }
+    }
+
+    private void saveReplay() {
+        Path directory = replayDirectory;
+        if (directory == null || !recording) return;
+        Replay replay = recorder.finish(engine);
+        try {
+            replay.write(directory.resolve("replay-" + Long.toUnsignedString(engine.getSeed(), 16) + ".trpl"));
+        } catch (IOException e) {
+            System.err.println("Could not save replay: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package tetris;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and event counters for one game loop. The logic thread
+ * records ticks, gravity and piece events; the EDT, or the render thread
+ * in active mode, records paints, frames and input latency. Nothing here
+ * allocates on the recording path.
+ */
+public class GameMetrics implements GameMetricsMXBean {
+
+    public static final String OBJECT_NAME = "tetris:type=GameMetrics";
+
+    final LatencyHistogram inputLatency = new LatencyHistogram();
+    final LatencyHistogram gravityJitter = new LatencyHistogram();
+    final LatencyHistogram tickTime = new LatencyHistogram();
+    final LatencyHistogram paintTime = new LatencyHistogram();
+    final LatencyHistogram frameLateness = new LatencyHistogram();
+    final LongAdder locks = new LongAdder();
+    final LongAdder spawns = new LongAdder();
+    final LongAdder lines = new LongAdder();
+
+    private volatile long resetNanos = System.nanoTime();
+    private ScheduledExecutorService dumper;
+
+    @Override
+    public LatencyHistogram.Summary getInputLatency() {
+        return inputLatency.summary();
+    }
+
+    @Override
+    public LatencyHistogram.Summary getGravityJitter() {
+        return gravityJitter.summary();
+    }
+
+    @Override
+    public LatencyHistogram.Summary getTickTime() {
+        return tickTime.summary();
+    }
+
+    @Override
+    public LatencyHistogram.Summary getPaintTime() {
+        return paintTime.summary();
+    }
+
+    @Override
+    public LatencyHistogram.Summary getFrameLateness() {
+        return frameLateness.summary();
+    }
+
+    @Override
+    public long getPiecesLocked() {
+        return locks.sum();
+    }
+
+    @Override
+    public long getPiecesSpawned() {
+        return spawns.sum();
+    }
+
+    @Override
+    public long getLinesCleared() {
+        return lines.sum();
+    }
+
+    @Override
+    public double getLocksPerMinute() {
+        return perMinute(locks.sum());
+    }
+
+    @Override
+    public double getSpawnsPerMinute() {
+        return perMinute(spawns.sum());
+    }
+
+    @Override
+    public double getLinesPerMinute() {
+        return perMinute(lines.sum());
+    }
+
+    @Override
+    public void reset() {
+        inputLatency.reset();
+        gravityJitter.reset();
+        tickTime.reset();
+        paintTime.reset();
+        frameLateness.reset();
+        locks.reset();
+        spawns.reset();
+        lines.reset();
+        resetNanos = System.nanoTime();
+    }
+
+    // Subscribed to the game loop's events on the logic thread.
+    void count(GameEvent event) {
+        switch (event) {
+            case GameEvent.PieceSpawned e -> spawns.increment();
+            case GameEvent.PieceLocked e -> locks.increment();
+            case GameEvent.LinesCleared e -> lines.add(e.count());
+            default -> {
+            }
+        }
+    }
+
+    private double perMinute(long events) {
+        double minutes = (System.nanoTime() - resetNanos) / 60e9;
+        return minutes <= 0 ? 0 : events / minutes;
+    }
+
+    /** Registers this instance with the platform MBean server, replacing any earlier registration. */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.err.println("Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /** Appends a report to the file every period on a background thread. */
+    public synchronized void startDump(Path file, long periodSeconds) {
+        if (dumper != null) {
+            dumper.shutdownNow();
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tetris-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> dump(file), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    private void dump(Path file) {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(Instant.now() + System.lineSeparator() + this + System.lineSeparator());
+        } catch (IOException e) {
+            System.err.println("Could not write metrics: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("""
+                  input latency  %s
+                  gravity jitter %s
+                  tick time      %s
+                  paint time     %s
+                  frame lateness %s
+                  locks %d (%.1f/min), spawns %d (%.1f/min), lines %d (%.1f/min)
+                """,
+                getInputLatency(), getGravityJitter(), getTickTime(), getPaintTime(), getFrameLateness(),
+                getPiecesLocked(), getLocksPerMinute(), getPiecesSpawned(), getSpawnsPerMinute(),
+                getLinesCleared(), getLinesPerMinute());
+    }
+}
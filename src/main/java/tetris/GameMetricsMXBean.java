@@ -0,0 +1,37 @@
+package tetris;
+
+/**
+ * Timing and rate counters of a running game, published over JMX as
+ * {@code tetris:type=GameMetrics}. Times are in microseconds; rates are per
+ * minute since the last {@link #reset()}.
+ */
+public interface GameMetricsMXBean {
+
+    /** Key press (OS event time) to the end of the first paint that shows its effect. */
+    LatencyHistogram.Summary getInputLatency();
+
+    /** Deviation of each gravity step from its nominal 400 ms period. */
+    LatencyHistogram.Summary getGravityJitter();
+
+    /** Time spent in one logic tick, including bot search. */
+    LatencyHistogram.Summary getTickTime();
+
+    LatencyHistogram.Summary getPaintTime();
+
+    /** How long after its deadline each actively rendered frame was shown; empty with Swing painting. */
+    LatencyHistogram.Summary getFrameLateness();
+
+    long getPiecesLocked();
+
+    long getPiecesSpawned();
+
+    long getLinesCleared();
+
+    double getLocksPerMinute();
+
+    double getSpawnsPerMinute();
+
+    double getLinesPerMinute();
+
+    void reset();
+}
@@ -0,0 +1,8 @@
+package tetris;
+
+/** Automated player: picks the next input for a running game. */
+public interface GamePolicy {
+
+    /** Called repeatedly while the game runs; the returned action is applied to the engine. */
+    InputAction nextAction(GameEngine engine);
+}
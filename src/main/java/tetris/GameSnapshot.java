@@ -0,0 +1,137 @@
+package tetris;
+
+/**
+ * Immutable copy of everything the view needs to draw one frame. The logic
+ * thread publishes a new snapshot after each tick that changed something, and
+ * the EDT only ever reads the latest one. The landed-cell array is shared
+ * between consecutive snapshots until the stack changes, and is never written
+ * after publication.
+ */
+public final class GameSnapshot {
+
+    private final byte[] cells;
+    private final BoardSize size;
+    private final long stackVersion;
+    private final Shape.PieceShape pieceShape;
+    private final int orientation;
+    private final int pieceX;
+    private final int pieceY;
+    private final int ghostY;
+    private final Shape.PieceShape nextShape;
+    private final int score;
+    private final int linesRemoved;
+    private final boolean started;
+    private final boolean fallingFinished;
+    private final boolean paused;
+    private final long tick;
+    private final long inputNanos;
+
+    private GameSnapshot(GameEngine engine, byte[] cells, boolean paused, long tick, long inputNanos) {
+        Shape piece = engine.getCurrentPiece();
+        this.cells = cells;
+        this.size = engine.getSize();
+        this.stackVersion = engine.getStackVersion();
+        this.pieceShape = piece.getPieceShape();
+        this.orientation = piece.getOrientationIndex();
+        this.pieceX = engine.getCurPieceX();
+        this.pieceY = engine.getCurPieceY();
+        this.ghostY = engine.getGhostY();
+        this.nextShape = engine.getNextPiece().getPieceShape();
+        this.score = engine.getScore();
+        this.linesRemoved = engine.getNumLinesRemoved();
+        this.started = engine.isStarted();
+        this.fallingFinished = engine.isFallingFinished();
+        this.paused = paused;
+        this.tick = tick;
+        this.inputNanos = inputNanos;
+    }
+
+    /** Captures the engine, reusing the previous snapshot's cells if the stack has not changed. */
+    public static GameSnapshot capture(GameEngine engine, GameSnapshot previous, boolean paused, long tick,
+                                       long inputNanos) {
+        byte[] cells;
+        if (previous != null && previous.stackVersion == engine.getStackVersion()) {
+            cells = previous.cells;
+        } else {
+            cells = new byte[engine.getWidth() * engine.getTotalHeight()];
+            engine.copyCells(cells);
+        }
+        return new GameSnapshot(engine, cells, paused, tick, inputNanos);
+    }
+
+    /** PieceShape ordinal of the landed cell, 0 if empty. */
+    public int getCell(int x, int y) {
+        return cells[y * size.width() + x];
+    }
+
+    /** The landed cells, row-major; shared with other snapshots and must not be modified. */
+    byte[] cells() {
+        return cells;
+    }
+
+    public BoardSize getSize() {
+        return size;
+    }
+
+    public long getStackVersion() {
+        return stackVersion;
+    }
+
+    public Shape.PieceShape getPieceShape() {
+        return pieceShape;
+    }
+
+    public Shape.Orientation getOrientation() {
+        return pieceShape.getOrientation(orientation);
+    }
+
+    int getOrientationIndex() {
+        return orientation;
+    }
+
+    public int getPieceX() {
+        return pieceX;
+    }
+
+    public int getPieceY() {
+        return pieceY;
+    }
+
+    /** Row the piece would land on if hard-dropped. */
+    public int getGhostY() {
+        return ghostY;
+    }
+
+    public Shape.PieceShape getNextShape() {
+        return nextShape;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLinesRemoved() {
+        return linesRemoved;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    public boolean isFallingFinished() {
+        return fallingFinished;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /** System.nanoTime() of the earliest key press this snapshot is the first to show, or 0. */
+    public long getInputNanos() {
+        return inputNanos;
+    }
+}
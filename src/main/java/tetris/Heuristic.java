@@ -0,0 +1,63 @@
+package tetris;
+
+/**
+ * Linear evaluation of a playfield: aggregate column height, covered holes,
+ * bumpiness between neighbouring columns, and lines cleared. Higher is better.
+ * The default weights are the widely used set tuned by Yiyuan Lee.
+ */
+public final class Heuristic {
+
+    public static final Heuristic DEFAULT = new Heuristic(-0.510066, 0.760666, -0.35663, -0.184483);
+
+    private final double heightWeight;
+    private final double linesWeight;
+    private final double holesWeight;
+    private final double bumpinessWeight;
+
+    public Heuristic(double heightWeight, double linesWeight, double holesWeight, double bumpinessWeight) {
+        this.heightWeight = heightWeight;
+        this.linesWeight = linesWeight;
+        this.holesWeight = holesWeight;
+        this.bumpinessWeight = bumpinessWeight;
+    }
+
+    /** Weights in constructor order: height, lines, holes, bumpiness. */
+    public double[] getWeights() {
+        return new double[]{heightWeight, linesWeight, holesWeight, bumpinessWeight};
+    }
+
+    public static Heuristic fromWeights(double[] weights) {
+        return new Heuristic(weights[0], weights[1], weights[2], weights[3]);
+    }
+
+    /** The part of {@link #evaluate} that depends only on the number of lines cleared. */
+    public double linesScore(int linesCleared) {
+        return linesWeight * linesCleared;
+    }
+
+    public double evaluate(int[] rows, int width, int height, int linesCleared) {
+        // Bits 0..width-2: the left column of each neighbouring pair
+        int pairs = (1 << (width - 1)) - 1;
+        int covered = 0;
+        int holes = 0;
+        int aggregateHeight = 0;
+        int bumpiness = 0;
+        for (int y = 0; y < height; y++) {
+            int row = rows[y];
+            holes += Integer.bitCount(covered & ~row);
+            covered |= row;
+            // Every column reaches this row or not; each row where only one of two neighbours
+            // does adds one to their height difference, so this sums to the bumpiness.
+            aggregateHeight += Integer.bitCount(covered);
+            bumpiness += Integer.bitCount((covered ^ (covered >>> 1)) & pairs);
+        }
+        return heightWeight * aggregateHeight + linesWeight * linesCleared
+                + holesWeight * holes + bumpinessWeight * bumpiness;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("height=%.4f lines=%.4f holes=%.4f bumpiness=%.4f",
+                heightWeight, linesWeight, holesWeight, bumpinessWeight);
+    }
+}
@@ -0,0 +1,353 @@
+package tetris;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Evolves {@link Heuristic} weights with a steady-state genetic algorithm.
+ * Every candidate plays the same fixed seeds with a {@link BotSearch} using
+ * its weights, and its fitness is the mean number of lines cleared. Each
+ * generation the weakest part of the population is replaced by offspring
+ * of tournament winners: a fitness-weighted average of the two parents, now
+ * and then nudged on one weight. Weights are kept at unit length, since only
+ * their ratios change which placement the bot picks.
+ *
+ * New candidates are evaluated in parallel on a ForkJoinPool. A candidate
+ * whose first quarter of games falls below a fraction of the best fitness
+ * so far stops there with a fitness of minus infinity, so it ranks below
+ * every candidate that played all its games. After every generation
+ * the population is written to the checkpoint file, if any, and a run
+ * started with the same settings and file continues from it.
+ */
+public final class HeuristicTuner {
+
+    private static final int WEIGHTS = 4;
+    private static final double REPLACED_FRACTION = 0.3;
+    private static final double TOURNAMENT_FRACTION = 0.1;
+    private static final double MUTATION_CHANCE = 0.05;
+    private static final double MUTATION_STEP = 0.2;
+
+    /** A weight vector and how it did; fitness is NaN until evaluated and -Infinity if cut short. */
+    public record Candidate(double[] weights, double fitness, int gamesPlayed) {
+
+        Candidate(double[] weights) {
+            this(weights, Double.NaN, 0);
+        }
+
+        boolean evaluated() {
+            return !Double.isNaN(fitness);
+        }
+
+        public Heuristic heuristic() {
+            return Heuristic.fromWeights(weights);
+        }
+    }
+
+    private final RandomizerType randomizerType;
+    private final BoardSize boardSize;
+    private final long[] seeds;
+    private final int maxPieces;
+    private final int depth;
+    private final int beamWidth;
+    private final double cutoff;
+    private final ForkJoinPool pool;
+    private final SplitMix64 random;
+
+    private List<Candidate> population = new ArrayList<>();
+    private int generation;
+    private final AtomicInteger pruned = new AtomicInteger();
+
+    /**
+     * @param cutoff a candidate stops after a quarter of its games if its mean so far is below
+     *               this fraction of the best fitness; 0 never stops early
+     */
+    public HeuristicTuner(RandomizerType randomizerType, BoardSize boardSize, long baseSeed, int games, int maxPieces,
+                          int depth, int beamWidth, double cutoff, int threads) {
+        this.randomizerType = randomizerType;
+        this.boardSize = boardSize;
+        this.seeds = new long[games];
+        for (int i = 0; i < games; i++) {
+            seeds[i] = BatchRunner.seedFor(baseSeed, i);
+        }
+        this.maxPieces = maxPieces;
+        this.depth = depth;
+        this.beamWidth = beamWidth;
+        this.cutoff = cutoff;
+        this.pool = new ForkJoinPool(threads);
+        this.random = new SplitMix64(baseSeed);
+    }
+
+    /** Starts from random weights, plus the default heuristic so the search cannot end up worse than it. */
+    public void initialise(int size) {
+        population = new ArrayList<>(size);
+        population.add(new Candidate(normalise(Heuristic.DEFAULT.getWeights())));
+        while (population.size() < size) {
+            double[] weights = new double[WEIGHTS];
+            for (int i = 0; i < WEIGHTS; i++) {
+                weights[i] = nextDouble() * 2 - 1;
+            }
+            population.add(new Candidate(normalise(weights)));
+        }
+        generation = 0;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public List<Candidate> getPopulation() {
+        return population;
+    }
+
+    public Candidate best() {
+        return population.stream().filter(Candidate::evaluated)
+                .max(Comparator.comparingDouble(Candidate::fitness)).orElse(null);
+    }
+
+    /** Candidates cut short since the last call. */
+    public int takePruned() {
+        return pruned.getAndSet(0);
+    }
+
+    /** Evaluates every candidate that has no fitness yet. */
+    public void evaluate() {
+        Candidate best = best();
+        double threshold = best == null ? 0 : best.fitness() * cutoff;
+        Candidate[] candidates = population.toArray(new Candidate[0]);
+        pool.submit(() -> IntStream.range(0, candidates.length).parallel()
+                .filter(i -> !candidates[i].evaluated())
+                .forEach(i -> candidates[i] = play(candidates[i], threshold))).join();
+        population = new ArrayList<>(Arrays.asList(candidates));
+    }
+
+    private Candidate play(Candidate candidate, double threshold) {
+        BotSearch search = new BotSearch(candidate.heuristic(), depth, beamWidth, false, null, boardSize);
+        GameEngine engine = new GameEngine(randomizerType.create(0), boardSize);
+        int early = Math.max(1, seeds.length / 4);
+        long lines = 0;
+        int played = 0;
+        for (long seed : seeds) {
+            BatchRunner.playGame(engine, new BotPolicy(search), seed, maxPieces);
+            lines += engine.getNumLinesRemoved();
+            played++;
+            if (played == early && played < seeds.length && (double) lines / played < threshold) {
+                // A mean over fewer seeds is not comparable, and a lucky start could outrank a finished candidate.
+                pruned.incrementAndGet();
+                return new Candidate(candidate.weights(), Double.NEGATIVE_INFINITY, played);
+            }
+        }
+        return new Candidate(candidate.weights(), (double) lines / played, played);
+    }
+
+    /** Replaces the weakest candidates with offspring of the others; evaluate() scores them. */
+    public void breed() {
+        population.sort(Comparator.comparingDouble(Candidate::fitness).reversed());
+        int replaced = Math.max(1, (int) (population.size() * REPLACED_FRACTION));
+        int survivors = population.size() - replaced;
+        List<Candidate> offspring = new ArrayList<>(replaced);
+        for (int i = 0; i < replaced; i++) {
+            Candidate a = tournament(survivors);
+            Candidate b = tournament(survivors);
+            offspring.add(new Candidate(crossover(a, b)));
+        }
+        population = new ArrayList<>(population.subList(0, survivors));
+        population.addAll(offspring);
+        generation++;
+    }
+
+    // Best of a random sample of the survivors, which are sorted best first.
+    private Candidate tournament(int survivors) {
+        int size = Math.max(2, (int) (population.size() * TOURNAMENT_FRACTION));
+        int best = survivors;
+        for (int i = 0; i < size; i++) {
+            best = Math.min(best, random.nextInt(survivors));
+        }
+        return population.get(best);
+    }
+
+    private double[] crossover(Candidate a, Candidate b) {
+        double fa = Math.max(a.fitness(), 0);
+        double fb = Math.max(b.fitness(), 0);
+        double wa = fa + fb == 0 ? 0.5 : fa / (fa + fb);
+        double[] child = new double[WEIGHTS];
+        for (int i = 0; i < WEIGHTS; i++) {
+            child[i] = wa * a.weights()[i] + (1 - wa) * b.weights()[i];
+        }
+        if (nextDouble() < MUTATION_CHANCE) {
+            child[random.nextInt(WEIGHTS)] += (nextDouble() * 2 - 1) * MUTATION_STEP;
+        }
+        return normalise(child);
+    }
+
+    private double nextDouble() {
+        return (random.nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    private static double[] normalise(double[] weights) {
+        double length = 0;
+        for (double w : weights) {
+            length += w * w;
+        }
+        length = Math.sqrt(length);
+        double[] unit = weights.clone();
+        for (int i = 0; i < unit.length; i++) {
+            unit[i] = length == 0 ? 0 : unit[i] / length;
+        }
+        return unit;
+    }
+
+    // Everything a resumed run must agree on for its fitness values to mean the same thing.
+    private String settings() {
+        return String.format("games %d seed %d max-pieces %d depth %d beam %d randomizer %s board %s",
+                seeds.length, seeds.length == 0 ? 0 : seeds[0], maxPieces, depth, beamWidth, randomizerType, boardSize);
+    }
+
+    /**
+     * Writes the generation, random state and population as text, through a
+     * temporary file so a crash never leaves a half-written checkpoint.
+     */
+    public void save(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write("# heuristic tuner: height lines holes bumpiness fitness games\n");
+            out.write("settings " + settings() + "\n");
+            out.write("generation " + generation + "\n");
+            out.write("random " + random.getState() + "\n");
+            for (Candidate c : population) {
+                double[] w = c.weights();
+                out.write(w[0] + " " + w[1] + " " + w[2] + " " + w[3] + " " + c.fitness() + " " + c.gamesPlayed() + "\n");
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Continues from a checkpoint written by save() with the same settings. */
+    public void load(Path file) throws IOException {
+        List<Candidate> loaded = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("#") || line.isBlank()) {
+                    continue;
+                }
+                if (line.startsWith("settings ")) {
+                    if (!line.substring("settings ".length()).equals(settings())) {
+                        throw new IOException(file + " was written with different settings: " + line);
+                    }
+                } else if (line.startsWith("generation ")) {
+                    generation = Integer.parseInt(line.substring("generation ".length()));
+                } else if (line.startsWith("random ")) {
+                    random.setSeed(Long.parseLong(line.substring("random ".length())));
+                } else {
+                    String[] fields = line.trim().split("\\s+");
+                    if (fields.length != WEIGHTS + 2) {
+                        throw new IOException("Bad candidate line in " + file + ": " + line);
+                    }
+                    double[] weights = new double[WEIGHTS];
+                    for (int i = 0; i < WEIGHTS; i++) {
+                        weights[i] = Double.parseDouble(fields[i]);
+                    }
+                    loaded.add(new Candidate(weights, Double.parseDouble(fields[WEIGHTS]),
+                            Integer.parseInt(fields[WEIGHTS + 1])));
+                }
+            }
+        }
+        if (loaded.isEmpty()) {
+            throw new IOException(file + " holds no candidates");
+        }
+        population = loaded;
+    }
+
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Options: --population N (default 32), --generations N (breeding rounds after
+     * the first evaluation, default 20),
+     * --games N (seeds per candidate, default 8), --max-pieces N (default 500),
+     * --depth 1-3 (bot search plies, default 1), --beam N (placements kept per
+     * ply when depth > 1, default 8), --cutoff F (default 0.25),
+     * --threads N, --seed S, --randomizer uniform|bag, --board WIDTHxHEIGHT,
+     * --checkpoint FILE (save every generation, resume if it exists).
+     */
+    public static void main(String[] args) throws IOException {
+        int populationSize = 32;
+        int generations = 20;
+        int games = 8;
+        int maxPieces = 500;
+        int depth = 1;
+        int beamWidth = 8;
+        double cutoff = 0.25;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        RandomizerType randomizerType = RandomizerType.SEVEN_BAG;
+        BoardSize boardSize = BoardSize.DEFAULT;
+        Path checkpoint = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--population" -> populationSize = Integer.parseInt(args[++i]);
+                case "--generations" -> generations = Integer.parseInt(args[++i]);
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--max-pieces" -> maxPieces = Integer.parseInt(args[++i]);
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--beam" -> beamWidth = Integer.parseInt(args[++i]);
+                case "--cutoff" -> cutoff = Double.parseDouble(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--randomizer" -> randomizerType = RandomizerType.parse(args[++i]);
+                case "--board" -> boardSize = BoardSize.parse(args[++i]);
+                case "--checkpoint" -> checkpoint = Paths.get(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        HeuristicTuner tuner = new HeuristicTuner(randomizerType, boardSize, seed, games, maxPieces, depth, beamWidth,
+                cutoff, threads);
+        try {
+            if (checkpoint != null && Files.exists(checkpoint)) {
+                tuner.load(checkpoint);
+                System.out.printf("Resumed %s at generation %d%n", checkpoint, tuner.getGeneration());
+            } else {
+                tuner.initialise(populationSize);
+            }
+            boolean evaluated = tuner.best() != null;
+            while (!evaluated || tuner.getGeneration() < generations) {
+                if (evaluated) {
+                    tuner.breed();
+                }
+                evaluated = true;
+                long startNanos = System.nanoTime();
+                tuner.evaluate();
+                double seconds = (System.nanoTime() - startNanos) / 1e9;
+                Candidate best = tuner.best();
+                double mean = tuner.getPopulation().stream().mapToDouble(Candidate::fitness)
+                        .filter(Double::isFinite).average().orElse(0);
+                System.out.printf("generation %3d  best %8.1f  mean %8.1f  pruned %2d  %5.1f s  %s%n",
+                        tuner.getGeneration(), best.fitness(), mean, tuner.takePruned(), seconds, best.heuristic());
+                if (checkpoint != null) {
+                    tuner.save(checkpoint);
+                }
+            }
+        } finally {
+            tuner.close();
+        }
+        Candidate best = tuner.best();
+        System.out.println("Best weights: " + best.heuristic());
+        System.out.printf("new Heuristic(%s, %s, %s, %s)%n",
+                best.weights()[0], best.weights()[1], best.weights()[2], best.weights()[3]);
+    }
+}
@@ -0,0 +1,41 @@
+package tetris;
+
+/** Everything that can change a running game: the player's inputs plus the gravity tick. */
+public enum InputAction {
+    MOVE_LEFT,
+    MOVE_RIGHT,
+    SOFT_DROP,
+    ROTATE_RIGHT,
+    ROTATE_LEFT,
+    HARD_DROP,
+    GRAVITY;
+
+    private static final InputAction[] VALUES = values();
+
+    public static InputAction fromCode(int code) {
+        return VALUES[code];
+    }
+
+    /** Applies the action; returns true if a piece locked as a result. */
+    public boolean apply(GameEngine engine) {
+        switch (this) {
+            case MOVE_LEFT:
+                engine.moveLeft();
+                return false;
+            case MOVE_RIGHT:
+                engine.moveRight();
+                return false;
+            case ROTATE_RIGHT:
+                engine.rotateRight();
+                return false;
+            case ROTATE_LEFT:
+                engine.rotateLeft();
+                return false;
+            case HARD_DROP:
+                engine.dropDownHard();
+                return true;
+            default:
+                return engine.oneLineDown();
+        }
+    }
+}
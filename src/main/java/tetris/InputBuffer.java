@@ -0,0 +1,81 @@
+package tetris;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer, single-consumer ring of key-down and key-up
+ * events with their System.nanoTime() stamps. The EDT offers events and the
+ * logic thread drains them at the start of each tick. When the ring is full,
+ * new events are dropped and counted; the consumer is never blocked.
+ */
+final class InputBuffer {
+
+    /** Keys that move the piece. Start, pause and bot toggles stay plain commands. */
+    enum Key {
+        LEFT(InputAction.MOVE_LEFT),
+        RIGHT(InputAction.MOVE_RIGHT),
+        SOFT_DROP(InputAction.SOFT_DROP),
+        ROTATE_RIGHT(InputAction.ROTATE_RIGHT),
+        ROTATE_LEFT(InputAction.ROTATE_LEFT),
+        HARD_DROP(InputAction.HARD_DROP);
+
+        private static final Key[] VALUES = values();
+
+        final InputAction action;
+
+        Key(InputAction action) {
+            this.action = action;
+        }
+    }
+
+    interface Sink {
+        void keyEvent(Key key, boolean down, long nanos);
+    }
+
+    private final long[] times;
+    private final byte[] events;
+    private final int mask;
+    // Next slot to read (consumer) and to write (producer).
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long dropped;
+
+    /** Capacity is rounded up to a power of two. */
+    InputBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        times = new long[size];
+        events = new byte[size];
+        mask = size - 1;
+    }
+
+    /** Producer side; returns false if the ring was full and the event was dropped. */
+    boolean offer(Key key, boolean down, long nanos) {
+        long t = tail.get();
+        if (t - head.get() == times.length) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) t & mask;
+        times[slot] = nanos;
+        events[slot] = (byte) (key.ordinal() << 1 | (down ? 1 : 0));
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /** Consumer side; passes every queued event to the sink in arrival order. */
+    int drain(Sink sink) {
+        long h = head.get();
+        long t = tail.get();
+        for (long i = h; i < t; i++) {
+            int slot = (int) i & mask;
+            int event = events[slot];
+            sink.keyEvent(Key.VALUES[event >>> 1], (event & 1) != 0, times[slot]);
+        }
+        head.lazySet(t);
+        return (int) (t - h);
+    }
+
+    long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,26 @@
+package tetris;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Source of the piece sequence. Implementations must be deterministic: the
+ * same seed always yields the same sequence, which replays and batch
+ * simulations rely on. next() is called once per spawn and must not allocate.
+ */
+public interface PieceRandomizer {
+
+    /** Bytes written by writeState. */
+    int STATE_BYTES = 16;
+
+    /** Restarts the sequence from the given seed. */
+    void reset(long seed);
+
+    /** Returns the next piece; never NoShape. */
+    Shape.PieceShape next();
+
+    /** Writes the position in the sequence as STATE_BYTES bytes, for checkpoints. */
+    void writeState(ByteBuffer dst);
+
+    /** Continues the sequence from a position saved by writeState on the same kind of randomizer. */
+    void readState(ByteBuffer src);
+}
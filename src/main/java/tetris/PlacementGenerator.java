@@ -0,0 +1,164 @@
+package tetris;
+
+import java.util.Arrays;
+
+/**
+ * Finds every lock position a piece can reach from its current state using
+ * the same moves the engine allows (left, right, soft drop and in-place
+ * rotation), by breadth-first search over (orientation, x, y). Positions that
+ * cover the same cells are reported once. Instances keep their scratch
+ * buffers between calls and are not thread-safe.
+ */
+final class PlacementGenerator {
+
+    // Every orientation's cells lie within two columns/rows of its origin.
+    private static final int PAD = 2;
+    private static final InputAction[] MOVES = {
+            InputAction.MOVE_LEFT, InputAction.MOVE_RIGHT, InputAction.SOFT_DROP,
+            InputAction.ROTATE_RIGHT, InputAction.ROTATE_LEFT
+    };
+
+    private final int width;
+    private final int height;
+    private final int spanX;
+    private final int spanY;
+
+    private final int[] visited;
+    private final int[] lockSeen;
+    private final int[] parent;
+    private final byte[] via;
+    private final int[] queue;
+    private int stamp;
+
+    private final int[] locks;
+    private int lockCount;
+    private Shape.PieceShape shape;
+    private int statesVisited;
+
+    PlacementGenerator(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.spanX = width + 2 * PAD;
+        this.spanY = height + 2 * PAD;
+        int states = 4 * spanX * spanY;
+        visited = new int[states];
+        lockSeen = new int[states];
+        parent = new int[states];
+        via = new byte[states];
+        queue = new int[states];
+        locks = new int[states];
+    }
+
+    /**
+     * Explores from the given state and returns the number of distinct lock
+     * positions; read them back with the accessors below.
+     */
+    int generate(int[] rows, Shape.PieceShape shape, int orientation, int x, int y) {
+        this.shape = shape;
+        if (++stamp == 0) {
+            Arrays.fill(visited, 0);
+            Arrays.fill(lockSeen, 0);
+            stamp = 1;
+        }
+        lockCount = 0;
+        statesVisited = 0;
+        if (!Bitboard.fits(rows, width, height, shape.getOrientation(orientation), x, y)) {
+            return 0;
+        }
+
+        int start = encode(orientation, x, y);
+        int head = 0;
+        int tail = 0;
+        visited[start] = stamp;
+        parent[start] = -1;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int state = queue[head++];
+            statesVisited++;
+            int o = orientationOf(state);
+            int sx = xOf(state);
+            int sy = yOf(state);
+
+            if (!Bitboard.fits(rows, width, height, shape.getOrientation(o), sx, sy + 1)) {
+                Shape.Orientation placed = shape.getOrientation(o);
+                int canon = shape.getCanonicalOrientation(o);
+                Shape.Orientation c = shape.getOrientation(canon);
+                int key = encode(canon, sx + placed.minX - c.minX, sy + placed.minY - c.minY);
+                if (lockSeen[key] != stamp) {
+                    lockSeen[key] = stamp;
+                    locks[lockCount++] = state;
+                }
+            }
+
+            for (int m = 0; m < MOVES.length; m++) {
+                int no = o;
+                int nx = sx;
+                int ny = sy;
+                switch (MOVES[m]) {
+                    case MOVE_LEFT -> nx--;
+                    case MOVE_RIGHT -> nx++;
+                    case SOFT_DROP -> ny++;
+                    case ROTATE_RIGHT -> no = shape.rotatedRight(o);
+                    default -> no = shape.rotatedLeft(o);
+                }
+                if (no == o && nx == sx && ny == sy) {
+                    continue;
+                }
+                if (!Bitboard.fits(rows, width, height, shape.getOrientation(no), nx, ny)) {
+                    continue;
+                }
+                int next = encode(no, nx, ny);
+                if (visited[next] != stamp) {
+                    visited[next] = stamp;
+                    parent[next] = state;
+                    via[next] = (byte) m;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return lockCount;
+    }
+
+    int getLockState(int index) {
+        return locks[index];
+    }
+
+    /** Number of (orientation, x, y) states expanded by the last generate() call. */
+    int getStatesVisited() {
+        return statesVisited;
+    }
+
+    int orientationOf(int state) {
+        return state / (spanX * spanY);
+    }
+
+    int xOf(int state) {
+        return (state / spanY) % spanX - PAD;
+    }
+
+    int yOf(int state) {
+        return state % spanY - PAD;
+    }
+
+    Shape.Orientation orientationData(int state) {
+        return shape.getOrientation(orientationOf(state));
+    }
+
+    /** Moves that take the piece from the start state to the given state, in order. */
+    InputAction[] pathTo(int state) {
+        int length = 0;
+        for (int s = state; parent[s] != -1; s = parent[s]) {
+            length++;
+        }
+        InputAction[] path = new InputAction[length];
+        for (int s = state; parent[s] != -1; s = parent[s]) {
+            path[--length] = MOVES[via[s]];
+        }
+        return path;
+    }
+
+    private int encode(int orientation, int x, int y) {
+        return (orientation * spanX + x + PAD) * spanY + y + PAD;
+    }
+}
@@ -0,0 +1,354 @@
+package tetris;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Counts placements the way chess engines count moves with perft: from a
+ * fixed board and piece sequence, every distinct lock position of the first
+ * piece is played (clearing full rows), then every lock position of the
+ * next, and so on; the result is the number of piece sequences of the given
+ * depth. The counts depend on nothing but the movement, rotation and
+ * collision rules, so they check any rewrite of those against the known
+ * values below, and the time taken is a benchmark of the same code.
+ *
+ * Each ply has its own generator and board buffer, so a search allocates
+ * nothing; the last ply is bulk-counted without placing its pieces.
+ * {@link #enginePerft} finds the same counts by driving a {@link GameEngine}
+ * through its own moves, rotations, locking and line clears instead, so the
+ * generator's copy of the rules can be checked against the game's.
+ */
+public final class PlacementPerft {
+
+    /**
+     * A start position. Rows are drawn top to bottom with '#' for filled
+     * cells and sit on the floor of the board; pieces cycle through the
+     * letters (I, O, T, S, Z, L, J) and each spawns where the engine spawns
+     * it. expected[d - 1] is the known count for depth d.
+     */
+    public record Position(String name, String[] rows, String pieces, long[] expected) {
+    }
+
+    public static final List<Position> POSITIONS = List.of(
+            new Position("empty", new String[0], "TIOLJSZ",
+                    new long[]{34, 596, 5_542, 198_763, 7_312_551}),
+            new Position("ragged", new String[]{
+                    "....##....",
+                    "#.......##",
+                    "##.##..###",
+                    "##.###.###",
+            }, "LSZTJIO",
+                    new long[]{37, 698, 13_603, 530_011, 20_103_485}),
+            new Position("overhang", new String[]{
+                    "###...####",
+                    "##.....###",
+                    "###.######",
+                    "####.#####",
+            }, "TTSZIJL",
+                    new long[]{38, 1_423, 26_165, 491_762, 9_255_507}),
+            new Position("tall", new String[]{
+                    "#########.", "#########.", "#########.", "#########.",
+                    "#########.", "#########.", "#########.", "#########.",
+                    "#########.", "#########.", "#########.", "#########.",
+                    "#########.", "#########.", "#########.", "#########.",
+                    "#########.", "#########.",
+            }, "IOTLJSZ",
+                    new long[]{17, 115, 2_484, 24_716, 414_764}));
+
+    /** Depth up to which main() also counts through the engine, which is far slower. */
+    public static final int ENGINE_CHECK_DEPTH = 2;
+
+    private final BoardSize boardSize;
+    private final int width;
+    private final int height;
+    private final PlacementGenerator[] generators;
+    private final int[][] boards;
+    private Shape.PieceShape[] sequence;
+    private long expanded;
+
+    public PlacementPerft(BoardSize boardSize, int maxDepth) {
+        if (boardSize.width() > Bitboard.MAX_WIDTH) {
+            throw new IllegalArgumentException("Perft supports boards up to " + Bitboard.MAX_WIDTH + " columns");
+        }
+        this.boardSize = boardSize;
+        this.width = boardSize.width();
+        this.height = boardSize.totalHeight();
+        generators = new PlacementGenerator[maxDepth];
+        boards = new int[maxDepth][height];
+        for (int i = 0; i < maxDepth; i++) {
+            generators[i] = new PlacementGenerator(width, height);
+        }
+    }
+
+    /** Row bitmasks for a position on this board size. */
+    public int[] rows(Position position) {
+        String[] picture = position.rows();
+        if (picture.length > height) {
+            throw new IllegalArgumentException(position.name() + " is taller than the board");
+        }
+        int[] rows = new int[height];
+        for (int i = 0; i < picture.length; i++) {
+            String line = picture[i];
+            if (line.length() != width) {
+                throw new IllegalArgumentException(position.name() + " rows are not " + width + " wide: " + line);
+            }
+            int mask = 0;
+            for (int x = 0; x < width; x++) {
+                if (line.charAt(x) == '#') {
+                    mask |= 1 << x;
+                }
+            }
+            rows[height - picture.length + i] = mask;
+        }
+        return rows;
+    }
+
+    public static Shape.PieceShape[] pieces(String letters) {
+        Shape.PieceShape[] pieces = new Shape.PieceShape[letters.length()];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = switch (letters.charAt(i)) {
+                case 'I' -> Shape.PieceShape.LineShape;
+                case 'O' -> Shape.PieceShape.SquareShape;
+                case 'T' -> Shape.PieceShape.TShape;
+                case 'S' -> Shape.PieceShape.SShape;
+                case 'Z' -> Shape.PieceShape.ZShape;
+                case 'L' -> Shape.PieceShape.LShape;
+                case 'J' -> Shape.PieceShape.JShape;
+                default -> throw new IllegalArgumentException("Unknown piece: " + letters.charAt(i));
+            };
+        }
+        return pieces;
+    }
+
+    /** Number of placement sequences of the given depth; pieces repeat if there are fewer than depth. */
+    public long perft(int[] rows, Shape.PieceShape[] pieces, int depth) {
+        if (depth < 1 || depth > generators.length) {
+            throw new IllegalArgumentException("Depth must be 1-" + generators.length + ": " + depth);
+        }
+        sequence = pieces;
+        expanded = 0;
+        System.arraycopy(rows, 0, boards[0], 0, height);
+        return count(0, depth);
+    }
+
+    /** Placements generated at inner plies by the last perft() call, i.e. the boards searched from. */
+    public long getExpanded() {
+        return expanded;
+    }
+
+    /** Count below each placement of the first piece, as "orientation x y: count" lines. */
+    public List<String> divide(int[] rows, Shape.PieceShape[] pieces, int depth) {
+        PlacementGenerator root = new PlacementGenerator(width, height);
+        Shape.PieceShape piece = pieces[0];
+        int count = root.generate(rows, piece, 0, GameEngine.spawnX(width), GameEngine.spawnY(piece));
+        Shape.PieceShape[] rest = new Shape.PieceShape[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            rest[i] = pieces[(i + 1) % pieces.length];
+        }
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int state = root.getLockState(i);
+            int[] after = rows.clone();
+            Bitboard.place(after, root.orientationData(state), root.xOf(state), root.yOf(state));
+            Bitboard.clearFullRows(after, width, height);
+            long below = depth == 1 ? 1 : perft(after, rest, depth - 1);
+            lines.add(root.orientationOf(state) + " " + root.xOf(state) + " " + root.yOf(state) + ": " + below);
+        }
+        return lines;
+    }
+
+    /**
+     * Same count as perft(), found through a GameEngine: each position is
+     * restored with readState, the piece is moved only with the engine's
+     * moveLeft, moveRight, rotateRight, rotateLeft and tryMove, and every
+     * placement is locked with oneLineDown so the engine clears the rows.
+     */
+    public long enginePerft(int[] rows, Shape.PieceShape[] pieces, int depth) {
+        GameEngine engine = new GameEngine(RandomizerType.SEVEN_BAG.create(0), boardSize);
+        byte[] cells = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                cells[y * width + x] = (byte) ((rows[y] >>> x & 1) != 0 ? 1 : 0);
+            }
+        }
+        return engineCount(engine, cells, pieces, 0, depth);
+    }
+
+    private long engineCount(GameEngine engine, byte[] cells, Shape.PieceShape[] pieces, int ply, int depth) {
+        Shape.PieceShape piece = pieces[ply % pieces.length];
+        Shape.PieceShape next = pieces[(ply + 1) % pieces.length];
+        restore(engine, cells, piece, next);
+        if (!engine.canPlace(engine.getCurrentPiece(), engine.getCurPieceX(), engine.getCurPieceY())) {
+            return 0;
+        }
+        List<int[]> locks = engineLocks(engine, piece);
+        if (ply == depth - 1) {
+            return locks.size();
+        }
+        byte[] child = new byte[cells.length];
+        long total = 0;
+        for (int[] lock : locks) {
+            restore(engine, cells, piece, next);
+            engine.tryMove(shape(piece, lock[0]), lock[1], lock[2]);
+            if (!engine.oneLineDown()) {
+                throw new IllegalStateException("Piece did not lock at " + Arrays.toString(lock));
+            }
+            engine.copyCells(child);
+            total += engineCount(engine, child, pieces, ply + 1, depth);
+        }
+        return total;
+    }
+
+    // Breadth-first search over (orientation, x, y), one engine move at a time.
+    private static List<int[]> engineLocks(GameEngine engine, Shape.PieceShape piece) {
+        int[] start = {0, engine.getCurPieceX(), engine.getCurPieceY()};
+        Set<List<Integer>> visited = new HashSet<>();
+        Set<Set<Integer>> covered = new HashSet<>();
+        List<int[]> locks = new ArrayList<>();
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        visited.add(List.of(start[0], start[1], start[2]));
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int[] state = queue.poll();
+            Shape current = shape(piece, state[0]);
+            if (!engine.canPlace(current, state[1], state[2] + 1)) {
+                Set<Integer> cellsCovered = new HashSet<>();
+                for (int i = 0; i < 4; i++) {
+                    cellsCovered.add((state[2] + current.getY(i)) * engine.getWidth() + state[1] + current.getX(i));
+                }
+                if (covered.add(cellsCovered)) {
+                    locks.add(state);
+                }
+            }
+            for (int move = 0; move < 5; move++) {
+                engine.tryMove(shape(piece, state[0]), state[1], state[2]);
+                switch (move) {
+                    case 0 -> engine.moveLeft();
+                    case 1 -> engine.moveRight();
+                    case 2 -> engine.tryMove(engine.getCurrentPiece(), state[1], state[2] + 1);
+                    case 3 -> engine.rotateRight();
+                    default -> engine.rotateLeft();
+                }
+                int[] reached = {engine.getCurrentPiece().getOrientationIndex(), engine.getCurPieceX(),
+                        engine.getCurPieceY()};
+                if (visited.add(List.of(reached[0], reached[1], reached[2]))) {
+                    queue.add(reached);
+                }
+            }
+        }
+        return locks;
+    }
+
+    private static Shape shape(Shape.PieceShape piece, int orientation) {
+        Shape shape = new Shape();
+        shape.setPieceShape(piece);
+        shape.setOrientation(orientation);
+        return shape;
+    }
+
+    // A started game with the given cells, piece at its spawn position and preview, in readState's layout.
+    private void restore(GameEngine engine, byte[] cells, Shape.PieceShape piece, Shape.PieceShape next) {
+        ByteBuffer state = ByteBuffer.allocate(GameEngine.stateBytes(boardSize));
+        state.putLong(0);
+        RandomizerType.SEVEN_BAG.create(0).writeState(state);
+        state.putInt(0).putInt(0).putInt(0);
+        state.putInt(GameEngine.spawnX(width)).putInt(GameEngine.spawnY(piece));
+        state.put((byte) piece.ordinal()).put((byte) 0).put((byte) next.ordinal()).put((byte) 1);
+        state.put(cells);
+        engine.readState(state.flip());
+    }
+
+    private long count(int ply, int depth) {
+        int[] rows = boards[ply];
+        Shape.PieceShape piece = sequence[ply % sequence.length];
+        PlacementGenerator generator = generators[ply];
+        int placements = generator.generate(rows, piece, 0, GameEngine.spawnX(width), GameEngine.spawnY(piece));
+        if (ply == depth - 1) {
+            return placements;
+        }
+        expanded += placements;
+        int[] child = boards[ply + 1];
+        long total = 0;
+        for (int i = 0; i < placements; i++) {
+            int state = generator.getLockState(i);
+            System.arraycopy(rows, 0, child, 0, height);
+            Bitboard.place(child, generator.orientationData(state), generator.xOf(state), generator.yOf(state));
+            Bitboard.clearFullRows(child, width, height);
+            total += count(ply + 1, depth);
+        }
+        return total;
+    }
+
+    /**
+     * Options: --depth N (default 4), --position NAME (default all),
+     * --divide (per-placement counts of the first piece). Counts are checked
+     * against the known values on the default board, and up to
+     * ENGINE_CHECK_DEPTH against enginePerft(); any mismatch exits with
+     * status 1.
+     */
+    public static void main(String[] args) {
+        int depth = 4;
+        String only = null;
+        boolean divide = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--position" -> only = args[++i];
+                case "--divide" -> divide = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        PlacementPerft perft = new PlacementPerft(BoardSize.DEFAULT, depth);
+        int failures = 0;
+        boolean found = false;
+        for (Position position : POSITIONS) {
+            if (only != null && !only.equals(position.name())) {
+                continue;
+            }
+            found = true;
+            int[] rows = perft.rows(position);
+            Shape.PieceShape[] pieces = pieces(position.pieces());
+            if (divide) {
+                System.out.println(position.name() + " divide " + depth);
+                perft.divide(rows, pieces, depth).forEach(line -> System.out.println("  " + line));
+            }
+            for (int d = 1; d <= depth; d++) {
+                long startNanos = System.nanoTime();
+                long count = perft.perft(rows, pieces, d);
+                double seconds = (System.nanoTime() - startNanos) / 1e9;
+                String check;
+                if (d > position.expected().length) {
+                    check = "";
+                } else if (position.expected()[d - 1] == count) {
+                    check = "ok";
+                } else {
+                    check = "MISMATCH, expected " + position.expected()[d - 1];
+                    failures++;
+                }
+                if (d <= ENGINE_CHECK_DEPTH) {
+                    long engineCount = perft.enginePerft(rows, pieces, d);
+                    String engineCheck = engineCount == count ? "engine agrees"
+                            : "ENGINE MISMATCH, engine counts " + engineCount;
+                    check = check.isEmpty() ? engineCheck : check + ", " + engineCheck;
+                    if (engineCount != count) {
+                        failures++;
+                    }
+                }
+                System.out.printf("%-9s depth %d  %,14d  %8.3f s  %,12.0f nodes/s  %s%n", position.name(), d, count,
+                        seconds, (count + perft.getExpanded()) / Math.max(seconds, 1e-9), check);
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("Unknown position: " + only);
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
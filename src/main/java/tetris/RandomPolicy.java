@@ -0,0 +1,40 @@
+package tetris;
+
+/**
+ * Baseline policy: for each piece it picks a random rotation and column
+ * shift, walks there and hard-drops. Cheap and seedable, so it is useful
+ * for stress-testing the engine.
+ */
+public class RandomPolicy implements GamePolicy {
+
+    private final SplitMix64 random;
+    private int piece = -1;
+    private int rotations;
+    private int shift;
+
+    public RandomPolicy(long seed) {
+        random = new SplitMix64(seed);
+    }
+
+    @Override
+    public InputAction nextAction(GameEngine engine) {
+        if (engine.getPiecesPlaced() != piece) {
+            piece = engine.getPiecesPlaced();
+            rotations = random.nextInt(4);
+            shift = random.nextInt(engine.getWidth()) - engine.getWidth() / 2;
+        }
+        if (rotations > 0) {
+            rotations--;
+            return InputAction.ROTATE_RIGHT;
+        }
+        if (shift < 0) {
+            shift++;
+            return InputAction.MOVE_LEFT;
+        }
+        if (shift > 0) {
+            shift--;
+            return InputAction.MOVE_RIGHT;
+        }
+        return InputAction.HARD_DROP;
+    }
+}
@@ -0,0 +1,20 @@
+package tetris;
+
+/** Randomizers that can be named on the command line and in replay headers. */
+public enum RandomizerType {
+    UNIFORM,
+    SEVEN_BAG;
+
+    public PieceRandomizer create(long seed) {
+        return this == SEVEN_BAG ? new SevenBagRandomizer(seed) : new UniformRandomizer(seed);
+    }
+
+    /** Accepts "uniform" or "bag" (or the constant names). */
+    public static RandomizerType parse(String name) {
+        return switch (name.toLowerCase()) {
+            case "bag", "7bag", "seven_bag" -> SEVEN_BAG;
+            case "uniform" -> UNIFORM;
+            default -> throw new IllegalArgumentException("Unknown randomizer: " + name);
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package tetris;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A recorded game: its seed, randomizer and board size, then one varint per input holding
+ * (time delta << 3 | action). Version 2 counts time in {@link GameLoop} ticks
+ * (1/60 s); version 1 files used milliseconds. Version 3 adds the board size;
+ * older files are on the default board. The stream ends with an END marker followed by
+ * the final score, lines and piece count, which playback checks against.
+ *
+ * <pre>
+ * int    magic "TRPL"
+ * byte   version
+ * byte   RandomizerType ordinal
+ * long   seed
+ * varint width, visible height, hidden rows   (version 3+)
+ * varint (deltaTime << 3) | actionCode ...   actionCode 7 = END
+ * varint score, lines, pieces
+ * </pre>
+ */
+public final class Replay {
+
+    static final int MAGIC = 0x5452504C; // "TRPL"
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 14;
+    static final int END = 7;
+
+    private final byte[] data;
+    private final RandomizerType randomizerType;
+    private final long seed;
+    private final BoardSize boardSize;
+    private final int bodyStart;
+
+    Replay(byte[] data) {
+        if (data.length < HEADER_SIZE || readInt(data, 0) != MAGIC) {
+            throw new IllegalArgumentException("Not a replay file");
+        }
+        if (data[4] < 1 || data[4] > VERSION) {
+            throw new IllegalArgumentException("Unsupported replay version " + data[4]);
+        }
+        this.data = data;
+        this.randomizerType = RandomizerType.values()[data[5]];
+        this.seed = ((long) readInt(data, 6) << 32) | (readInt(data, 10) & 0xFFFFFFFFL);
+        if (data[4] >= 3) {
+            Cursor header = new Cursor(HEADER_SIZE);
+            this.boardSize = new BoardSize((int) header.readVarint(), (int) header.readVarint(),
+                    (int) header.readVarint());
+            this.bodyStart = header.pos;
+        } else {
+            this.boardSize = BoardSize.DEFAULT;
+            this.bodyStart = HEADER_SIZE;
+        }
+    }
+
+    public static Replay read(Path file) throws IOException {
+        return new Replay(Files.readAllBytes(file));
+    }
+
+    public void write(Path file) throws IOException {
+        Files.write(file, data);
+    }
+
+    public RandomizerType getRandomizerType() {
+        return randomizerType;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public BoardSize getBoardSize() {
+        return boardSize;
+    }
+
+    /** Units of {@link Cursor#getTime()} per second: GameLoop ticks, or milliseconds in version 1 files. */
+    public int getTimeUnitsPerSecond() {
+        return data[4] >= 2 ? GameLoop.TICKS_PER_SECOND : 1000;
+    }
+
+    public int size() {
+        return data.length;
+    }
+
+    public Cursor cursor() {
+        return new Cursor(bodyStart);
+    }
+
+    private static int readInt(byte[] b, int at) {
+        return (b[at] & 0xFF) << 24 | (b[at + 1] & 0xFF) << 16 | (b[at + 2] & 0xFF) << 8 | (b[at + 3] & 0xFF);
+    }
+
+    /** Walks the event stream; after next() returns false the footer getters are valid. */
+    public final class Cursor {
+        private int pos;
+        private long time;
+        private InputAction action;
+        private int score, lines, pieces;
+
+        private Cursor(int pos) {
+            this.pos = pos;
+        }
+
+        public boolean next() {
+            long v = readVarint();
+            int code = (int) (v & 7);
+            time += v >>> 3;
+            if (code == END) {
+                score = (int) readVarint();
+                lines = (int) readVarint();
+                pieces = (int) readVarint();
+                return false;
+            }
+            action = InputAction.fromCode(code);
+            return true;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public InputAction getAction() {
+            return action;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getLines() {
+            return lines;
+        }
+
+        public int getPieces() {
+            return pieces;
+        }
+
+        private long readVarint() {
+            long result = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (pos >= data.length) {
+                    throw new IllegalStateException("Truncated replay");
+                }
+                byte b = data[pos++];
+                result |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+        }
+    }
+}
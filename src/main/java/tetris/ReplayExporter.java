@@ -0,0 +1,359 @@
+package tetris;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Renders recorded games to video frames without a display, either as a
+ * numbered PNG per frame or as one raw rgb24 stream per game, which can be
+ * piped into an encoder, e.g.
+ * {@code ffmpeg -f rawvideo -pix_fmt rgb24 -s WxH -r 30 -i game.rgb game.mp4}.
+ *
+ * The calling thread replays the game and takes a snapshot per frame. Worker
+ * threads draw the snapshots with their own {@link BoardRenderer} and
+ * encode them, and one writer thread writes the frames out in order. Each
+ * frame holds one buffer from a fixed pool, taken in frame order, so work
+ * in flight is bounded and images are reused instead of allocated.
+ */
+public final class ReplayExporter implements Closeable {
+
+    public enum Format {
+        PNG, RAW;
+
+        static Format parse(String name) {
+            return switch (name.toLowerCase()) {
+                case "png" -> PNG;
+                case "raw", "rgb" -> RAW;
+                default -> throw new IllegalArgumentException("Unknown frame format: " + name);
+            };
+        }
+    }
+
+    // A frame's image plus its encoded bytes; reused for frame after frame.
+    private static final class FrameBuffer {
+        BufferedImage image;
+        int[] pixels;
+        byte[] rgb;
+        final ByteArrayOutputStream png = new ByteArrayOutputStream();
+
+        void ensureSize(int width, int height) {
+            if (image == null || image.getWidth() != width || image.getHeight() != height) {
+                image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                rgb = new byte[width * height * 3];
+            }
+        }
+    }
+
+    // One game being exported; the writer opens and closes its output.
+    private static final class Job {
+        final Path target;
+        OutputStream raw;
+
+        Job(Path target) {
+            this.target = target;
+        }
+    }
+
+    private record Frame(Job job, int index, boolean last, Future<FrameBuffer> rendered) {
+    }
+
+    // Each worker keeps its renderer, and so its cached stack layer, across frames of the same game.
+    private static final class Worker {
+        Job job;
+        BoardRenderer renderer;
+    }
+
+    private static final Frame END = new Frame(null, -1, true, null);
+
+    private final Format format;
+    private final int cellSize;
+    private final int fps;
+    private final double holdSeconds;
+    private final ExecutorService workers;
+    private final ThreadLocal<Worker> worker = ThreadLocal.withInitial(Worker::new);
+    private final BlockingQueue<FrameBuffer> free;
+    private final BlockingQueue<Frame> pending;
+    private final Thread writer;
+    private volatile Exception failure;
+    private long framesWritten;
+
+    /**
+     * @param holdSeconds how long the final position stays on screen after the last input
+     * @param threads     render threads; frames in flight are limited to twice this
+     */
+    public ReplayExporter(Format format, int cellSize, int fps, double holdSeconds, int threads) {
+        if (cellSize < 1 || fps < 1 || threads < 1) {
+            throw new IllegalArgumentException("Cell size, frame rate and threads must be positive");
+        }
+        this.format = format;
+        this.cellSize = cellSize;
+        this.fps = fps;
+        this.holdSeconds = holdSeconds;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tetris-export-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        int inFlight = 2 * threads;
+        this.free = new ArrayBlockingQueue<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            free.add(new FrameBuffer());
+        }
+        this.pending = new ArrayBlockingQueue<>(inFlight + 1);
+        // ImageIO would otherwise stage every PNG in a temporary file.
+        ImageIO.setUseCache(false);
+        this.writer = new Thread(this::writeLoop, "tetris-export-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues every frame of the game for export to the target: a directory
+     * of PNGs, or a raw file. Returns once the last frame is queued; frames
+     * are written by the time {@link #close()} returns.
+     */
+    public void export(Replay replay, Path target) throws IOException, InterruptedException {
+        checkFailure();
+        Job job = new Job(target);
+        if (format == Format.PNG) {
+            Files.createDirectories(target);
+        } else if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+
+        GameEngine engine = new GameEngine(replay.getRandomizerType().create(replay.getSeed()), replay.getBoardSize());
+        engine.start(replay.getSeed());
+        Replay.Cursor cursor = replay.cursor();
+        long unitsPerSecond = replay.getTimeUnitsPerSecond();
+        boolean more = cursor.next();
+        long endTime = Long.MAX_VALUE;
+        GameSnapshot snapshot = null;
+        for (int index = 0; ; index++) {
+            // Each frame shows the game after every input up to its time.
+            long time = index * unitsPerSecond / fps;
+            while (more && cursor.getTime() <= time) {
+                if (engine.isStarted()) {
+                    cursor.getAction().apply(engine);
+                }
+                more = cursor.next();
+            }
+            if (!more && endTime == Long.MAX_VALUE) {
+                endTime = cursor.getTime() + (long) (holdSeconds * unitsPerSecond);
+            }
+            snapshot = GameSnapshot.capture(engine, snapshot, false, index, 0);
+            boolean last = (index + 1) * unitsPerSecond / fps > endTime;
+            FrameBuffer buffer = free.take();
+            checkFailure();
+            GameSnapshot frameSnapshot = snapshot;
+            pending.put(new Frame(job, index, last, workers.submit(() -> render(job, frameSnapshot, buffer))));
+            if (last) {
+                return;
+            }
+        }
+    }
+
+    private FrameBuffer render(Job job, GameSnapshot snapshot, FrameBuffer buffer) throws IOException {
+        Worker w = worker.get();
+        if (w.renderer == null || !w.renderer.getBoardSize().equals(snapshot.getSize())) {
+            w.renderer = new BoardRenderer(snapshot.getSize(), Color.BLACK);
+            w.renderer.setCellSize(cellSize);
+        } else if (w.job != job) {
+            // Stack versions only identify a stack within one game.
+            w.renderer.invalidateStack();
+        }
+        w.job = job;
+        BoardRenderer renderer = w.renderer;
+        int width = renderer.boardPixelWidth();
+        int height = renderer.boardPixelHeight();
+        buffer.ensureSize(width, height);
+        Graphics2D g = buffer.image.createGraphics();
+        try {
+            renderer.render(g, snapshot, width, height);
+        } finally {
+            g.dispose();
+        }
+        if (format == Format.PNG) {
+            buffer.png.reset();
+            ImageIO.write(buffer.image, "png", buffer.png);
+        } else {
+            int[] pixels = buffer.pixels;
+            byte[] rgb = buffer.rgb;
+            for (int i = 0, j = 0; i < pixels.length; i++, j += 3) {
+                int p = pixels[i];
+                rgb[j] = (byte) (p >> 16);
+                rgb[j + 1] = (byte) (p >> 8);
+                rgb[j + 2] = (byte) p;
+            }
+        }
+        return buffer;
+    }
+
+    private void writeLoop() {
+        try {
+            Frame frame;
+            while ((frame = pending.take()) != END) {
+                FrameBuffer buffer = null;
+                try {
+                    buffer = frame.rendered().get();
+                    if (failure == null) {
+                        write(frame, buffer);
+                    }
+                } catch (ExecutionException e) {
+                    fail(e.getCause() instanceof Exception cause ? cause : e);
+                } catch (IOException e) {
+                    fail(e);
+                } finally {
+                    if (frame.last()) {
+                        closeRaw(frame.job());
+                    }
+                    // A failed render lost its buffer; replace it so export() cannot starve.
+                    free.put(buffer != null ? buffer : new FrameBuffer());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Frame frame, FrameBuffer buffer) throws IOException {
+        Job job = frame.job();
+        if (format == Format.PNG) {
+            try (OutputStream out = Files.newOutputStream(job.target.resolve(String.format("%06d.png", frame.index())))) {
+                buffer.png.writeTo(out);
+            }
+        } else {
+            if (job.raw == null) {
+                job.raw = new BufferedOutputStream(Files.newOutputStream(job.target), 1 << 16);
+            }
+            job.raw.write(buffer.rgb);
+        }
+        framesWritten++;
+    }
+
+    private void closeRaw(Job job) {
+        if (job.raw != null) {
+            try {
+                job.raw.close();
+            } catch (IOException e) {
+                fail(e);
+            }
+            job.raw = null;
+        }
+    }
+
+    private void fail(Exception e) {
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Exception e = failure;
+        if (e != null) {
+            throw e instanceof IOException io ? io : new IOException("Frame export failed", e);
+        }
+    }
+
+    /** Waits for every queued frame to be written, then stops the threads. */
+    @Override
+    public void close() throws IOException {
+        try {
+            pending.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+        checkFailure();
+    }
+
+    /** Frames written so far; valid after {@link #close()}. */
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    /**
+     * Usage: [--out DIR] [--format png|raw] [--fps N] [--cell PX] [--hold SECONDS]
+     * [--threads N] replay-file-or-directory...
+     * Each replay becomes DIR/NAME/000000.png... or DIR/NAME.rgb; defaults are
+     * frames, png, 30 fps, 24-pixel cells, 2 seconds and one thread per core.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path out = Paths.get("frames");
+        Format format = Format.PNG;
+        int fps = 30;
+        int cellSize = 24;
+        double hold = 2;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = Paths.get(args[++i]);
+                case "--format" -> format = Format.parse(args[++i]);
+                case "--fps" -> fps = Integer.parseInt(args[++i]);
+                case "--cell" -> cellSize = Integer.parseInt(args[++i]);
+                case "--hold" -> hold = Double.parseDouble(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    }
+                    addReplays(Paths.get(args[i]), files);
+                }
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        ReplayExporter exporter = new ReplayExporter(format, cellSize, fps, hold, threads);
+        try (exporter) {
+            for (Path file : files) {
+                String name = file.getFileName().toString().replaceFirst("\\.trpl$", "");
+                Replay replay = Replay.read(file);
+                exporter.export(replay, out.resolve(format == Format.PNG ? name : name + ".rgb"));
+                if (format == Format.RAW) {
+                    BoardSize size = replay.getBoardSize();
+                    System.out.printf("%s  %dx%d rgb24 at %d fps%n", out.resolve(name + ".rgb"),
+                            size.width() * cellSize + 1, size.visibleHeight() * cellSize + 1, fps);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("Exported %d replays, %d frames, %.0f frames/s on %d threads%n",
+                files.size(), exporter.getFramesWritten(), exporter.getFramesWritten() / Math.max(seconds, 1e-9),
+                threads);
+    }
+
+    private static void addReplays(Path path, List<Path> files) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> listing = Files.list(path)) {
+                listing.filter(p -> p.toString().endsWith(".trpl")).sorted().forEach(files::add);
+            }
+        } else {
+            files.add(path);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package tetris;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/** Re-runs recorded games headless, as fast as the engine allows, and checks their outcome. */
+public final class ReplayPlayer {
+
+    public record Result(int score, int lines, int pieces, boolean matchesRecording) {
+    }
+
+    private ReplayPlayer() {
+    }
+
+    public static Result play(Replay replay) {
+        GameEngine engine = new GameEngine(replay.getRandomizerType().create(replay.getSeed()), replay.getBoardSize());
+        engine.start(replay.getSeed());
+        Replay.Cursor cursor = replay.cursor();
+        while (cursor.next()) {
+            if (engine.isStarted()) {
+                cursor.getAction().apply(engine);
+            }
+        }
+        int score = engine.getScore();
+        int lines = engine.getNumLinesRemoved();
+        int pieces = engine.getPiecesPlaced();
+        boolean matches = score == cursor.getScore() && lines == cursor.getLines() && pieces == cursor.getPieces();
+        return new Result(score, lines, pieces, matches);
+    }
+
+    /** Usage: --verify-replays file-or-directory... */
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> listing = Files.list(path)) {
+                    listing.filter(p -> p.toString().endsWith(".trpl")).forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        long startNanos = System.nanoTime();
+        files.parallelStream().forEach(file -> {
+            try {
+                Result result = play(Replay.read(file));
+                if (!result.matchesRecording()) {
+                    failures.incrementAndGet();
+                    System.out.println("MISMATCH " + file + " -> " + result);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("Verified %d replays, %d mismatches, %.0f games/s%n",
+                files.size(), failures.get(), files.size() / Math.max(seconds, 1e-9));
+        if (failures.get() > 0) {
+            System.exit(1);
+        }
+    }
+}
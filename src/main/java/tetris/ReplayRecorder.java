@@ -0,0 +1,68 @@
+package tetris;
+
+import java.util.Arrays;
+
+/** Accumulates a game's inputs in the {@link Replay} format. Not thread-safe. */
+public class ReplayRecorder {
+
+    private byte[] buffer = new byte[1024];
+    private int size;
+    private long lastTime;
+
+    public void begin(RandomizerType randomizerType, long seed) {
+        begin(randomizerType, seed, BoardSize.DEFAULT);
+    }
+
+    public void begin(RandomizerType randomizerType, long seed, BoardSize boardSize) {
+        size = 0;
+        lastTime = 0;
+        writeInt(Replay.MAGIC);
+        writeByte(Replay.VERSION);
+        writeByte(randomizerType.ordinal());
+        writeInt((int) (seed >>> 32));
+        writeInt((int) seed);
+        writeVarint(boardSize.width());
+        writeVarint(boardSize.visibleHeight());
+        writeVarint(boardSize.hiddenRows());
+    }
+
+    /** Records an action; time is in ticks since the game started and must not go backwards. */
+    public void record(InputAction action, long time) {
+        writeVarint(((time - lastTime) << 3) | action.ordinal());
+        lastTime = time;
+    }
+
+    public Replay finish(int score, int lines, int pieces) {
+        writeVarint(Replay.END);
+        writeVarint(score);
+        writeVarint(lines);
+        writeVarint(pieces);
+        return new Replay(Arrays.copyOf(buffer, size));
+    }
+
+    public Replay finish(GameEngine engine) {
+        return finish(engine.getScore(), engine.getNumLinesRemoved(), engine.getPiecesPlaced());
+    }
+
+    private void writeInt(int v) {
+        writeByte(v >>> 24);
+        writeByte(v >>> 16);
+        writeByte(v >>> 8);
+        writeByte(v);
+    }
+
+    private void writeVarint(long v) {
+        while ((v & ~0x7FL) != 0) {
+            writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        writeByte((int) v);
+    }
+
+    private void writeByte(int b) {
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, size * 2);
+        }
+        buffer[size++] = (byte) b;
+    }
+}
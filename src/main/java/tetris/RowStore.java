@@ -0,0 +1,195 @@
+package tetris;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Landed cells of a playfield of any width and height. Each row is its own
+ * chunk: an occupancy bitmask in 64-column words, the PieceShape ordinal of
+ * every cell and a count of filled cells. The grid holds references to
+ * these chunks, so clearing lines swaps references in a single pass instead
+ * of copying cells, and cleared chunks are wiped and reused as the new empty
+ * rows at the top. Not thread-safe.
+ */
+final class RowStore {
+
+    private final int width;
+    private final int height;
+    private final int words;
+
+    private final long[][] bits;
+    private final byte[][] cells;
+    private final int[] filled;
+
+    RowStore(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.words = (width + 63) >>> 6;
+        bits = new long[height][words];
+        cells = new byte[height][width];
+        filled = new int[height];
+    }
+
+    void clear() {
+        for (int y = 0; y < height; y++) {
+            if (filled[y] != 0) {
+                wipe(y);
+            }
+        }
+    }
+
+    boolean isOccupied(int x, int y) {
+        return (bits[y][x >>> 6] & (1L << x)) != 0;
+    }
+
+    boolean isEmpty(int y) {
+        return filled[y] == 0;
+    }
+
+    boolean isFull(int y) {
+        return filled[y] == width;
+    }
+
+    /** Bits 0..31 of the row; only meaningful for boards up to 32 columns wide. */
+    int rowMask(int y) {
+        return (int) bits[y][0];
+    }
+
+    /** Bitmask word w of row y, bit i meaning column 64 * w + i. */
+    long word(int y, int w) {
+        return bits[y][w];
+    }
+
+    int words() {
+        return words;
+    }
+
+    boolean fits(Shape.Orientation o, int x, int y) {
+        int left = x + o.minX;
+        int top = y + o.minY;
+        if (left < 0 || left + o.width > width || top < 0 || top + o.height > height) {
+            return false;
+        }
+        int w = left >>> 6;
+        int shift = left & 63;
+        // A piece is at most four columns wide, so it spills into the next word only near a word's end.
+        boolean spills = shift + o.width > 64;
+        int[] masks = o.rowMasks;
+        for (int r = 0; r < masks.length; r++) {
+            long[] row = bits[top + r];
+            if ((row[w] & ((long) masks[r] << shift)) != 0) {
+                return false;
+            }
+            if (spills && (row[w + 1] & ((long) masks[r] >>> (64 - shift))) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void set(int x, int y, byte id) {
+        long bit = 1L << x;
+        long[] row = bits[y];
+        if ((row[x >>> 6] & bit) == 0) {
+            row[x >>> 6] |= bit;
+            filled[y]++;
+        }
+        cells[y][x] = id;
+    }
+
+    /**
+     * Removes the full rows between top and bottom (inclusive), shifting the
+     * rows above them down, in one bottom-up pass. Every row above top must
+     * be empty. Returns the number of rows removed.
+     */
+    int removeFullRows(int top, int bottom) {
+        int dst = bottom;
+        int removed = 0;
+        for (int y = bottom; y >= top; y--) {
+            if (filled[y] == width) {
+                wipe(y);
+                removed++;
+                continue;
+            }
+            if (dst != y) {
+                // Rows between y and dst are wiped full rows; swapping sends one of them up.
+                long[] b = bits[dst];
+                bits[dst] = bits[y];
+                bits[y] = b;
+                byte[] c = cells[dst];
+                cells[dst] = cells[y];
+                cells[y] = c;
+                filled[dst] = filled[y];
+                filled[y] = 0;
+            }
+            dst--;
+        }
+        return removed;
+    }
+
+    /**
+     * Wipes rows from..from+count-1 and rotates them to the bottom, moving
+     * every row below them up by count. Only references move.
+     */
+    void pushUp(int from, int count) {
+        for (int y = from; y < from + count; y++) {
+            wipe(y);
+        }
+        // Rotate [from, height) left by count with three in-place reversals.
+        reverse(from, from + count - 1);
+        reverse(from + count, height - 1);
+        reverse(from, height - 1);
+    }
+
+    private void reverse(int lo, int hi) {
+        for (; lo < hi; lo++, hi--) {
+            long[] b = bits[lo];
+            bits[lo] = bits[hi];
+            bits[hi] = b;
+            byte[] c = cells[lo];
+            cells[lo] = cells[hi];
+            cells[hi] = c;
+            int f = filled[lo];
+            filled[lo] = filled[hi];
+            filled[hi] = f;
+        }
+    }
+
+    /** Copies every cell, row-major, into dst. */
+    void copyCells(byte[] dst) {
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(cells[y], 0, dst, y * width, width);
+        }
+    }
+
+    /** Copies every cell, row-major, into dst at its position. */
+    void copyCells(ByteBuffer dst) {
+        for (int y = 0; y < height; y++) {
+            dst.put(cells[y], 0, width);
+        }
+    }
+
+    /** Replaces every cell from a row-major array; non-zero means occupied. */
+    void load(byte[] src) {
+        load(ByteBuffer.wrap(src));
+    }
+
+    /** Replaces every cell from width * height bytes at src's position. */
+    void load(ByteBuffer src) {
+        for (int y = 0; y < height; y++) {
+            wipe(y);
+            for (int x = 0; x < width; x++) {
+                byte id = src.get();
+                if (id != 0) {
+                    set(x, y, id);
+                }
+            }
+        }
+    }
+
+    private void wipe(int y) {
+        Arrays.fill(bits[y], 0);
+        Arrays.fill(cells[y], (byte) 0);
+        filled[y] = 0;
+    }
+}
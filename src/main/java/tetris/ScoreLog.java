@@ -0,0 +1,421 @@
+package tetris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Local leaderboard: an append-only log of finished games plus an in-memory
+ * top-K rebuilt from the log on open.
+ *
+ * The log is a 16-byte header followed by fixed 48-byte records, each with
+ * its own CRC32C. On open, the first record that is short or fails its CRC
+ * marks the end of a write torn by a crash, and the file is truncated there.
+ *
+ * submit() only queues the result; one writer thread drains the queue in
+ * batches of up to {@link #BATCH} records, appends each batch with a single
+ * write and forces it to disk, once for a whole backlog of batches.
+ *
+ * Record times are clamped to never decrease, so the log stays sorted by
+ * time and date queries can binary-search it. Queries read the file and see
+ * every record written so far; call {@link #flush()} first to include
+ * everything submitted.
+ */
+public final class ScoreLog implements Closeable {
+
+    public static final int DEFAULT_TOP = 100;
+    static final int BATCH = 4096;
+    private static final long LINGER_MILLIS = 5;
+    private static final int MAX_CHUNKS_PER_FORCE = 16;
+
+    private static final int MAGIC = 0x54534352; // "TSCR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 48;
+    private static final int CRC_OFFSET = 40;
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final RandomizerType[] RANDOMIZERS = RandomizerType.values();
+    private static final Comparator<ScoreRecord> BY_SCORE = Comparator.comparingInt(ScoreRecord::score)
+            .thenComparing(Comparator.comparingLong(ScoreRecord::timeMillis).reversed());
+    // Tells the writer to stop; compared by identity.
+    private static final ScoreRecord CLOSE = new ScoreRecord(0, 0, RandomizerType.UNIFORM, BoardSize.DEFAULT, 0, 0, 0);
+
+    private final FileChannel channel;
+    private final int topSize;
+    private final BlockingQueue<ScoreRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // Min-heap on score, guarded by itself
+    private final PriorityQueue<ScoreRecord> top = new PriorityQueue<>(BY_SCORE);
+    private final Thread writer;
+
+    // Records durably in the file; only the writer thread advances it.
+    private volatile long records;
+    private final AtomicLong submitted = new AtomicLong();
+    // Guarded by this
+    private long written;
+    private IOException failure;
+
+    // Writer-thread state
+    private long lastTime;
+
+    private ScoreLog(FileChannel channel, int topSize) {
+        this.channel = channel;
+        this.topSize = topSize;
+        this.writer = new Thread(this::writeLoop, "tetris-scores");
+        writer.setDaemon(true);
+    }
+
+    /** Opens the log, creating it if needed, and rebuilds the top topSize results from it. */
+    public static ScoreLog open(Path file, int topSize) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ScoreLog log = new ScoreLog(channel, Math.max(1, topSize));
+            log.recover();
+            log.writer.start();
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void recover() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.size() == 0) {
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            channel.write(header, 0);
+            channel.force(true);
+            return;
+        }
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a score log");
+        }
+        ByteBuffer chunk = ByteBuffer.allocate(BATCH * RECORD_SIZE);
+        CRC32C crc = new CRC32C();
+        long count = 0;
+        long position = HEADER_SIZE;
+        scan:
+        while (true) {
+            chunk.clear();
+            int n = channel.read(chunk, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int off = 0; off + RECORD_SIZE <= n; off += RECORD_SIZE) {
+                if (!valid(chunk, off, crc)) {
+                    break scan;
+                }
+                ScoreRecord record = decode(chunk, off);
+                offerTop(record);
+                lastTime = record.timeMillis();
+                count++;
+            }
+            if (n < chunk.capacity()) {
+                break;
+            }
+            position += n;
+        }
+        long end = HEADER_SIZE + count * RECORD_SIZE;
+        if (channel.size() > end) {
+            // A torn or corrupt tail from a crash mid-append.
+            channel.truncate(end);
+        }
+        records = count;
+    }
+
+    /**
+     * Queues a result for the writer. Returns at once unless the writer has
+     * fallen a whole queue behind, which only a tight simulation loop can do.
+     */
+    public void submit(ScoreRecord record) {
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            // Not queued, so not counted: flush() must not wait for it.
+            Thread.currentThread().interrupt();
+            return;
+        }
+        submitted.incrementAndGet();
+    }
+
+    /** Waits until everything submitted before this call is on disk. */
+    public void flush() throws IOException, InterruptedException {
+        synchronized (this) {
+            long target = submitted.get();
+            while (written < target && failure == null) {
+                wait();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /** The best results, highest score first. */
+    public List<ScoreRecord> top() {
+        List<ScoreRecord> result;
+        synchronized (top) {
+            result = new ArrayList<>(top);
+        }
+        result.sort(BY_SCORE.reversed());
+        return result;
+    }
+
+    /** Number of results in the file. */
+    public long size() {
+        return records;
+    }
+
+    /** Every written result of games played with the given seed, oldest first. */
+    public List<ScoreRecord> bySeed(long seed) throws IOException {
+        List<ScoreRecord> result = new ArrayList<>();
+        scan(0, records, record -> {
+            if (record.seed() == seed) {
+                result.add(record);
+            }
+            return true;
+        });
+        return result;
+    }
+
+    /** Written results with fromMillis <= time < toMillis, oldest first. */
+    public List<ScoreRecord> between(long fromMillis, long toMillis) throws IOException {
+        long count = records;
+        // Times never decrease, so the first match is found by bisection.
+        long lo = 0;
+        long hi = count;
+        ByteBuffer one = ByteBuffer.allocate(8);
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            one.clear();
+            channel.read(one, HEADER_SIZE + mid * RECORD_SIZE);
+            if (one.getLong(0) < fromMillis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        List<ScoreRecord> result = new ArrayList<>();
+        scan(lo, count, record -> {
+            if (record.timeMillis() >= toMillis) {
+                return false;
+            }
+            result.add(record);
+            return true;
+        });
+        return result;
+    }
+
+    private interface RecordVisitor {
+        boolean visit(ScoreRecord record);
+    }
+
+    private void scan(long from, long to, RecordVisitor visitor) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(BATCH * RECORD_SIZE);
+        for (long i = from; i < to; ) {
+            int batch = (int) Math.min(BATCH, to - i);
+            chunk.clear().limit(batch * RECORD_SIZE);
+            long position = HEADER_SIZE + i * RECORD_SIZE;
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, position + chunk.position()) < 0) {
+                    throw new IOException("Score log ended early");
+                }
+            }
+            for (int r = 0; r < batch; r++) {
+                if (!visitor.visit(decode(chunk, r * RECORD_SIZE))) {
+                    return;
+                }
+            }
+            i += batch;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            queue.put(CLOSE);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<ScoreRecord> batch = new ArrayList<>(BATCH);
+        ByteBuffer out = ByteBuffer.allocate(BATCH * RECORD_SIZE);
+        CRC32C crc = new CRC32C();
+        boolean closing = false;
+        while (!closing) {
+            batch.clear();
+            try {
+                batch.add(queue.take());
+                // Let a burst build up into one write instead of waking for every record.
+                if (queue.size() < BATCH - 1) {
+                    Thread.sleep(LINGER_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, BATCH - 1);
+            long position = HEADER_SIZE + records * RECORD_SIZE;
+            int count = 0;
+            try {
+                // A backlog is written chunk by chunk but forced once, so a slow disk means bigger syncs, not more.
+                for (int chunks = 1; ; chunks++) {
+                    out.clear();
+                    for (int i = 0; i < batch.size(); i++) {
+                        ScoreRecord record = batch.get(i);
+                        if (record == CLOSE) {
+                            closing = true;
+                            continue;
+                        }
+                        if (record.timeMillis() < lastTime) {
+                            // Kept as written, so the live leaderboard matches a reopened log.
+                            record = new ScoreRecord(lastTime, record.seed(), record.randomizer(),
+                                    record.boardSize(), record.score(), record.lines(), record.pieces());
+                            batch.set(i, record);
+                        }
+                        lastTime = record.timeMillis();
+                        encode(out, record, lastTime, crc);
+                        count++;
+                    }
+                    out.flip();
+                    while (out.hasRemaining()) {
+                        position += channel.write(out, position);
+                    }
+                    for (ScoreRecord record : batch) {
+                        if (record != CLOSE) {
+                            offerTop(record);
+                        }
+                    }
+                    if (closing || chunks == MAX_CHUNKS_PER_FORCE || queue.isEmpty()) {
+                        break;
+                    }
+                    batch.clear();
+                    queue.drainTo(batch, BATCH);
+                }
+                channel.force(false);
+                records += count;
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+            synchronized (this) {
+                written += count;
+                notifyAll();
+            }
+        }
+    }
+
+    private void offerTop(ScoreRecord record) {
+        synchronized (top) {
+            if (top.size() < topSize) {
+                top.add(record);
+            } else if (BY_SCORE.compare(record, top.peek()) > 0) {
+                top.poll();
+                top.add(record);
+            }
+        }
+    }
+
+    private static void encode(ByteBuffer out, ScoreRecord record, long time, CRC32C crc) {
+        int start = out.position();
+        BoardSize size = record.boardSize();
+        out.putLong(time);
+        out.putLong(record.seed());
+        out.putInt(record.score());
+        out.putInt(record.lines());
+        out.putInt(record.pieces());
+        out.putInt(size.width());
+        out.putInt(size.visibleHeight());
+        out.putShort((short) size.hiddenRows());
+        out.put((byte) record.randomizer().ordinal());
+        out.put((byte) 0);
+        crc.reset();
+        crc.update(out.array(), start, CRC_OFFSET);
+        out.putInt((int) crc.getValue());
+        out.putInt(0);
+    }
+
+    private static boolean valid(ByteBuffer chunk, int off, CRC32C crc) {
+        crc.reset();
+        crc.update(chunk.array(), off, CRC_OFFSET);
+        return chunk.getInt(off + CRC_OFFSET) == (int) crc.getValue()
+                && (chunk.get(off + 38) & 0xFF) < RANDOMIZERS.length;
+    }
+
+    private static ScoreRecord decode(ByteBuffer chunk, int off) {
+        BoardSize size = new BoardSize(chunk.getInt(off + 28), chunk.getInt(off + 32), chunk.getShort(off + 36));
+        return new ScoreRecord(chunk.getLong(off), chunk.getLong(off + 8), RANDOMIZERS[chunk.get(off + 38)], size,
+                chunk.getInt(off + 16), chunk.getInt(off + 20), chunk.getInt(off + 24));
+    }
+
+    /** The log the game uses unless told otherwise. */
+    public static Path defaultFile() {
+        return Paths.get(System.getProperty("user.home"), ".tetris", "scores.log");
+    }
+
+    /**
+     * Prints leaderboard queries. Options: --file F (default ~/.tetris/scores.log),
+     * --top N (default 10), --seed HEX, --since YYYY-MM-DD, --until YYYY-MM-DD (exclusive).
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = defaultFile();
+        int topN = 10;
+        Long seed = null;
+        LocalDate since = null;
+        LocalDate until = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--file" -> file = Paths.get(args[++i]);
+                case "--top" -> topN = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseUnsignedLong(args[++i], 16);
+                case "--since" -> since = LocalDate.parse(args[++i]);
+                case "--until" -> until = LocalDate.parse(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        try (ScoreLog log = open(file, topN)) {
+            List<ScoreRecord> results;
+            if (seed != null) {
+                results = log.bySeed(seed);
+            } else if (since != null || until != null) {
+                ZoneId zone = ZoneId.systemDefault();
+                long from = since == null ? Long.MIN_VALUE : since.atStartOfDay(zone).toInstant().toEpochMilli();
+                long to = until == null ? Long.MAX_VALUE : until.atStartOfDay(zone).toInstant().toEpochMilli();
+                results = log.between(from, to);
+            } else {
+                results = log.top();
+            }
+            System.out.printf("%d results in %s%n", log.size(), file);
+            for (ScoreRecord record : results) {
+                System.out.println(record);
+            }
+        }
+    }
+}
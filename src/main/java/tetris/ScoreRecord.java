@@ -0,0 +1,20 @@
+package tetris;
+
+import java.time.Instant;
+
+/** One finished game as kept by {@link ScoreLog}. */
+public record ScoreRecord(long timeMillis, long seed, RandomizerType randomizer, BoardSize boardSize,
+                          int score, int lines, int pieces) {
+
+    /** The result of the engine's game, stamped with the current time. */
+    public static ScoreRecord of(GameEngine engine, RandomizerType randomizer) {
+        return new ScoreRecord(System.currentTimeMillis(), engine.getSeed(), randomizer, engine.getSize(),
+                engine.getScore(), engine.getNumLinesRemoved(), engine.getPiecesPlaced());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%8d  %6d lines  %7d pieces  %s  %s %s  seed %s", score, lines, pieces,
+                Instant.ofEpochMilli(timeMillis), randomizer, boardSize, Long.toUnsignedString(seed, 16));
+    }
+}
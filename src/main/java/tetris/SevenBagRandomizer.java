@@ -0,0 +1,65 @@
+package tetris;
+
+import java.nio.ByteBuffer;
+
+/** Deals all seven pieces in a shuffled bag before reshuffling, so droughts are bounded. */
+public class SevenBagRandomizer implements PieceRandomizer {
+
+    private static final Shape.PieceShape[] PIECES = Shape.PieceShape.values();
+    private static final int BAG_SIZE = PIECES.length - 1;
+
+    private final SplitMix64 random;
+    private final Shape.PieceShape[] bag = new Shape.PieceShape[BAG_SIZE];
+    private int index;
+
+    public SevenBagRandomizer(long seed) {
+        random = new SplitMix64(seed);
+        reset(seed);
+    }
+
+    @Override
+    public void reset(long seed) {
+        random.setSeed(seed);
+        for (int i = 0; i < BAG_SIZE; i++) {
+            bag[i] = PIECES[i + 1];
+        }
+        index = BAG_SIZE;
+    }
+
+    @Override
+    public Shape.PieceShape next() {
+        if (index == BAG_SIZE) {
+            // Fisher-Yates in place; the bag array is reused for every refill.
+            for (int i = BAG_SIZE - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Shape.PieceShape tmp = bag[i];
+                bag[i] = bag[j];
+                bag[j] = tmp;
+            }
+            index = 0;
+        }
+        return bag[index++];
+    }
+
+    // The bag packs into one long: three bits per piece ordinal, then the index.
+    @Override
+    public void writeState(ByteBuffer dst) {
+        long packed = index;
+        for (int i = BAG_SIZE - 1; i >= 0; i--) {
+            packed = (packed << 3) | bag[i].ordinal();
+        }
+        dst.putLong(random.getState());
+        dst.putLong(packed);
+    }
+
+    @Override
+    public void readState(ByteBuffer src) {
+        random.setSeed(src.getLong());
+        long packed = src.getLong();
+        for (int i = 0; i < BAG_SIZE; i++) {
+            bag[i] = PIECES[(int) (packed & 7)];
+            packed >>>= 3;
+        }
+        index = (int) packed;
+    }
+}
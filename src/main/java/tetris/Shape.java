@@ -0,0 +1,235 @@
+package tetris;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class Shape {
+
+    /**
+     * One precomputed rotation of a piece: its cell offsets, bounding box,
+     * a bitmask per occupied row (bit 0 is the box's left column) and the
+     * lowest cell offset in each column of the box. Instances
+     * are built once when PieceShape loads and shared by every Shape.
+     */
+    public static final class Orientation {
+        private final int[] xs = new int[4];
+        private final int[] ys = new int[4];
+        public final int minX, maxX, minY, maxY;
+        public final int width, height;
+        public final int[] rowMasks;
+        public final int[] columnBottoms;
+
+        Orientation(int[][] coords) {
+            int lowX = coords[0][0], highX = lowX, lowY = coords[0][1], highY = lowY;
+            for (int i = 0; i < 4; i++) {
+                xs[i] = coords[i][0];
+                ys[i] = coords[i][1];
+                lowX = Math.min(lowX, xs[i]);
+                highX = Math.max(highX, xs[i]);
+                lowY = Math.min(lowY, ys[i]);
+                highY = Math.max(highY, ys[i]);
+            }
+            minX = lowX;
+            maxX = highX;
+            minY = lowY;
+            maxY = highY;
+            width = maxX - minX + 1;
+            height = maxY - minY + 1;
+            rowMasks = new int[height];
+            for (int i = 0; i < 4; i++) {
+                rowMasks[ys[i] - minY] |= 1 << (xs[i] - minX);
+            }
+            columnBottoms = new int[width];
+            Arrays.fill(columnBottoms, Integer.MIN_VALUE);
+            for (int i = 0; i < 4; i++) {
+                columnBottoms[xs[i] - minX] = Math.max(columnBottoms[xs[i] - minX], ys[i]);
+            }
+        }
+
+        public int getX(int index) {
+            return xs[index];
+        }
+
+        public int getY(int index) {
+            return ys[index];
+        }
+    }
+
+    public enum PieceShape {
+        NoShape(new int[][]{{0, 0}, {0, 0}, {0, 0}, {0, 0}}, new Color(0, 0, 0), false),
+        ZShape(new int[][]{{0, -1}, {0, 0}, {-1, 0}, {-1, 1}}, new Color(204, 102, 102), true),
+        SShape(new int[][]{{0, -1}, {0, 0}, {1, 0}, {1, 1}}, new Color(102, 204, 102), true),
+        LineShape(new int[][]{{0, -1}, {0, 0}, {0, 1}, {0, 2}}, new Color(102, 102, 204), true),
+        TShape(new int[][]{{-1, 0}, {0, 0}, {1, 0}, {0, 1}}, new Color(204, 204, 102), true),
+        SquareShape(new int[][]{{0, 0}, {1, 0}, {0, 1}, {1, 1}}, new Color(204, 102, 204), false),
+        LShape(new int[][]{{-1, 1}, {0, 1}, {0, 0}, {0, -1}}, new Color(102, 204, 204), true),
+        JShape(new int[][]{{1, 1}, {0, 1}, {0, 0}, {0, -1}}, new Color(204, 170, 102), true);
+
+        public final int[][] coords;
+        public final Color color;
+        private final Orientation[] orientations;
+        private final int[] canonical;
+
+        PieceShape(int[][] coords, Color color, boolean rotates) {
+            this.coords = coords;
+            this.color = color;
+            // Orientation k + 1 is orientation k turned right: (x, y) -> (-y, x).
+            orientations = new Orientation[rotates ? 4 : 1];
+            int[][] turned = new int[4][2];
+            for (int i = 0; i < 4; i++) {
+                turned[i][0] = coords[i][0];
+                turned[i][1] = coords[i][1];
+            }
+            for (int r = 0; r < orientations.length; r++) {
+                orientations[r] = new Orientation(turned);
+                for (int i = 0; i < 4; i++) {
+                    int x = turned[i][0];
+                    turned[i][0] = -turned[i][1];
+                    turned[i][1] = x;
+                }
+            }
+            // Orientations covering the same cells once translated (S, Z and I turned
+            // half-way round) share the lowest such index.
+            canonical = new int[orientations.length];
+            for (int r = 0; r < orientations.length; r++) {
+                canonical[r] = r;
+                for (int q = 0; q < r; q++) {
+                    if (Arrays.equals(orientations[q].rowMasks, orientations[r].rowMasks)) {
+                        canonical[r] = q;
+                        break;
+                    }
+                }
+            }
+        }
+
+        public int getOrientationCount() {
+            return orientations.length;
+        }
+
+        public Orientation getOrientation(int index) {
+            return orientations[index];
+        }
+
+        /** Lowest orientation index whose cells are a translation of this one's. */
+        public int getCanonicalOrientation(int index) {
+            return canonical[index];
+        }
+
+        public int rotatedRight(int orientation) {
+            return (orientation + 1) % orientations.length;
+        }
+
+        public int rotatedLeft(int orientation) {
+            return (orientation + orientations.length - 1) % orientations.length;
+        }
+
+        private static final PieceShape[] VALUES = values();
+
+        /** Unseeded convenience pick; games draw from a PieceRandomizer instead. */
+        public static PieceShape getRandomShape() {
+            return VALUES[ThreadLocalRandom.current().nextInt(VALUES.length - 1) + 1];
+        }
+    }
+
+    // [shape][orientation], shared read-only pieces returned by rotatedRight/rotatedLeft
+    private static final Shape[][] VIEWS = new Shape[PieceShape.values().length][];
+
+    static {
+        for (PieceShape shape : PieceShape.values()) {
+            VIEWS[shape.ordinal()] = new Shape[shape.getOrientationCount()];
+            for (int o = 0; o < shape.getOrientationCount(); o++) {
+                VIEWS[shape.ordinal()][o] = new View(shape, o);
+            }
+        }
+    }
+
+    protected PieceShape pieceShape;
+    protected int orientationIndex;
+    protected Orientation orientation;
+
+    public Shape() {
+        setPieceShape(PieceShape.NoShape);
+    }
+
+    private Shape(PieceShape shape, int orientationIndex) {
+        this.pieceShape = shape;
+        this.orientationIndex = orientationIndex;
+        this.orientation = shape.getOrientation(orientationIndex);
+    }
+
+    public void setPieceShape(PieceShape shape) {
+        this.pieceShape = shape;
+        setOrientation(0);
+    }
+
+    public PieceShape getPieceShape() {
+        return pieceShape;
+    }
+
+    public Color getColor() {
+        return pieceShape.color;
+    }
+
+    public int getOrientationIndex() {
+        return orientationIndex;
+    }
+
+    public void setOrientation(int index) {
+        this.orientationIndex = index;
+        this.orientation = pieceShape.getOrientation(index);
+    }
+
+    public Orientation getOrientation() {
+        return orientation;
+    }
+
+    public int getX(int index) {
+        return orientation.getX(index);
+    }
+
+    public int getY(int index) {
+        return orientation.getY(index);
+    }
+
+    public int getTopmostRelativeY() {
+        return orientation.minY;
+    }
+
+    /** Turns this piece right in place; only the orientation index changes. */
+    public void turnRight() {
+        setOrientation(pieceShape.rotatedRight(orientationIndex));
+    }
+
+    /** Turns this piece left in place; only the orientation index changes. */
+    public void turnLeft() {
+        setOrientation(pieceShape.rotatedLeft(orientationIndex));
+    }
+
+    /** This piece turned right, leaving this one alone. The result is shared and read-only. */
+    public Shape rotatedRight() {
+        return VIEWS[pieceShape.ordinal()][pieceShape.rotatedRight(orientationIndex)];
+    }
+
+    /** This piece turned left, leaving this one alone. The result is shared and read-only. */
+    public Shape rotatedLeft() {
+        return VIEWS[pieceShape.ordinal()][pieceShape.rotatedLeft(orientationIndex)];
+    }
+
+    private static final class View extends Shape {
+
+        View(PieceShape shape, int orientationIndex) {
+            super(shape, orientationIndex);
+        }
+
+        @Override
+        public void setPieceShape(PieceShape shape) {
+            throw new UnsupportedOperationException("Shared rotated pieces are read-only");
+        }
+
+        @Override
+        public void setOrientation(int index) {
+            throw new UnsupportedOperationException("Shared rotated pieces are read-only");
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package tetris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams one game to any number of spectators over non-blocking sockets.
+ * The logic thread hands over each published snapshot; a single IO thread
+ * encodes it once with {@link SpectatorCodec} and queues the same read-only
+ * buffer to every spectator, each through its own duplicate() view.
+ *
+ * A spectator whose queue grows past {@link #MAX_QUEUED_BYTES} has its
+ * pending deltas discarded and gets a keyframe of the latest state instead.
+ * If it falls that far behind again before the keyframe has gone out, it is
+ * disconnected.
+ */
+public final class SpectatorBroadcaster implements Runnable, Closeable {
+
+    public static final int DEFAULT_PORT = 7778;
+    static final int MAX_QUEUED_BYTES = 64 * 1024;
+    private static final int SEND_BUFFER_BYTES = 16 * 1024;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Queue<GameSnapshot> published = new ConcurrentLinkedQueue<>();
+    private final List<Spectator> spectators = new ArrayList<>();
+    private final SpectatorCodec codec = new SpectatorCodec();
+    private final ByteBuffer sink = ByteBuffer.allocate(64);
+    private volatile int spectatorCount;
+
+    final LongAdder framesSent = new LongAdder();
+    final LongAdder resyncs = new LongAdder();
+    final LongAdder drops = new LongAdder();
+
+    // IO-thread state
+    private GameSnapshot last;
+    private long seq;
+    private ByteBuffer keyframe;
+
+    private volatile Thread thread;
+
+    private final class Spectator {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+        int queuedBytes;
+        // The queued keyframe, until it has been fully written
+        ByteBuffer pendingKeyframe;
+
+        Spectator(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.key = channel.register(selector, SelectionKey.OP_READ, this);
+        }
+    }
+
+    public SpectatorBroadcaster(int port, GameSnapshot initial) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.last = initial;
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(this, "tetris-spectators");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Queues a snapshot for broadcast; called from the logic thread and never blocks. */
+    public void publish(GameSnapshot previous, GameSnapshot current) {
+        published.add(current);
+        selector.wakeup();
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread = null;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (thread == Thread.currentThread()) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Spectator spectator = (Spectator) key.attachment();
+                        if (key.isReadable()) {
+                            discardInput(spectator);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(spectator);
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+                broadcastPublished();
+            }
+        } catch (IOException e) {
+            System.err.println("Spectator broadcast stopped: " + e.getMessage());
+        } finally {
+            for (Spectator spectator : new ArrayList<>(spectators)) {
+                disconnect(spectator);
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException e) {
+                // Shutting down anyway.
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            // Keep the kernel buffer small so a stalled spectator shows up in its queue, not in kernel memory.
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_BYTES);
+            Spectator spectator = new Spectator(channel);
+            spectators.add(spectator);
+            spectatorCount = spectators.size();
+            sendKeyframe(spectator);
+            flush(spectator);
+        }
+    }
+
+    // Spectators have nothing to say; reading only notices when they hang up.
+    private void discardInput(Spectator spectator) {
+        try {
+            while (true) {
+                int n = spectator.channel.read(sink);
+                if (n < 0) {
+                    disconnect(spectator);
+                    return;
+                }
+                if (n == 0) {
+                    return;
+                }
+                sink.clear();
+            }
+        } catch (IOException e) {
+            disconnect(spectator);
+        }
+    }
+
+    private void broadcastPublished() {
+        GameSnapshot current;
+        while ((current = published.poll()) != null) {
+            ByteBuffer frame = codec.delta(++seq, last, current);
+            last = current;
+            keyframe = null;
+            for (int i = spectators.size() - 1; i >= 0; i--) {
+                Spectator spectator = spectators.get(i);
+                if (spectator.queuedBytes + frame.remaining() > MAX_QUEUED_BYTES) {
+                    resync(spectator);
+                } else {
+                    enqueue(spectator, frame.duplicate());
+                }
+            }
+        }
+        for (int i = spectators.size() - 1; i >= 0; i--) {
+            flush(spectators.get(i));
+        }
+    }
+
+    private void resync(Spectator spectator) {
+        if (spectator.pendingKeyframe != null) {
+            drops.increment();
+            disconnect(spectator);
+            return;
+        }
+        resyncs.increment();
+        // A partly written frame must be finished or the stream loses its framing.
+        ByteBuffer head = spectator.queue.peek();
+        spectator.queue.clear();
+        spectator.queuedBytes = 0;
+        if (head != null && head.position() > 0) {
+            enqueue(spectator, head);
+        }
+        sendKeyframe(spectator);
+    }
+
+    private void sendKeyframe(Spectator spectator) {
+        if (keyframe == null) {
+            keyframe = codec.keyframe(seq, last);
+        }
+        spectator.pendingKeyframe = keyframe.duplicate();
+        enqueue(spectator, spectator.pendingKeyframe);
+    }
+
+    private void enqueue(Spectator spectator, ByteBuffer frame) {
+        spectator.queue.add(frame);
+        spectator.queuedBytes += frame.remaining();
+    }
+
+    private void flush(Spectator spectator) {
+        try {
+            ByteBuffer head;
+            while ((head = spectator.queue.peek()) != null) {
+                int written = spectator.channel.write(head);
+                spectator.queuedBytes -= written;
+                if (head.hasRemaining()) {
+                    break;
+                }
+                spectator.queue.poll();
+                framesSent.increment();
+                if (head == spectator.pendingKeyframe) {
+                    spectator.pendingKeyframe = null;
+                }
+            }
+        } catch (IOException e) {
+            disconnect(spectator);
+            return;
+        }
+        int ops = spectator.queue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+        if (spectator.key.isValid() && spectator.key.interestOps() != ops) {
+            spectator.key.interestOps(ops);
+        }
+    }
+
+    private void disconnect(Spectator spectator) {
+        spectators.remove(spectator);
+        spectatorCount = spectators.size();
+        spectator.key.cancel();
+        try {
+            spectator.channel.close();
+        } catch (IOException e) {
+            // Already gone.
+        }
+    }
+
+    public int getSpectatorCount() {
+        return spectatorCount;
+    }
+}
@@ -0,0 +1,119 @@
+package tetris;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless spectators for load-testing a {@link SpectatorBroadcaster}. Each
+ * viewer runs on a virtual thread, decodes every frame into its own
+ * {@link SpectatorView}, and reports how many frames, keyframes and bytes
+ * arrived. Slow viewers pause between reads to exercise the resync path.
+ */
+public final class SpectatorClient {
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder keyframes = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+    private final ConcurrentLinkedQueue<Socket> sockets = new ConcurrentLinkedQueue<>();
+
+    private SpectatorClient() {
+    }
+
+    private void watch(String host, int port, long deadlineNanos, long pauseNanos) {
+        SpectatorView view = new SpectatorView();
+        byte[] payload = new byte[1024];
+        try (Socket socket = new Socket(host, port)) {
+            sockets.add(socket);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 4096));
+            while (System.nanoTime() - deadlineNanos < 0) {
+                int length = in.readInt();
+                if (length > payload.length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                in.readFully(payload, 0, length);
+                bytes.add(length + SpectatorCodec.HEADER_BYTES);
+                frames.increment();
+                if (payload[0] == SpectatorCodec.KEYFRAME) {
+                    keyframes.increment();
+                }
+                if (!view.apply(ByteBuffer.wrap(payload, 0, length))) {
+                    skipped.increment();
+                }
+                if (pauseNanos > 0) {
+                    LockSupport.parkNanos(pauseNanos);
+                }
+            }
+        } catch (IOException e) {
+            // main() closes every socket at the deadline; only earlier closes are the server's doing.
+            if (System.nanoTime() - deadlineNanos < 0) {
+                disconnects.increment();
+            }
+        }
+    }
+
+    /**
+     * Options: --host H (default localhost), --port P (default 7778),
+     * --viewers N (default 200), --seconds S (default 30),
+     * --slow N (how many of the viewers pause --pause MS after every frame, default 0 and 100).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String host = "localhost";
+        int port = SpectatorBroadcaster.DEFAULT_PORT;
+        int viewers = 200;
+        long seconds = 30;
+        int slow = 0;
+        long pauseMillis = 100;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host" -> host = args[++i];
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--viewers" -> viewers = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Long.parseLong(args[++i]);
+                case "--slow" -> slow = Integer.parseInt(args[++i]);
+                case "--pause" -> pauseMillis = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        SpectatorClient client = new SpectatorClient();
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>(viewers);
+        for (int i = 0; i < viewers; i++) {
+            String h = host;
+            int p = port;
+            long pause = i < slow ? pauseMillis * 1_000_000L : 0;
+            threads.add(Thread.ofVirtual().start(() -> client.watch(h, p, deadline, pause)));
+        }
+        for (long wait; (wait = deadline - System.nanoTime()) > 0; ) {
+            LockSupport.parkNanos(wait);
+        }
+        for (Socket socket : client.sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway.
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double wall = (System.nanoTime() - startNanos) / 1e9;
+
+        System.out.printf("viewers         %d (%d slow)%n", viewers, slow);
+        System.out.printf("frames/s        %.0f (%d keyframes, %d deltas skipped out of sync)%n",
+                client.frames.sum() / wall, client.keyframes.sum(), client.skipped.sum());
+        System.out.printf("bytes/frame     %.1f%n", (double) client.bytes.sum() / Math.max(1, client.frames.sum()));
+        System.out.printf("disconnected    %d%n", client.disconnects.sum());
+    }
+}
@@ -0,0 +1,178 @@
+package tetris;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes published snapshots into spectator frames. A frame is a 4-byte
+ * length, a type byte and a varint sequence number, followed by the piece
+ * state and, when the stack changed, the board change.
+ *
+ * A delta's board change lists the rows of the previous board that were
+ * removed (the surviving rows keep their order and settle to the bottom,
+ * with empty rows added on top), then the cells set on the resulting board.
+ * Rows are matched bottom-up: a previous row whose cells all survive in the
+ * current row is kept and only the new cells are sent, anything else counts
+ * as removed. That is exact for any change and compact for the usual ones,
+ * a lock with or without cleared rows. When a delta would carry more than a
+ * fraction of the board, a keyframe is sent instead.
+ *
+ * Not thread-safe; the broadcaster uses one instance from its IO thread.
+ */
+final class SpectatorCodec {
+
+    static final int KEYFRAME = 1;
+    static final int DELTA = 2;
+    static final int HEADER_BYTES = 4;
+
+    static final int STARTED = 1;
+    static final int FALLING_FINISHED = 2;
+    static final int PAUSED = 4;
+
+    private byte[] buffer = new byte[256];
+    private int size;
+    private int[] removed = new int[16];
+    private int[] sets = new int[64];
+
+    /** The full state, from which a spectator can follow later deltas. */
+    ByteBuffer keyframe(long seq, GameSnapshot s) {
+        begin(KEYFRAME, seq);
+        BoardSize boardSize = s.getSize();
+        writeVarint(boardSize.width());
+        writeVarint(boardSize.visibleHeight());
+        writeVarint(boardSize.hiddenRows());
+        writePiece(s);
+        byte[] cells = s.cells();
+        for (int i = 0; i < cells.length; ) {
+            int run = 1;
+            while (i + run < cells.length && cells[i + run] == cells[i]) {
+                run++;
+            }
+            writeByte(cells[i]);
+            writeVarint(run);
+            i += run;
+        }
+        return finish();
+    }
+
+    /** The change from previous to current; a keyframe if that is not much larger. */
+    ByteBuffer delta(long seq, GameSnapshot previous, GameSnapshot current) {
+        if (!previous.getSize().equals(current.getSize())) {
+            return keyframe(seq, current);
+        }
+        begin(DELTA, seq);
+        writePiece(current);
+        if (previous.cells() == current.cells()) {
+            writeByte(0);
+            return finish();
+        }
+        writeByte(1);
+        int width = current.getSize().width();
+        byte[] before = previous.cells();
+        byte[] after = current.cells();
+        int removedCount = 0;
+        int setCount = 0;
+        int p = current.getSize().totalHeight() - 1;
+        for (int y = p; y >= 0; y--) {
+            while (p >= 0 && !survives(before, p, after, y, width)) {
+                removed = grow(removed, removedCount + 1);
+                removed[removedCount++] = p--;
+            }
+            int from = y * width;
+            for (int x = 0; x < width; x++) {
+                int id = after[from + x];
+                if (id != 0 && (p < 0 || before[p * width + x] == 0)) {
+                    sets = grow(sets, setCount + 2);
+                    sets[setCount++] = from + x;
+                    sets[setCount++] = id;
+                }
+            }
+            p--;
+        }
+        while (p >= 0) {
+            removed = grow(removed, removedCount + 1);
+            removed[removedCount++] = p--;
+        }
+        // Past this size a run-length keyframe is about as small and cheaper to apply.
+        if (removedCount + setCount > after.length / 4) {
+            return keyframe(seq, current);
+        }
+        writeVarint(removedCount);
+        for (int i = 0; i < removedCount; i++) {
+            writeVarint(removed[i]);
+        }
+        writeVarint(setCount / 2);
+        for (int i = 0; i < setCount; i += 2) {
+            writeVarint(sets[i]);
+            writeByte(sets[i + 1]);
+        }
+        return finish();
+    }
+
+    // Whether every landed cell of row p in before is still there, unchanged, in row y of after.
+    private static boolean survives(byte[] before, int p, byte[] after, int y, int width) {
+        int b = p * width;
+        int a = y * width;
+        for (int x = 0; x < width; x++) {
+            if (before[b + x] != 0 && before[b + x] != after[a + x]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writePiece(GameSnapshot s) {
+        writeByte(s.getPieceShape().ordinal());
+        writeByte(s.getOrientationIndex());
+        writeVarint(zigzag(s.getPieceX()));
+        writeVarint(zigzag(s.getPieceY()));
+        writeByte(s.getNextShape().ordinal());
+        writeByte((s.isStarted() ? STARTED : 0) | (s.isFallingFinished() ? FALLING_FINISHED : 0)
+                | (s.isPaused() ? PAUSED : 0));
+        writeVarint(s.getScore());
+        writeVarint(s.getLinesRemoved());
+    }
+
+    private void begin(int type, long seq) {
+        size = HEADER_BYTES;
+        writeByte(type);
+        writeVarint(seq);
+    }
+
+    // A read-only buffer that all spectators share through duplicate().
+    private ByteBuffer finish() {
+        int length = size - HEADER_BYTES;
+        buffer[0] = (byte) (length >>> 24);
+        buffer[1] = (byte) (length >>> 16);
+        buffer[2] = (byte) (length >>> 8);
+        buffer[3] = (byte) length;
+        return ByteBuffer.wrap(Arrays.copyOf(buffer, size)).asReadOnlyBuffer();
+    }
+
+    private void writeVarint(long v) {
+        while ((v & ~0x7FL) != 0) {
+            writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        writeByte((int) v);
+    }
+
+    private void writeByte(int b) {
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, size * 2);
+        }
+        buffer[size++] = (byte) b;
+    }
+
+    private static int[] grow(int[] array, int needed) {
+        return needed <= array.length ? array : Arrays.copyOf(array, Math.max(needed, array.length * 2));
+    }
+
+    static long zigzag(int v) {
+        return ((long) v << 1) ^ (v >> 31);
+    }
+
+    static int unzigzag(long v) {
+        return (int) ((v >>> 1) ^ -(v & 1));
+    }
+}
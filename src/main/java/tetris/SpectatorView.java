@@ -0,0 +1,138 @@
+package tetris;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A spectator's copy of a broadcast game, rebuilt from the frames written by
+ * {@link SpectatorCodec}. A keyframe replaces the whole state; a delta is
+ * applied only if it directly follows the last frame seen, otherwise the
+ * view waits for the next keyframe.
+ */
+final class SpectatorView {
+
+    private BoardSize size;
+    private byte[] cells;
+    private byte[] scratch;
+    private long seq = -1;
+    private boolean synced;
+
+    private int pieceShape;
+    private int orientation;
+    private int pieceX;
+    private int pieceY;
+    private int nextShape;
+    private int flags;
+    private int score;
+    private int lines;
+
+    /** Applies one frame payload (after the length prefix); returns false if it had to be skipped. */
+    boolean apply(ByteBuffer frame) {
+        int type = frame.get();
+        long frameSeq = readVarint(frame);
+        if (type == SpectatorCodec.KEYFRAME) {
+            size = new BoardSize((int) readVarint(frame), (int) readVarint(frame), (int) readVarint(frame));
+            readPiece(frame);
+            int length = size.width() * size.totalHeight();
+            if (cells == null || cells.length != length) {
+                cells = new byte[length];
+                scratch = new byte[length];
+            }
+            for (int i = 0; i < length; ) {
+                byte id = frame.get();
+                int run = (int) readVarint(frame);
+                Arrays.fill(cells, i, i + run, id);
+                i += run;
+            }
+            seq = frameSeq;
+            synced = true;
+            return true;
+        }
+        if (!synced || frameSeq != seq + 1) {
+            synced = false;
+            return false;
+        }
+        seq = frameSeq;
+        readPiece(frame);
+        if (frame.get() != 0) {
+            applyBoard(frame);
+        }
+        return true;
+    }
+
+    private void applyBoard(ByteBuffer frame) {
+        int width = size.width();
+        int removedCount = (int) readVarint(frame);
+        // Removed rows arrive bottom-up; copy the survivors down into scratch.
+        int y = size.totalHeight() - 1;
+        int nextRemoved = removedCount > 0 ? (int) readVarint(frame) : -1;
+        int read = 1;
+        for (int p = size.totalHeight() - 1; p >= 0; p--) {
+            if (p == nextRemoved) {
+                nextRemoved = read < removedCount ? (int) readVarint(frame) : -1;
+                read++;
+                continue;
+            }
+            System.arraycopy(cells, p * width, scratch, y * width, width);
+            y--;
+        }
+        Arrays.fill(scratch, 0, (y + 1) * width, (byte) 0);
+        byte[] swap = cells;
+        cells = scratch;
+        scratch = swap;
+        int setCount = (int) readVarint(frame);
+        for (int i = 0; i < setCount; i++) {
+            int index = (int) readVarint(frame);
+            cells[index] = frame.get();
+        }
+    }
+
+    private void readPiece(ByteBuffer frame) {
+        pieceShape = frame.get();
+        orientation = frame.get();
+        pieceX = SpectatorCodec.unzigzag(readVarint(frame));
+        pieceY = SpectatorCodec.unzigzag(readVarint(frame));
+        nextShape = frame.get();
+        flags = frame.get();
+        score = (int) readVarint(frame);
+        lines = (int) readVarint(frame);
+    }
+
+    private static long readVarint(ByteBuffer frame) {
+        long v = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = frame.get();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return v;
+    }
+
+    boolean isSynced() {
+        return synced;
+    }
+
+    long getSeq() {
+        return seq;
+    }
+
+    BoardSize getSize() {
+        return size;
+    }
+
+    int getCell(int x, int y) {
+        return cells[y * size.width() + x];
+    }
+
+    /** Whether this view shows exactly what the snapshot shows. */
+    boolean matches(GameSnapshot s) {
+        return synced && s.getSize().equals(size) && Arrays.equals(cells, s.cells())
+                && pieceShape == s.getPieceShape().ordinal() && orientation == s.getOrientationIndex()
+                && pieceX == s.getPieceX() && pieceY == s.getPieceY() && nextShape == s.getNextShape().ordinal()
+                && score == s.getScore() && lines == s.getLinesRemoved()
+                && ((flags & SpectatorCodec.STARTED) != 0) == s.isStarted()
+                && ((flags & SpectatorCodec.PAUSED) != 0) == s.isPaused();
+    }
+}
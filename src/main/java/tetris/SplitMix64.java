@@ -0,0 +1,32 @@
+package tetris;
+
+/** Minimal SplitMix64 generator; unlike java.util.Random it is unsynchronized and its state is one long. */
+final class SplitMix64 {
+
+    private long state;
+
+    SplitMix64(long seed) {
+        this.state = seed;
+    }
+
+    void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    /** The current state; setSeed(getState()) continues the same sequence. */
+    long getState() {
+        return state;
+    }
+
+    long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Uniform value in [0, bound) using Lemire's multiply-shift reduction. */
+    int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+}
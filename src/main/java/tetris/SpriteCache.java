@@ -0,0 +1,91 @@
+package tetris;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-rendered bevelled cell tiles, one per PieceShape, for each cell size
+ * in use, plus translucent outline tiles for the ghost piece. Painting a
+ * cell is then a single drawImage with no Color allocation. Safe to use
+ * from several threads.
+ */
+public final class SpriteCache {
+
+    // Resizing a window walks through many sizes; keep only the recent ones.
+    private static final int MAX_SIZES = 8;
+    private static final Color GARBAGE_COLOR = new Color(128, 128, 128);
+    private static final Map<Integer, BufferedImage[]> TILES = new ConcurrentHashMap<>();
+    private static final Map<Integer, BufferedImage[]> GHOSTS = new ConcurrentHashMap<>();
+
+    private SpriteCache() {
+    }
+
+    /** Tiles for the given cell size, indexed by PieceShape ordinal, plus one for garbage. */
+    public static BufferedImage[] tiles(int cellSize) {
+        return cached(TILES, cellSize, false);
+    }
+
+    /** Ghost-piece tiles for the given cell size, indexed by PieceShape ordinal. */
+    public static BufferedImage[] ghostTiles(int cellSize) {
+        return cached(GHOSTS, cellSize, true);
+    }
+
+    private static BufferedImage[] cached(Map<Integer, BufferedImage[]> cache, int cellSize, boolean ghost) {
+        BufferedImage[] tiles = cache.get(cellSize);
+        if (tiles == null) {
+            if (cache.size() >= MAX_SIZES) {
+                cache.clear();
+            }
+            tiles = cache.computeIfAbsent(cellSize, size -> render(size, ghost));
+        }
+        return tiles;
+    }
+
+    private static BufferedImage[] render(int cellSize, boolean ghost) {
+        Shape.PieceShape[] shapes = Shape.PieceShape.values();
+        // One extra tile at GameEngine.GARBAGE_CELL for garbage rows.
+        BufferedImage[] tiles = new BufferedImage[shapes.length + 1];
+        int size = Math.max(cellSize, 1);
+        for (int id = 0; id < tiles.length; id++) {
+            Color color = id < shapes.length ? shapes[id].color : GARBAGE_COLOR;
+            BufferedImage tile = new BufferedImage(size, size,
+                    ghost ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = tile.createGraphics();
+            try {
+                if (ghost) {
+                    drawGhost(g, size, color);
+                } else {
+                    drawSquare(g, 0, 0, size, color);
+                }
+            } finally {
+                g.dispose();
+            }
+            tiles[id] = tile;
+        }
+        return tiles;
+    }
+
+    private static void drawGhost(Graphics g, int size, Color color) {
+        g.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 48));
+        g.fillRect(1, 1, size - 2, size - 2);
+        g.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 160));
+        g.drawRect(0, 0, size - 1, size - 1);
+    }
+
+    private static void drawSquare(Graphics g, int x, int y, int size, Color color) {
+        g.setColor(color);
+        g.fillRect(x + 1, y + 1, size - 2, size - 2);
+
+        g.setColor(color.brighter());
+        g.drawLine(x, y + size - 1, x, y);
+        g.drawLine(x, y, x + size - 1, y);
+
+        g.setColor(color.darker());
+        g.drawLine(x + 1, y + size - 1, x + size - 1, y + size - 1);
+        g.drawLine(x + size - 1, y + size - 1, x + size - 1, y + 1);
+    }
+}
@@ -0,0 +1,381 @@
+package tetris;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class Tetris extends JFrame {
+
+    private Board board;
+    private JLabel scoreLabel;
+    private JLabel linesLabel;
+    private NextPanel nextPanel;
+
+    public Tetris() {
+        this(RandomizerType.UNIFORM, null);
+    }
+
+    public Tetris(RandomizerType randomizerType, Path replayDirectory) {
+        this(randomizerType, BoardSize.DEFAULT, replayDirectory);
+    }
+
+    public Tetris(RandomizerType randomizerType, BoardSize boardSize, Path replayDirectory) {
+        initUI(randomizerType, boardSize);
+        board.getLoop().addEventListener(this::gameEvent, SwingUtilities::invokeLater);
+        board.setReplayDirectory(replayDirectory);
+        board.getLoop().getMetrics().register();
+    }
+
+    private void initUI(RandomizerType randomizerType, BoardSize boardSize) {
+        // Use a panel with GridBagLayout to tightly pack board, instructions, and side panel
+        JPanel mainPanel = new JPanel(new GridBagLayout());
+        mainPanel.setBackground(Color.DARK_GRAY);
+
+        // Board panel
+        board = new Board(randomizerType, boardSize);
+        board.setBackground(Color.BLACK);
+        board.setMinimumSize(new Dimension(300, 600));
+        board.setPreferredSize(new Dimension(480, 960));
+
+        // Instructions panel (middle)
+        JPanel instructionsPanel = new JPanel();
+        instructionsPanel.setLayout(new BoxLayout(instructionsPanel, BoxLayout.Y_AXIS));
+        instructionsPanel.setBackground(new Color(25, 25, 25));
+        instructionsPanel.setBorder(BorderFactory.createEmptyBorder(40, 30, 40, 30));
+        instructionsPanel.setMinimumSize(new Dimension(250, 200));
+        instructionsPanel.setPreferredSize(new Dimension(300, 400));
+
+        JLabel title = new JLabel("How to Play");
+        title.setForeground(Color.ORANGE);
+        title.setFont(new Font("Arial", Font.BOLD, 24));
+        title.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        JTextArea instructions = new JTextArea(
+            """
+            Press 'S' to Start or Restart
+
+            Controls:
+            - Left/Right Arrow or A/D: Move
+            - Down Arrow or S: Soft Drop
+            - Up Arrow or W: Rotate Right
+            - Z: Rotate Left
+            - Space: Hard Drop
+            - P: Pause/Resume
+            - B: Toggle Bot
+
+            Clear lines for points!
+            """
+        );
+        instructions.setEditable(false);
+        instructions.setFocusable(false);
+        instructions.setOpaque(false);
+        instructions.setForeground(Color.WHITE);
+        instructions.setFont(new Font("Arial", Font.PLAIN, 16));
+        instructions.setAlignmentX(Component.CENTER_ALIGNMENT);
+        instructions.setLineWrap(true);
+        instructions.setWrapStyleWord(true);
+
+        instructionsPanel.add(title);
+        instructionsPanel.add(Box.createVerticalStrut(20));
+        instructionsPanel.add(instructions);
+        instructionsPanel.add(Box.createVerticalGlue());
+
+        // Side panel for next shape and score (right)
+        JPanel sidePanel = new JPanel();
+        sidePanel.setLayout(new BoxLayout(sidePanel, BoxLayout.Y_AXIS));
+        sidePanel.setBackground(new Color(30, 30, 30));
+        sidePanel.setBorder(BorderFactory.createEmptyBorder(40, 20, 40, 20));
+        sidePanel.setMinimumSize(new Dimension(180, 200));
+        sidePanel.setPreferredSize(new Dimension(200, 400));
+
+        scoreLabel = new JLabel("Score: 0");
+        scoreLabel.setForeground(Color.WHITE);
+        scoreLabel.setFont(new Font("Arial", Font.BOLD, 22));
+        scoreLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        linesLabel = new JLabel("Lines: 0");
+        linesLabel.setForeground(Color.WHITE);
+        linesLabel.setFont(new Font("Arial", Font.PLAIN, 18));
+        linesLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        sidePanel.add(scoreLabel);
+        sidePanel.add(Box.createVerticalStrut(10));
+        sidePanel.add(linesLabel);
+        sidePanel.add(Box.createVerticalStrut(40));
+
+        nextPanel = new NextPanel();
+        nextPanel.setPreferredSize(new Dimension(140, 140));
+        nextPanel.setMinimumSize(new Dimension(100, 100));
+        nextPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        nextPanel.setBackground(new Color(40, 40, 40));
+        nextPanel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(Color.GRAY, 1), "Next", 0, 0, new Font("Arial", Font.BOLD, 14), Color.LIGHT_GRAY
+        ));
+        sidePanel.add(nextPanel);
+
+        sidePanel.add(Box.createVerticalGlue());
+
+        // Layout constraints for board, instructions, and side panel
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.gridy = 0;
+        gbc.insets = new Insets(0, 0, 0, 0);
+        gbc.anchor = GridBagConstraints.CENTER;
+
+        // Board: take as much space as possible (left)
+        gbc.gridx = 0;
+        gbc.weightx = 1.0;
+        gbc.fill = GridBagConstraints.BOTH;
+        mainPanel.add(board, gbc);
+
+        // Instructions panel (middle)
+        gbc.gridx = 1;
+        gbc.weightx = 0;
+        gbc.fill = GridBagConstraints.VERTICAL;
+        mainPanel.add(instructionsPanel, gbc);
+
+        // Side panel: fixed width, fill vertically (right)
+        gbc.gridx = 2;
+        gbc.weightx = 0;
+        gbc.fill = GridBagConstraints.VERTICAL;
+        mainPanel.add(sidePanel, gbc);
+
+        setContentPane(mainPanel);
+
+        setTitle("Simple Tetris");
+        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        setExtendedState(JFrame.MAXIMIZED_BOTH); // Start maximized
+        setMinimumSize(new Dimension(800, 600));
+        setLocationRelativeTo(null);
+        setResizable(true);
+
+        addComponentListener(new java.awt.event.ComponentAdapter() {
+            public void componentResized(java.awt.event.ComponentEvent evt) {
+                board.updateCellSize();
+                board.repaint();
+                nextPanel.repaint();
+            }
+        });
+    }
+
+    public void updateScoreAndLines(int score, int lines) {
+        scoreLabel.setText("Score: " + score);
+        linesLabel.setText("Lines: " + lines);
+    }
+
+    // Called on the EDT at most once per tick, with only the latest event of each type.
+    private void gameEvent(GameEvent event) {
+        switch (event) {
+            case GameEvent.GameStarted e -> updateScoreAndLines(e.score(), e.lines());
+            case GameEvent.ScoreChanged e -> scoreLabel.setText("Score: " + e.score());
+            case GameEvent.LinesCleared e -> linesLabel.setText("Lines: " + e.totalLines());
+            case GameEvent.PieceSpawned e -> nextPanel.setNextShape(e.next());
+            default -> {
+            }
+        }
+    }
+
+    public NextPanel getNextPanel() {
+        return nextPanel;
+    }
+
+    public int getCellSize() {
+        return 0;
+    }
+
+    /**
+     * Options: --randomizer uniform|bag, --record DIR (save a replay of every game),
+     * --metrics FILE (append timing metrics every 10 seconds; they are always on JMX),
+     * --das MS and --arr MS (auto-shift delay and repeat interval for held keys),
+     * --board WIDTHxHEIGHT (playfield size, default 10x20),
+     * --spectators PORT (stream the game to spectators on that port),
+     * --checkpoint FILE (resume the game saved there and keep saving it) with
+     * --checkpoint-every N (pieces between saves, default 10),
+     * --scores FILE|none (leaderboard log, default ~/.tetris/scores.log),
+     * --render passive|active (Swing repaints, the default, or a page-flipped canvas
+     * drawn by its own thread) with --fps N (active frame rate, default the display's
+     * refresh rate) and --vsync (sync with the display after every active frame),
+     * or --verify-replays FILE|DIR... to re-run recorded games headless,
+     * or --export-replays [options] FILE|DIR... to render them to video frames (see ReplayExporter),
+     * or --simulate [options] to play a batch of bot games (see BatchRunner),
+     * or --vector-env [options] to benchmark the lockstep training environment (see VectorEnv),
+     * or --tune [options] to evolve bot heuristic weights (see HeuristicTuner),
+     * or --perft [options] to count and time reachable placements (see PlacementPerft),
+     * or --server [options] to host versus games (see VersusServer),
+     * or --load-client [options] to load-test a server (see VersusLoadClient),
+     * or --watch [options] to connect headless spectators (see SpectatorClient),
+     * or --leaderboard [options] to query the score log (see ScoreLog).
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--verify-replays")) {
+            ReplayPlayer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--export-replays")) {
+            ReplayExporter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--simulate")) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--vector-env")) {
+            VectorEnv.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--tune")) {
+            HeuristicTuner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--perft")) {
+            PlacementPerft.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            VersusServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--load-client")) {
+            VersusLoadClient.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--leaderboard")) {
+            ScoreLog.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--watch")) {
+            SpectatorClient.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        RandomizerType randomizerType = RandomizerType.UNIFORM;
+        Path replayDirectory = null;
+        Path metricsFile = null;
+        int dasTicks = AutoRepeat.DEFAULT_DAS_TICKS;
+        int arrTicks = AutoRepeat.DEFAULT_ARR_TICKS;
+        BoardSize boardSize = BoardSize.DEFAULT;
+        int spectatorPort = -1;
+        Path checkpointFile = null;
+        int checkpointEvery = 10;
+        String scoresFile = ScoreLog.defaultFile().toString();
+        boolean activeRendering = false;
+        int fps = 0;
+        boolean vsync = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--randomizer" -> randomizerType = RandomizerType.parse(args[++i]);
+                case "--record" -> replayDirectory = Paths.get(args[++i]);
+                case "--metrics" -> metricsFile = Paths.get(args[++i]);
+                case "--das" -> dasTicks = millisToTicks(args[++i]);
+                case "--arr" -> arrTicks = millisToTicks(args[++i]);
+                case "--board" -> boardSize = BoardSize.parse(args[++i]);
+                case "--spectators" -> spectatorPort = Integer.parseInt(args[++i]);
+                case "--checkpoint" -> checkpointFile = Paths.get(args[++i]);
+                case "--checkpoint-every" -> checkpointEvery = Integer.parseInt(args[++i]);
+                case "--scores" -> scoresFile = args[++i];
+                case "--render" -> activeRendering = parseRenderMode(args[++i]);
+                case "--fps" -> fps = Integer.parseInt(args[++i]);
+                case "--vsync" -> vsync = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        RandomizerType chosenRandomizer = randomizerType;
+        Path chosenReplayDirectory = replayDirectory;
+        Path chosenMetricsFile = metricsFile;
+        int chosenDas = dasTicks;
+        int chosenArr = arrTicks;
+        BoardSize chosenBoardSize = boardSize;
+        int chosenSpectatorPort = spectatorPort;
+        CheckpointFile checkpoint = checkpointFile == null ? null
+                : CheckpointFile.open(checkpointFile, randomizerType, boardSize, 1);
+        int chosenCheckpointEvery = checkpointEvery;
+        ScoreLog scoreLog = null;
+        if (!scoresFile.equals("none")) {
+            try {
+                scoreLog = ScoreLog.open(Paths.get(scoresFile), ScoreLog.DEFAULT_TOP);
+            } catch (IOException e) {
+                System.err.println("Could not open score log: " + e.getMessage());
+            }
+        }
+        ScoreLog chosenScoreLog = scoreLog;
+        boolean chosenActiveRendering = activeRendering;
+        int chosenFps = fps;
+        boolean chosenVsync = vsync;
+        EventQueue.invokeLater(() -> {
+            Tetris game = new Tetris(chosenRandomizer, chosenBoardSize, chosenReplayDirectory);
+            game.board.getLoop().setAutoRepeat(chosenDas, chosenArr);
+            if (chosenMetricsFile != null) {
+                game.board.getLoop().getMetrics().startDump(chosenMetricsFile, 10);
+            }
+            game.board.getLoop().setScoreLog(chosenScoreLog);
+            if (chosenActiveRendering) {
+                game.board.setActiveRendering(chosenFps, chosenVsync);
+            }
+            if (checkpoint != null) {
+                game.board.getLoop().setCheckpoint(checkpoint, chosenCheckpointEvery);
+                game.board.getLoop().postResume(checkpoint);
+            }
+            if (chosenSpectatorPort >= 0) {
+                GameLoop loop = game.board.getLoop();
+                try {
+                    SpectatorBroadcaster broadcaster = new SpectatorBroadcaster(chosenSpectatorPort, loop.latest());
+                    loop.addListener(broadcaster::publish);
+                    broadcaster.start();
+                } catch (IOException e) {
+                    System.err.println("Could not start spectator broadcast: " + e.getMessage());
+                }
+            }
+            game.setVisible(true);
+        });
+    }
+
+    private static boolean parseRenderMode(String mode) {
+        return switch (mode.toLowerCase()) {
+            case "active" -> true;
+            case "passive" -> false;
+            default -> throw new IllegalArgumentException("Unknown render mode: " + mode);
+        };
+    }
+
+    private static int millisToTicks(String millis) {
+        return (int) Math.round(Double.parseDouble(millis) * GameLoop.TICKS_PER_SECOND / 1000);
+    }
+
+    public static class NextPanel extends JPanel {
+        private Shape.PieceShape nextShape;
+
+        public void setNextShape(Shape.PieceShape shape) {
+            if (shape != nextShape) {
+                this.nextShape = shape;
+                repaint();
+            }
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (nextShape == null || nextShape == Shape.PieceShape.NoShape) return;
+            Shape.Orientation o = nextShape.getOrientation(0);
+
+            int cell = Math.min(getWidth(), getHeight()) / 5;
+            int offsetX = getWidth() / 2;
+            int offsetY = getHeight() / 2;
+
+            int shapeWidth = o.width * cell;
+            int shapeHeight = o.height * cell;
+            int baseX = offsetX - shapeWidth / 2 - o.minX * cell;
+            int baseY = offsetY - shapeHeight / 2 - o.minY * cell;
+
+            BufferedImage tile = SpriteCache.tiles(cell)[nextShape.ordinal()];
+            for (int i = 0; i < 4; i++) {
+                int x = o.getX(i);
+                int y = o.getY(i);
+                g.drawImage(tile, baseX + x * cell, baseY + y * cell, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package tetris;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size cache of search scores keyed by Zobrist hash. Memory is 20
+ * bytes per slot and never grows. Each slot holds one entry. A new entry
+ * replaces the old one if the old one was written by an earlier search
+ * generation or was searched no deeper (depth-preferred replacement).
+ *
+ * The table is shared by search threads without locks. Each slot stores
+ * key ^ score ^ meta next to the score and meta, so a torn write from a
+ * racing thread just looks like a miss instead of returning another
+ * position's score.
+ */
+public final class TranspositionTable {
+
+    private final long[] keys;
+    private final long[] scores;
+    // (generation + 1) << 8 | depth, so 0 marks an empty slot
+    private final int[] meta;
+    private final int mask;
+    private volatile int generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /** Creates a table with the given number of slots, rounded up to a power of two. */
+    public TranspositionTable(int slots) {
+        int size = Integer.highestOneBit(Math.max(2, slots - 1)) << 1;
+        keys = new long[size];
+        scores = new long[size];
+        meta = new int[size];
+        mask = size - 1;
+    }
+
+    /** Ages existing entries so the next search prefers its own results over theirs. */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /** Returns the stored score for the key if it was searched at least minDepth deep, else NaN. */
+    public double probe(long key, int minDepth) {
+        int slot = (int) key & mask;
+        long score = scores[slot];
+        int m = meta[slot];
+        if ((keys[slot] ^ score ^ m) == key && m != 0 && (m & 0xFF) >= minDepth) {
+            hits.increment();
+            return Double.longBitsToDouble(score);
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    public void store(long key, int depth, double score) {
+        int slot = (int) key & mask;
+        int old = meta[slot];
+        boolean sameSearch = (old >>> 8) == generation + 1;
+        if (sameSearch && (old & 0xFF) > depth && (keys[slot] ^ scores[slot] ^ old) != key) {
+            rejected.increment();
+            return;
+        }
+        long bits = Double.doubleToRawLongBits(score);
+        int m = (generation + 1) << 8 | (depth & 0xFF);
+        scores[slot] = bits;
+        meta[slot] = m;
+        keys[slot] = key ^ bits ^ m;
+        stores.increment();
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /** Stores skipped because the slot held a deeper entry from the current search. */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public double getHitRate() {
+        long h = getHits();
+        long total = h + getMisses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("slots=%d hits=%d misses=%d hitRate=%.1f%% stores=%d rejected=%d",
+                size(), getHits(), getMisses(), 100 * getHitRate(), getStores(), getRejected());
+    }
+}
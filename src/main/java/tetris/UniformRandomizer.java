@@ -0,0 +1,37 @@
+package tetris;
+
+import java.nio.ByteBuffer;
+
+/** Picks each piece independently with equal probability, like the original getRandomShape(). */
+public class UniformRandomizer implements PieceRandomizer {
+
+    private static final Shape.PieceShape[] PIECES = Shape.PieceShape.values();
+
+    private final SplitMix64 random;
+
+    public UniformRandomizer(long seed) {
+        random = new SplitMix64(seed);
+    }
+
+    @Override
+    public void reset(long seed) {
+        random.setSeed(seed);
+    }
+
+    @Override
+    public Shape.PieceShape next() {
+        return PIECES[random.nextInt(PIECES.length - 1) + 1];
+    }
+
+    @Override
+    public void writeState(ByteBuffer dst) {
+        dst.putLong(random.getState());
+        dst.putLong(0);
+    }
+
+    @Override
+    public void readState(ByteBuffer src) {
+        random.setSeed(src.getLong());
+        src.getLong();
+    }
+}
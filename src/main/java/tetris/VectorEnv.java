@@ -0,0 +1,379 @@
+package tetris;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Many games stepped in lockstep for reinforcement learning, gym style:
+ * {@link #reset(long[])} starts every game and {@link #step} applies one
+ * action to each of them, filling caller-owned reward and done arrays.
+ *
+ * State is kept struct-of-arrays: one int[] of row bitmasks holds every
+ * board back to back, and the falling piece, scores and flags are one
+ * primitive array each, indexed by game. Stepping and {@link #observe}
+ * allocate nothing. Each game draws pieces from its own {@link PieceRandomizer},
+ * so a game on seed S sees the same pieces as {@code GameEngine.start(S)}.
+ *
+ * The rules are the engine's, through the same {@link Bitboard} operations:
+ * pieces spawn at the top centre in orientation 0 and a spawn that does not
+ * fit ends the game; moves and rotations happen only if the piece fits;
+ * a piece that cannot fall locks, full rows are cleared and score
+ * 100/300/500/800 for 1-4 rows, and the next piece spawns. Actions are
+ * {@link InputAction} ordinals. Boards are at most {@link Bitboard#MAX_WIDTH}
+ * columns wide. Not thread-safe; give each training thread its own instance.
+ */
+public final class VectorEnv {
+
+    private static final Shape.PieceShape[] SHAPES = Shape.PieceShape.values();
+    private static final int LEFT = InputAction.MOVE_LEFT.ordinal();
+    private static final int RIGHT = InputAction.MOVE_RIGHT.ordinal();
+    private static final int ROTATE_RIGHT = InputAction.ROTATE_RIGHT.ordinal();
+    private static final int ROTATE_LEFT = InputAction.ROTATE_LEFT.ordinal();
+    private static final int HARD_DROP = InputAction.HARD_DROP.ordinal();
+
+    /** Number of distinct actions; valid actions are 0 to ACTIONS - 1. */
+    public static final int ACTIONS = InputAction.values().length;
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long[] SPREAD = new long[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            for (int bit = 0; bit < 8; bit++) {
+                SPREAD[b] |= (long) ((b >>> bit) & 1) << (8 * bit);
+            }
+        }
+    }
+
+    private final int envs;
+    private final BoardSize size;
+    private final int width;
+    private final int height;
+    private final int hiddenRows;
+    private final int observationSize;
+
+    // One entry per game; a game's board is rows[e * height .. (e + 1) * height).
+    private final int[] rows;
+    private final byte[] piece;
+    private final byte[] orientation;
+    private final byte[] next;
+    private final int[] pieceX;
+    private final int[] pieceY;
+    private final int[] score;
+    private final int[] lines;
+    private final int[] pieces;
+    private final boolean[] started;
+    private final PieceRandomizer[] randomizers;
+
+    public VectorEnv(int envs, RandomizerType randomizerType, BoardSize size) {
+        if (envs < 1) {
+            throw new IllegalArgumentException("Need at least one environment");
+        }
+        if (size.width() > Bitboard.MAX_WIDTH) {
+            throw new IllegalArgumentException("A " + size.width() + "-column board does not fit int row masks");
+        }
+        this.envs = envs;
+        this.size = size;
+        this.width = size.width();
+        this.height = size.totalHeight();
+        this.hiddenRows = size.hiddenRows();
+        this.observationSize = width * size.visibleHeight() + 3;
+        this.rows = new int[envs * height];
+        this.piece = new byte[envs];
+        this.orientation = new byte[envs];
+        this.next = new byte[envs];
+        this.pieceX = new int[envs];
+        this.pieceY = new int[envs];
+        this.score = new int[envs];
+        this.lines = new int[envs];
+        this.pieces = new int[envs];
+        this.started = new boolean[envs];
+        this.randomizers = new PieceRandomizer[envs];
+        for (int e = 0; e < envs; e++) {
+            randomizers[e] = randomizerType.create(0);
+        }
+    }
+
+    public int getEnvs() {
+        return envs;
+    }
+
+    public BoardSize getSize() {
+        return size;
+    }
+
+    /**
+     * Bytes per game written by {@link #observe}: the visible board row-major,
+     * 0 for empty, 1 for the stack and 2 for the falling piece, followed by
+     * the falling piece's PieceShape ordinal, its orientation and the next
+     * piece's ordinal.
+     */
+    public int getObservationSize() {
+        return observationSize;
+    }
+
+    /** Starts every game, game e on seeds[e]. */
+    public void reset(long[] seeds) {
+        checkLength(seeds.length);
+        for (int e = 0; e < envs; e++) {
+            reset(e, seeds[e]);
+        }
+    }
+
+    /** Starts game e over on the seed, e.g. once step() reported it done. */
+    public void reset(int e, long seed) {
+        PieceRandomizer randomizer = randomizers[e];
+        randomizer.reset(seed);
+        next[e] = (byte) randomizer.next().ordinal();
+        Arrays.fill(rows, e * height, (e + 1) * height, 0);
+        score[e] = 0;
+        lines[e] = 0;
+        pieces[e] = 0;
+        started[e] = true;
+        spawn(e);
+    }
+
+    /**
+     * Applies actions[e] to every running game. rewards[e] is the score the
+     * action earned and dones[e] is true once game e is over; games that are
+     * over ignore their action until they are reset.
+     */
+    public void step(int[] actions, float[] rewards, boolean[] dones) {
+        checkLength(actions.length);
+        checkLength(rewards.length);
+        checkLength(dones.length);
+        for (int e = 0; e < envs; e++) {
+            if (!started[e]) {
+                rewards[e] = 0;
+                dones[e] = true;
+                continue;
+            }
+            int before = score[e];
+            apply(e, actions[e]);
+            rewards[e] = score[e] - before;
+            dones[e] = !started[e];
+        }
+    }
+
+    /** Writes every game's observation, getObservationSize() bytes each, to dst from offset 0. */
+    public void observe(byte[] dst) {
+        if (dst.length < envs * observationSize) {
+            throw new IllegalArgumentException("Observation buffer needs " + envs * observationSize + " bytes");
+        }
+        for (int e = 0; e < envs; e++) {
+            int at = e * observationSize;
+            int base = e * height;
+            for (int y = hiddenRows; y < height; y++) {
+                int mask = rows[base + y];
+                int x = 0;
+                // Eight columns per store: SPREAD turns a byte of the mask into eight 0/1 bytes.
+                for (; x + 8 <= width; x += 8, at += 8) {
+                    LONGS.set(dst, at, SPREAD[(mask >>> x) & 0xFF]);
+                }
+                for (; x < width; x++, at++) {
+                    dst[at] = (byte) ((mask >>> x) & 1);
+                }
+            }
+            if (piece[e] != 0) {
+                Shape.Orientation o = SHAPES[piece[e]].getOrientation(orientation[e]);
+                int origin = e * observationSize - hiddenRows * width;
+                for (int i = 0; i < 4; i++) {
+                    int y = pieceY[e] + o.getY(i);
+                    if (y >= hiddenRows) {
+                        dst[origin + y * width + pieceX[e] + o.getX(i)] = 2;
+                    }
+                }
+            }
+            dst[at] = piece[e];
+            dst[at + 1] = orientation[e];
+            dst[at + 2] = next[e];
+        }
+    }
+
+    public int getScore(int e) {
+        return score[e];
+    }
+
+    public int getLines(int e) {
+        return lines[e];
+    }
+
+    public int getPiecesPlaced(int e) {
+        return pieces[e];
+    }
+
+    public boolean isDone(int e) {
+        return !started[e];
+    }
+
+    /** Row y of game e's landed stack as a bitmask, bit x for column x. */
+    public int getRowMask(int e, int y) {
+        return rows[e * height + y];
+    }
+
+    public Shape.PieceShape getPieceShape(int e) {
+        return SHAPES[piece[e]];
+    }
+
+    public int getOrientationIndex(int e) {
+        return orientation[e];
+    }
+
+    public int getPieceX(int e) {
+        return pieceX[e];
+    }
+
+    public int getPieceY(int e) {
+        return pieceY[e];
+    }
+
+    private void apply(int e, int action) {
+        if (action == LEFT) {
+            tryMove(e, orientation[e], pieceX[e] - 1, pieceY[e]);
+        } else if (action == RIGHT) {
+            tryMove(e, orientation[e], pieceX[e] + 1, pieceY[e]);
+        } else if (action == ROTATE_RIGHT) {
+            tryMove(e, SHAPES[piece[e]].rotatedRight(orientation[e]), pieceX[e], pieceY[e]);
+        } else if (action == ROTATE_LEFT) {
+            tryMove(e, SHAPES[piece[e]].rotatedLeft(orientation[e]), pieceX[e], pieceY[e]);
+        } else if (action == HARD_DROP) {
+            Shape.Orientation o = currentOrientation(e);
+            int y = pieceY[e];
+            while (fits(e, o, pieceX[e], y + 1)) {
+                y++;
+            }
+            pieceY[e] = y;
+            land(e);
+        } else if (action >= 0 && action < ACTIONS) {
+            // Soft drop and gravity both move down one row, locking the piece if it cannot fall.
+            if (!tryMove(e, orientation[e], pieceX[e], pieceY[e] + 1)) {
+                land(e);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown action " + action);
+        }
+    }
+
+    private boolean tryMove(int e, int newOrientation, int x, int y) {
+        if (!fits(e, SHAPES[piece[e]].getOrientation(newOrientation), x, y)) {
+            return false;
+        }
+        orientation[e] = (byte) newOrientation;
+        pieceX[e] = x;
+        pieceY[e] = y;
+        return true;
+    }
+
+    private boolean fits(int e, Shape.Orientation o, int x, int y) {
+        return Bitboard.fits(rows, e * height, width, height, o, x, y);
+    }
+
+    private Shape.Orientation currentOrientation(int e) {
+        return SHAPES[piece[e]].getOrientation(orientation[e]);
+    }
+
+    private void land(int e) {
+        Shape.Orientation o = currentOrientation(e);
+        int base = e * height;
+        Bitboard.place(rows, base, o, pieceX[e], pieceY[e]);
+        pieces[e]++;
+        int bottom = pieceY[e] + o.maxY;
+        int fullRow = width == 32 ? -1 : (1 << width) - 1;
+        // Only the rows the piece landed in can have become full.
+        for (int y = pieceY[e] + o.minY; y <= bottom; y++) {
+            if (rows[base + y] == fullRow) {
+                int cleared = Bitboard.clearFullRows(rows, base, width, bottom);
+                lines[e] += cleared;
+                score[e] += switch (cleared) {
+                    case 1 -> 100;
+                    case 2 -> 300;
+                    case 3 -> 500;
+                    default -> 800;
+                };
+                break;
+            }
+        }
+        spawn(e);
+    }
+
+    private void spawn(int e) {
+        Shape.PieceShape shape = SHAPES[next[e]];
+        next[e] = (byte) randomizers[e].next().ordinal();
+        piece[e] = (byte) shape.ordinal();
+        orientation[e] = 0;
+        pieceX[e] = GameEngine.spawnX(width);
+        pieceY[e] = GameEngine.spawnY(shape);
+        if (!fits(e, shape.getOrientation(0), pieceX[e], pieceY[e])) {
+            // Topped out, as GameEngine.topOut() does.
+            piece[e] = 0;
+            started[e] = false;
+        }
+    }
+
+    private void checkLength(int length) {
+        if (length != envs) {
+            throw new IllegalArgumentException("Expected one entry per environment (" + envs + "), got " + length);
+        }
+    }
+
+    /**
+     * Throughput benchmark with random actions, resetting finished games on
+     * new seeds. Options: --envs K (default 4096), --steps N per game
+     * (default 1000), --randomizer uniform|bag, --board WIDTHxHEIGHT, --seed S.
+     */
+    public static void main(String[] args) {
+        int envs = 4096;
+        int steps = 1000;
+        RandomizerType randomizerType = RandomizerType.SEVEN_BAG;
+        BoardSize boardSize = BoardSize.DEFAULT;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--envs" -> envs = Integer.parseInt(args[++i]);
+                case "--steps" -> steps = Integer.parseInt(args[++i]);
+                case "--randomizer" -> randomizerType = RandomizerType.parse(args[++i]);
+                case "--board" -> boardSize = BoardSize.parse(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        VectorEnv env = new VectorEnv(envs, randomizerType, boardSize);
+        long[] seeds = new long[envs];
+        for (int e = 0; e < envs; e++) {
+            seeds[e] = seed + e;
+        }
+        long nextSeed = seed + envs;
+        env.reset(seeds);
+        int[] actions = new int[envs];
+        float[] rewards = new float[envs];
+        boolean[] dones = new boolean[envs];
+        byte[] observations = new byte[envs * env.getObservationSize()];
+        SplitMix64 random = new SplitMix64(seed);
+        long games = 0;
+        double totalReward = 0;
+
+        long startNanos = System.nanoTime();
+        for (int s = 0; s < steps; s++) {
+            for (int e = 0; e < envs; e++) {
+                actions[e] = random.nextInt(ACTIONS);
+            }
+            env.step(actions, rewards, dones);
+            env.observe(observations);
+            for (int e = 0; e < envs; e++) {
+                totalReward += rewards[e];
+                if (dones[e]) {
+                    games++;
+                    env.reset(e, nextSeed++);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long total = (long) envs * steps;
+        System.out.printf("%d envs x %d steps in %.2f s: %.0f steps/s with observations%n",
+                envs, steps, seconds, total / seconds);
+        System.out.printf("%d games finished, %.0f reward%n", games, totalReward);
+    }
+}
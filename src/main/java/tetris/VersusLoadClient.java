@@ -0,0 +1,134 @@
+package tetris;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for {@link VersusServer}. Opens many sessions on virtual
+ * threads, each pressing random keys at a fixed rate and reading every frame
+ * the server sends, and joins a new match whenever one ends. Run it next to
+ * the server's own report to read off sessions per core.
+ */
+public final class VersusLoadClient {
+
+    private static final InputAction[] KEYS = {
+            InputAction.MOVE_LEFT, InputAction.MOVE_RIGHT, InputAction.ROTATE_RIGHT,
+            InputAction.ROTATE_LEFT, InputAction.SOFT_DROP, InputAction.HARD_DROP
+    };
+
+    private final String host;
+    private final int port;
+    private final double inputsPerSecond;
+    private final long deadlineNanos;
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder inputs = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private VersusLoadClient(String host, int port, double inputsPerSecond, long deadlineNanos) {
+        this.host = host;
+        this.port = port;
+        this.inputsPerSecond = inputsPerSecond;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    private void session(long seed) {
+        SplitMix64 random = new SplitMix64(seed);
+        byte[] buffer = new byte[VersusProtocol.MAX_PAYLOAD];
+        while (System.nanoTime() - deadlineNanos < 0) {
+            try (Socket socket = new Socket(host, port)) {
+                socket.setTcpNoDelay(true);
+                Thread presser = Thread.ofVirtual().start(() -> press(socket, random.nextLong()));
+                try {
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1024));
+                    int type;
+                    do {
+                        type = VersusProtocol.readFrame(in, buffer);
+                        frames.increment();
+                    } while (type != VersusProtocol.END);
+                    matches.increment();
+                } finally {
+                    presser.interrupt();
+                }
+            } catch (IOException e) {
+                // Quitting at the deadline closes the socket mid-match; anything earlier is a failure.
+                if (System.nanoTime() - deadlineNanos < 0) {
+                    failures.increment();
+                    LockSupport.parkNanos(100_000_000L);
+                }
+            }
+        }
+    }
+
+    private void press(Socket socket, long seed) {
+        SplitMix64 random = new SplitMix64(seed);
+        long period = (long) (1e9 / inputsPerSecond);
+        try {
+            OutputStream out = socket.getOutputStream();
+            // Stagger the sessions so they do not all send on the same tick.
+            LockSupport.parkNanos(random.nextInt((int) Math.min(period, Integer.MAX_VALUE)));
+            while (!Thread.currentThread().isInterrupted() && System.nanoTime() - deadlineNanos < 0) {
+                out.write(KEYS[random.nextInt(KEYS.length)].ordinal());
+                inputs.increment();
+                LockSupport.parkNanos(period);
+            }
+            out.write(VersusProtocol.QUIT);
+        } catch (IOException e) {
+            // The match ended and the server closed the socket.
+        }
+    }
+
+    /**
+     * Options: --host H (default localhost), --port P (default 7777),
+     * --sessions N (default 1000), --seconds S (default 30),
+     * --rate R (inputs per second per session, default 5).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String host = "localhost";
+        int port = VersusProtocol.DEFAULT_PORT;
+        int sessions = 1000;
+        long seconds = 30;
+        double rate = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host" -> host = args[++i];
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--sessions" -> sessions = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Long.parseLong(args[++i]);
+                case "--rate" -> rate = Double.parseDouble(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        long startCpu = VersusProtocol.processCpuNanos();
+        VersusLoadClient client = new VersusLoadClient(host, port, rate, startNanos + seconds * 1_000_000_000L);
+        List<Thread> threads = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            long seed = i;
+            threads.add(Thread.ofVirtual().start(() -> client.session(seed)));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double wall = (System.nanoTime() - startNanos) / 1e9;
+        long cpu = VersusProtocol.processCpuNanos();
+
+        System.out.printf("sessions        %d (%s:%d, %.1f inputs/s each)%n", sessions, host, port, rate);
+        System.out.printf("matches         %d finished, %d connection failures%n",
+                client.matches.sum(), client.failures.sum());
+        System.out.printf("frames/s        %.0f%n", client.frames.sum() / wall);
+        System.out.printf("inputs/s        %.0f%n", client.inputs.sum() / wall);
+        if (cpu >= 0) {
+            System.out.printf("client cpu      %.2f cores%n", (cpu - startCpu) / 1e9 / wall);
+        }
+    }
+}
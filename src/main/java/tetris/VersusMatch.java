@@ -0,0 +1,162 @@
+package tetris;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One authoritative two-player game. A virtual ticker thread runs both
+ * engines at the same fixed 60 Hz step as {@link GameLoop}, applies the
+ * players' queued inputs and gravity, and sends each player their own state
+ * plus the opponent's board. Line clears push garbage rows under the
+ * opponent's stack; the first player to top out or disconnect loses.
+ */
+final class VersusMatch implements Runnable {
+
+    // Garbage rows sent for clearing 0..4 lines at once.
+    private static final int[] GARBAGE_FOR_LINES = {0, 0, 1, 2, 4};
+    private static final int MAX_CATCH_UP_TICKS = 10;
+
+    private final Player[] players;
+    private final long seed;
+    private final SplitMix64 holes;
+    private final VersusServer server;
+    private long tick;
+
+    private static final class Player {
+        final VersusSession session;
+        final GameEngine engine;
+        int gravityCounter;
+        boolean stateChanged;
+        boolean boardChanged;
+        boolean lost;
+        Player opponent;
+
+        Player(VersusSession session) {
+            this.session = session;
+            this.engine = new GameEngine(RandomizerType.SEVEN_BAG.create(0));
+        }
+    }
+
+    VersusMatch(VersusSession first, VersusSession second, long seed, VersusServer server) {
+        this.players = new Player[]{new Player(first), new Player(second)};
+        players[0].opponent = players[1];
+        players[1].opponent = players[0];
+        this.seed = seed;
+        this.holes = new SplitMix64(seed);
+        this.server = server;
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (Player p : players) {
+                p.engine.start(seed);
+                VersusProtocol.writeStart(p.session.out(), seed, p.engine.getSize());
+                p.stateChanged = true;
+                p.boardChanged = true;
+            }
+            long next = System.nanoTime();
+            while (tick()) {
+                next += GameLoop.TICK_NANOS;
+                long now = System.nanoTime();
+                if (now - next > MAX_CATCH_UP_TICKS * GameLoop.TICK_NANOS) {
+                    next = now;
+                }
+                LockSupport.parkNanos(next - now);
+            }
+        } catch (IOException e) {
+            // Frames are written to memory and sent by each session's writer, so this cannot happen.
+        } finally {
+            finish();
+        }
+    }
+
+    /** Advances both games one step; returns false once the match is decided. */
+    private boolean tick() throws IOException {
+        tick++;
+        server.ticks.increment();
+        for (Player p : players) {
+            if (p.session.isClosed()) {
+                return false;
+            }
+            InputAction action;
+            while (!p.lost && (action = p.session.pollInput()) != null) {
+                perform(p, action);
+            }
+            if (!p.lost && ++p.gravityCounter >= GameLoop.GRAVITY_TICKS) {
+                p.gravityCounter = 0;
+                perform(p, InputAction.GRAVITY);
+            }
+        }
+        for (Player p : players) {
+            send(p);
+        }
+        for (Player p : players) {
+            p.boardChanged = false;
+            p.session.flush();
+        }
+        return !players[0].lost && !players[1].lost;
+    }
+
+    private void perform(Player p, InputAction action) throws IOException {
+        GameEngine engine = p.engine;
+        int x = engine.getCurPieceX();
+        int y = engine.getCurPieceY();
+        int orientation = engine.getCurrentPiece().getOrientationIndex();
+        int lines = engine.getNumLinesRemoved();
+        if (action.apply(engine)) {
+            p.boardChanged = true;
+            int garbage = GARBAGE_FOR_LINES[Math.min(engine.getNumLinesRemoved() - lines, 4)];
+            Player opponent = p.opponent;
+            if (garbage > 0 && !opponent.lost) {
+                if (!opponent.engine.addGarbage(garbage, holes.nextInt(opponent.engine.getWidth()))) {
+                    opponent.lost = true;
+                }
+                opponent.boardChanged = true;
+                opponent.stateChanged = true;
+                VersusProtocol.writeGarbage(opponent.session.out(), garbage);
+            }
+            if (!engine.isStarted()) {
+                p.lost = true;
+            }
+        }
+        p.stateChanged |= p.boardChanged || x != engine.getCurPieceX() || y != engine.getCurPieceY()
+                || orientation != engine.getCurrentPiece().getOrientationIndex();
+    }
+
+    private void send(Player p) throws IOException {
+        DataOutputStream out = p.session.out();
+        if (p.stateChanged) {
+            p.stateChanged = false;
+            VersusProtocol.writeState(out, tick, p.engine);
+        }
+        if (p.boardChanged) {
+            VersusProtocol.writeBoard(out, VersusProtocol.BOARD, p.engine);
+            VersusProtocol.writeBoard(p.opponent.session.out(), VersusProtocol.OPP_BOARD, p.engine);
+        }
+    }
+
+    private void finish() {
+        for (Player p : players) {
+            if (p.session.isClosed()) {
+                p.lost = true;
+            }
+        }
+        for (Player p : players) {
+            int result = p.lost == p.opponent.lost ? VersusProtocol.DRAW
+                    : p.lost ? VersusProtocol.LOSS : VersusProtocol.WIN;
+            if (!p.session.isClosed()) {
+                try {
+                    VersusProtocol.writeEnd(p.session.out(), result);
+                } catch (IOException e) {
+                    // Nothing left to tell a closed client.
+                }
+                p.session.finish();
+            } else {
+                p.session.close();
+            }
+        }
+        server.matchFinished();
+    }
+}
@@ -0,0 +1,109 @@
+package tetris;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * Wire format between {@link VersusServer} and its clients. The server sends
+ * frames of a type byte, an unsigned short payload length and the payload.
+ * Clients send one byte per input: an {@link InputAction} ordinal below
+ * GRAVITY, or {@link #QUIT}.
+ */
+final class VersusProtocol {
+
+    static final int DEFAULT_PORT = 7777;
+    static final int MAX_PAYLOAD = 4096;
+
+    /** seed (long), width, total height */
+    static final int START = 1;
+    /** tick (int), piece, orientation, x, y, score (int), lines (int), next piece */
+    static final int STATE = 2;
+    /** One int row mask per board row, top first: the player's own stack. */
+    static final int BOARD = 3;
+    /** Same as BOARD, for the opponent's stack. */
+    static final int OPP_BOARD = 4;
+    /** Number of garbage rows just pushed under the player's stack. */
+    static final int GARBAGE = 5;
+    /** WIN, LOSS or DRAW; the server closes the connection afterwards. */
+    static final int END = 6;
+
+    static final int WIN = 0;
+    static final int LOSS = 1;
+    static final int DRAW = 2;
+
+    static final int QUIT = 0xFF;
+
+    private VersusProtocol() {
+    }
+
+    static void writeStart(DataOutputStream out, long seed, BoardSize size) throws IOException {
+        header(out, START, 10);
+        out.writeLong(seed);
+        out.writeByte(size.width());
+        out.writeByte(size.totalHeight());
+    }
+
+    static void writeState(DataOutputStream out, long tick, GameEngine engine) throws IOException {
+        Shape piece = engine.getCurrentPiece();
+        header(out, STATE, 17);
+        out.writeInt((int) tick);
+        out.writeByte(piece.getPieceShape().ordinal());
+        out.writeByte(piece.getOrientationIndex());
+        out.writeByte(engine.getCurPieceX());
+        out.writeByte(engine.getCurPieceY());
+        out.writeInt(engine.getScore());
+        out.writeInt(engine.getNumLinesRemoved());
+        out.writeByte(engine.getNextPiece().getPieceShape().ordinal());
+    }
+
+    static void writeBoard(DataOutputStream out, int type, GameEngine engine) throws IOException {
+        int height = engine.getTotalHeight();
+        header(out, type, 4 * height);
+        for (int y = 0; y < height; y++) {
+            out.writeInt(engine.getRowMask(y));
+        }
+    }
+
+    static void writeGarbage(DataOutputStream out, int count) throws IOException {
+        header(out, GARBAGE, 1);
+        out.writeByte(count);
+    }
+
+    static void writeEnd(DataOutputStream out, int result) throws IOException {
+        header(out, END, 1);
+        out.writeByte(result);
+    }
+
+    /** Reads one frame's payload into buffer and returns its type. */
+    static int readFrame(DataInputStream in, byte[] buffer) throws IOException {
+        int type = in.readUnsignedByte();
+        int length = in.readUnsignedShort();
+        if (length > buffer.length) {
+            throw new IOException("Frame too large: " + length);
+        }
+        in.readFully(buffer, 0, length);
+        return type;
+    }
+
+    /** Input byte from a client, or null if it is not a player action. */
+    static InputAction decodeInput(int code) {
+        return code >= 0 && code < InputAction.GRAVITY.ordinal() ? InputAction.fromCode(code) : null;
+    }
+
+    /** CPU time used by this process so far, or -1 if the JVM does not report it. */
+    static long processCpuNanos() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sun) {
+            return sun.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private static void header(DataOutputStream out, int type, int length) throws IOException {
+        out.writeByte(type);
+        out.writeShort(length);
+    }
+}
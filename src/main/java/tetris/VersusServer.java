@@ -0,0 +1,129 @@
+package tetris;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless versus server. Every connection gets a virtual thread that reads
+ * its inputs, and every match gets a virtual thread that runs the rules, so
+ * thousands of sessions cost a few kilobytes each rather than a platform
+ * thread each. Connections are paired in arrival order.
+ */
+public final class VersusServer {
+
+    private final int port;
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicInteger matches = new AtomicInteger();
+    private final LongAdder matchesFinished = new LongAdder();
+    final LongAdder ticks = new LongAdder();
+
+    // Guarded by this
+    private VersusSession waiting;
+
+    public VersusServer(int port) {
+        this.port = port;
+    }
+
+    /** Accepts connections until the thread is interrupted or the socket fails. */
+    public void serve() throws IOException {
+        try (ServerSocket server = new ServerSocket()) {
+            server.setReuseAddress(true);
+            server.bind(new InetSocketAddress(port), 4096);
+            System.out.println("Versus server listening on port " + server.getLocalPort());
+            while (!Thread.currentThread().isInterrupted()) {
+                Socket socket = server.accept();
+                Thread.ofVirtual().start(() -> connect(socket));
+            }
+        }
+    }
+
+    private void connect(Socket socket) {
+        VersusSession session;
+        try {
+            session = new VersusSession(socket);
+        } catch (IOException e) {
+            return;
+        }
+        sessions.incrementAndGet();
+        try {
+            pair(session);
+            session.readInputs();
+        } finally {
+            synchronized (this) {
+                if (waiting == session) {
+                    waiting = null;
+                }
+            }
+            sessions.decrementAndGet();
+        }
+    }
+
+    private void pair(VersusSession session) {
+        VersusSession opponent;
+        synchronized (this) {
+            opponent = waiting;
+            if (opponent == null || opponent.isClosed()) {
+                waiting = session;
+                return;
+            }
+            waiting = null;
+        }
+        matches.incrementAndGet();
+        long seed = ThreadLocalRandom.current().nextLong();
+        Thread.ofVirtual().name("versus-match").start(new VersusMatch(opponent, session, seed, this));
+    }
+
+    void matchFinished() {
+        matches.decrementAndGet();
+        matchesFinished.increment();
+    }
+
+    /** Prints load figures every interval until the thread is interrupted. */
+    private void reportEvery(long seconds) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long lastNanos = System.nanoTime();
+        long lastCpu = VersusProtocol.processCpuNanos();
+        long lastTicks = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(seconds * 1_000_000_000L);
+            long now = System.nanoTime();
+            long cpu = VersusProtocol.processCpuNanos();
+            long totalTicks = ticks.sum();
+            double wall = (now - lastNanos) / 1e9;
+            // Busy cores over the interval; sessions per core extrapolates the current load to a full core.
+            double busy = lastCpu < 0 ? Double.NaN : (cpu - lastCpu) / 1e9 / wall;
+            int active = sessions.get();
+            System.out.printf("sessions %d  matches %d (%d finished)  ticks/s %.0f  cpu %.2f of %d cores"
+                            + "  sessions/core %.0f%n", active, matches.get(), matchesFinished.sum(),
+                    (totalTicks - lastTicks) / wall, busy, cores, busy > 0 ? active / busy : 0);
+            lastNanos = now;
+            lastCpu = cpu;
+            lastTicks = totalTicks;
+        }
+    }
+
+    /** Options: --port P (default 7777), --stats SECONDS (report interval, default 5). */
+    public static void main(String[] args) throws IOException {
+        int port = VersusProtocol.DEFAULT_PORT;
+        long statsSeconds = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--stats" -> statsSeconds = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        VersusServer server = new VersusServer(port);
+        long interval = statsSeconds;
+        Thread reporter = new Thread(() -> server.reportEvery(interval), "versus-stats");
+        reporter.setDaemon(true);
+        reporter.start();
+        server.serve();
+    }
+}
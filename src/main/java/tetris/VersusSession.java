@@ -0,0 +1,136 @@
+package tetris;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One client connection. Its virtual thread reads input bytes into a small
+ * bounded queue; the match's ticker drains the queue. Inputs that arrive
+ * while the queue is full are dropped, so a flooding client cannot grow the
+ * server's memory.
+ *
+ * The ticker writes into memory and never touches the socket: each flush
+ * hands the tick's bytes to a bounded frame queue that the session's own
+ * virtual writer thread sends. A client that stops reading blocks only its
+ * writer; once a second of frames is queued it is disconnected, so it can
+ * never stall the match.
+ */
+final class VersusSession {
+
+    private static final int INPUT_CAPACITY = 32;
+    private static final int BUFFER_SIZE = 1024;
+    private static final int MAX_QUEUED_FRAMES = GameLoop.TICKS_PER_SECOND;
+    // How long a finished session may take to send its last frames before it is closed anyway.
+    private static final long LINGER_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final Socket socket;
+    private final OutputStream socketOut;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(BUFFER_SIZE);
+    private final DataOutputStream out = new DataOutputStream(pending);
+    private final ArrayBlockingQueue<byte[]> frames = new ArrayBlockingQueue<>(MAX_QUEUED_FRAMES);
+    private final ArrayBlockingQueue<InputAction> inputs = new ArrayBlockingQueue<>(INPUT_CAPACITY);
+    private final Thread writer;
+    private volatile boolean closed;
+
+    VersusSession(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.socketOut = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+        this.writer = Thread.ofVirtual().name("versus-writer").start(this::writeFrames);
+    }
+
+    // Sends queued frames, flushing the socket whenever the queue runs dry.
+    private void writeFrames() {
+        try {
+            byte[] frame;
+            while ((frame = frames.take()) != END_OF_STREAM) {
+                socketOut.write(frame);
+                if (frames.isEmpty()) {
+                    socketOut.flush();
+                }
+            }
+            socketOut.flush();
+        } catch (IOException | InterruptedException e) {
+            // Closed, or the client went away.
+        } finally {
+            close();
+        }
+    }
+
+    /** Reads inputs until the client quits or the connection closes. */
+    void readInputs() {
+        try (InputStream in = new BufferedInputStream(socket.getInputStream(), 256)) {
+            int code;
+            while (!closed && (code = in.read()) >= 0 && code != VersusProtocol.QUIT) {
+                InputAction action = VersusProtocol.decodeInput(code);
+                if (action != null) {
+                    inputs.offer(action);
+                }
+            }
+        } catch (IOException e) {
+            // Treated like a disconnect.
+        } finally {
+            close();
+        }
+    }
+
+    InputAction pollInput() {
+        return inputs.poll();
+    }
+
+    /** Only called from the match ticker; writes go to memory until flush(). */
+    DataOutputStream out() {
+        return out;
+    }
+
+    /**
+     * Queues everything written since the last flush for the writer thread
+     * without blocking; a client too far behind to take it is disconnected.
+     */
+    void flush() {
+        if (pending.size() > 0 && !closed && !frames.offer(pending.toByteArray())) {
+            close();
+        }
+        pending.reset();
+    }
+
+    /** Flushes, then closes once the writer has sent everything, or after a short linger. */
+    void finish() {
+        flush();
+        if (closed || !frames.offer(END_OF_STREAM)) {
+            close();
+            return;
+        }
+        Thread.ofVirtual().start(() -> {
+            LockSupport.parkNanos(LINGER_NANOS);
+            close();
+        });
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone.
+        }
+        Thread w = writer;
+        if (w != null && w != Thread.currentThread()) {
+            w.interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package tetris;
+
+/**
+ * Zobrist keys for a row-mask playfield plus the active piece. Each cell
+ * has a random 64-bit key and a board hashes to the XOR of its occupied
+ * cells' keys. The keys are folded into a 256-entry table per byte of each
+ * row, so hashing costs one lookup per occupied byte instead of one per cell.
+ */
+public final class Zobrist {
+
+    private static final int BYTES_PER_ROW = 4;
+
+    private final int width;
+    private final int height;
+    // [row][byte of row][byte value]
+    private final long[][][] rowTables;
+    // [shape][orientation][x + 2][y + 2]
+    private final long[][][][] pieceKeys;
+
+    public Zobrist(int width, int height, long seed) {
+        if (width > 8 * BYTES_PER_ROW) {
+            throw new IllegalArgumentException("Zobrist hashing supports boards up to 32 columns");
+        }
+        this.width = width;
+        this.height = height;
+        SplitMix64 random = new SplitMix64(seed);
+
+        rowTables = new long[height][BYTES_PER_ROW][256];
+        for (int y = 0; y < height; y++) {
+            long[] cellKeys = new long[width];
+            for (int x = 0; x < width; x++) {
+                cellKeys[x] = random.nextLong();
+            }
+            for (int b = 0; b < BYTES_PER_ROW; b++) {
+                for (int v = 1; v < 256; v++) {
+                    long key = 0;
+                    for (int bit = 0; bit < 8; bit++) {
+                        int x = b * 8 + bit;
+                        if ((v & (1 << bit)) != 0 && x < width) {
+                            key ^= cellKeys[x];
+                        }
+                    }
+                    rowTables[y][b][v] = key;
+                }
+            }
+        }
+
+        Shape.PieceShape[] shapes = Shape.PieceShape.values();
+        pieceKeys = new long[shapes.length][][][];
+        for (Shape.PieceShape shape : shapes) {
+            pieceKeys[shape.ordinal()] = new long[shape.getOrientationCount()][width + 4][height + 4];
+            for (long[][] byX : pieceKeys[shape.ordinal()]) {
+                for (long[] byY : byX) {
+                    for (int y = 0; y < byY.length; y++) {
+                        byY[y] = random.nextLong();
+                    }
+                }
+            }
+        }
+    }
+
+    public long hashRows(int[] rows) {
+        long hash = 0;
+        for (int y = 0; y < height; y++) {
+            int row = rows[y];
+            if (row == 0) {
+                continue;
+            }
+            long[][] tables = rowTables[y];
+            for (int b = 0; row != 0; b++, row >>>= 8) {
+                hash ^= tables[b][row & 0xFF];
+            }
+        }
+        return hash;
+    }
+
+    /** Hash of one row's cells; XOR out a row's old value and in its new one to update a board hash. */
+    public long hashRow(int y, int row) {
+        long hash = 0;
+        long[][] tables = rowTables[y];
+        for (int b = 0; row != 0; b++, row >>>= 8) {
+            hash ^= tables[b][row & 0xFF];
+        }
+        return hash;
+    }
+
+    /** Key of the active piece; XOR it into a board hash to key board-plus-piece positions. */
+    public long pieceKey(Shape.PieceShape shape, int orientation, int x, int y) {
+        return pieceKeys[shape.ordinal()][orientation][x + 2][y + 2];
+    }
+
+    public long hash(GameEngine engine) {
+        int[] rows = new int[height];
+        engine.copyRows(rows);
+        Shape piece = engine.getCurrentPiece();
+        return hashRows(rows)
+                ^ pieceKey(piece.getPieceShape(), piece.getOrientationIndex(), engine.getCurPieceX(), engine.getCurPieceY());
+    }
+
+    public int getWidth() {
+        return width;
+    }
+}
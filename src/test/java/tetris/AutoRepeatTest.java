@@ -0,0 +1,130 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AutoRepeatTest {
+
+    private final AutoRepeat autoRepeat = new AutoRepeat();
+    // "tick:ACTION" for every action the repeat tried to apply
+    private final List<String> performed = new ArrayList<>();
+    private int tick;
+    // Moves left before the piece hits the wall
+    private int room = Integer.MAX_VALUE;
+
+    private void run(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick++;
+            autoRepeat.tick(action -> {
+                performed.add(tick + ":" + action);
+                return room-- > 0;
+            });
+        }
+    }
+
+    private static List<String> at(InputAction action, int... ticks) {
+        List<String> expected = new ArrayList<>();
+        for (int t : ticks) {
+            expected.add(t + ":" + action);
+        }
+        return expected;
+    }
+
+    @Test
+    void heldKeyRepeatsAtDasThenEveryArr() {
+        autoRepeat.configure(10, 3);
+        assertEquals(InputAction.MOVE_LEFT, autoRepeat.press(InputBuffer.Key.LEFT));
+        run(9);
+        assertEquals(List.of(), performed);
+        run(13);
+        assertEquals(at(InputAction.MOVE_LEFT, 10, 13, 16, 19, 22), performed);
+    }
+
+    @Test
+    void defaultsCountWholeTicks() {
+        autoRepeat.press(InputBuffer.Key.RIGHT);
+        run(AutoRepeat.DEFAULT_DAS_TICKS + 2 * AutoRepeat.DEFAULT_ARR_TICKS);
+        assertEquals(at(InputAction.MOVE_RIGHT, 10, 12, 14), performed);
+    }
+
+    @Test
+    void releaseCancelsTheRepeat() {
+        autoRepeat.configure(4, 1);
+        autoRepeat.press(InputBuffer.Key.LEFT);
+        run(3);
+        autoRepeat.release(InputBuffer.Key.LEFT);
+        run(20);
+        assertEquals(List.of(), performed);
+
+        autoRepeat.press(InputBuffer.Key.LEFT);
+        run(6);
+        autoRepeat.release(InputBuffer.Key.LEFT);
+        run(20);
+        assertEquals(at(InputAction.MOVE_LEFT, 27, 28, 29), performed);
+
+        autoRepeat.press(InputBuffer.Key.RIGHT);
+        autoRepeat.press(InputBuffer.Key.SOFT_DROP);
+        autoRepeat.clear();
+        run(20);
+        assertEquals(3, performed.size());
+    }
+
+    @Test
+    void zeroArrShiftsStraightToTheWall() {
+        autoRepeat.configure(5, 0);
+        room = 3;
+        autoRepeat.press(InputBuffer.Key.RIGHT);
+        run(4);
+        assertEquals(List.of(), performed);
+        run(1);
+        // Three moves, then the one the wall refused.
+        assertEquals(at(InputAction.MOVE_RIGHT, 5, 5, 5, 5), performed);
+        // Still held: it keeps pressing against the wall once per tick.
+        run(2);
+        assertEquals(at(InputAction.MOVE_RIGHT, 5, 5, 5, 5, 6, 7), performed);
+    }
+
+    @Test
+    void zeroDasRepeatsFromTheNextTick() {
+        autoRepeat.configure(0, 2);
+        autoRepeat.press(InputBuffer.Key.LEFT);
+        run(5);
+        assertEquals(at(InputAction.MOVE_LEFT, 1, 3, 5), performed);
+    }
+
+    @Test
+    void latestDirectionWinsAndTheOtherChargesAgain() {
+        autoRepeat.configure(4, 2);
+        autoRepeat.press(InputBuffer.Key.LEFT);
+        run(5);
+        autoRepeat.press(InputBuffer.Key.RIGHT);
+        run(6);
+        autoRepeat.release(InputBuffer.Key.RIGHT);
+        run(6);
+        List<String> expected = at(InputAction.MOVE_LEFT, 4);
+        expected.addAll(at(InputAction.MOVE_RIGHT, 9, 11));
+        expected.addAll(at(InputAction.MOVE_LEFT, 15, 17));
+        assertEquals(expected, performed);
+    }
+
+    @Test
+    void softDropRepeatsWhileHeld() {
+        assertEquals(InputAction.SOFT_DROP, autoRepeat.press(InputBuffer.Key.SOFT_DROP));
+        run(3 * AutoRepeat.SOFT_DROP_TICKS);
+        autoRepeat.release(InputBuffer.Key.SOFT_DROP);
+        run(10);
+        assertEquals(at(InputAction.SOFT_DROP, 2, 4, 6), performed);
+    }
+
+    @Test
+    void otherKeysDoNotRepeat() {
+        assertEquals(InputAction.HARD_DROP, autoRepeat.press(InputBuffer.Key.HARD_DROP));
+        assertEquals(InputAction.ROTATE_RIGHT, autoRepeat.press(InputBuffer.Key.ROTATE_RIGHT));
+        run(30);
+        assertEquals(List.of(), performed);
+    }
+}
@@ -0,0 +1,57 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BotPolicyTest {
+
+    private static final int PIECES = 100;
+    private static final int MAX_TICKS = 200_000;
+
+    /** Plays a game the way GameLoop does: one bot move per tick, and gravity every GRAVITY_TICKS regardless. */
+    private static GameEngine play(BotPolicy bot, Queue<Runnable> searches, int searchTicks) {
+        GameEngine engine = new GameEngine();
+        engine.start(7);
+        for (int tick = 1; tick <= MAX_TICKS && engine.isStarted() && engine.getPiecesPlaced() < PIECES; tick++) {
+            if (searchTicks > 0 && tick % searchTicks == 0) {
+                while (!searches.isEmpty()) {
+                    searches.poll().run();
+                }
+            }
+            InputAction action = bot.pollAction(engine);
+            if (action != null) {
+                action.apply(engine);
+            }
+            if (engine.isStarted() && tick % GameLoop.GRAVITY_TICKS == 0) {
+                InputAction.GRAVITY.apply(engine);
+            }
+        }
+        return engine;
+    }
+
+    private static BotSearch search() {
+        return new BotSearch(Heuristic.DEFAULT, 2, 8, false);
+    }
+
+    @Test
+    void keepsUpWithGravity() {
+        GameEngine engine = play(new BotPolicy(search()), null, 0);
+        assertTrue(engine.getPiecesPlaced() >= PIECES, "pieces " + engine.getPiecesPlaced());
+        assertTrue(engine.getNumLinesRemoved() >= PIECES / 3, "lines " + engine.getNumLinesRemoved());
+    }
+
+    @Test
+    void replansWhenGravityMovesThePieceDuringASlowSearch() {
+        Queue<Runnable> searches = new ArrayDeque<>();
+        Executor later = searches::add;
+        // Searches finish a third of a gravity period after they start, so many arrive after a drop.
+        GameEngine engine = play(new BotPolicy(search(), later), searches, GameLoop.GRAVITY_TICKS / 3);
+        assertTrue(engine.getPiecesPlaced() >= PIECES, "pieces " + engine.getPiecesPlaced());
+        assertTrue(engine.getNumLinesRemoved() >= PIECES / 3, "lines " + engine.getNumLinesRemoved());
+    }
+}
@@ -0,0 +1,174 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckpointFileTest {
+
+    private static final RandomizerType TYPE = RandomizerType.SEVEN_BAG;
+    private static final BoardSize SIZE = BoardSize.DEFAULT;
+    // Matches CheckpointFile's layout: a 64-byte header, then 8-byte aligned slots with a 16-byte header.
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_BYTES = (16 + GameEngine.stateBytes(SIZE) + 7) & ~7;
+
+    @TempDir
+    Path dir;
+
+    private static GameEngine start(long seed) {
+        GameEngine engine = new GameEngine(TYPE.create(seed), SIZE);
+        engine.start(seed);
+        return engine;
+    }
+
+    private static void play(GameEngine engine, GamePolicy policy, int pieces) {
+        int until = engine.getPiecesPlaced() + pieces;
+        while (engine.isStarted() && engine.getPiecesPlaced() < until) {
+            policy.nextAction(engine).apply(engine);
+        }
+    }
+
+    private static byte[] state(GameEngine engine) {
+        ByteBuffer state = ByteBuffer.allocate(GameEngine.stateBytes(engine.getSize()));
+        engine.writeState(state);
+        return state.array();
+    }
+
+    private static long slotSequence(Path file, int record, int slot) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer sequence = ByteBuffer.allocate(8).order(ByteOrder.BIG_ENDIAN);
+            channel.read(sequence, HEADER_SIZE + (long) (2 * record + slot) * SLOT_BYTES);
+            return sequence.getLong(0);
+        }
+    }
+
+    private static void corruptSlot(Path file, int record, int slot) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long at = HEADER_SIZE + (long) (2 * record + slot) * SLOT_BYTES + 16 + 20;
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, at);
+            b.put(0, (byte) ~b.get(0));
+            channel.write(b.rewind(), at);
+        }
+    }
+
+    @Test
+    void restoredGamePlaysOnIdentically() throws IOException {
+        Path file = dir.resolve("games.ckpt");
+        GameEngine original = start(3);
+        BotPolicy bot = new BotPolicy(new BotSearch(Heuristic.DEFAULT, 1, 4, false));
+        play(original, bot, 40);
+        try (CheckpointFile checkpoints = CheckpointFile.open(file, TYPE, SIZE, 2)) {
+            checkpoints.save(1, original);
+        }
+
+        GameEngine restored = start(99);
+        try (CheckpointFile checkpoints = CheckpointFile.open(file, TYPE, SIZE, 2)) {
+            assertFalse(checkpoints.restore(0, restored));
+            assertTrue(checkpoints.restore(1, restored));
+        }
+        assertArrayEquals(state(original), state(restored));
+
+        play(original, new RandomPolicy(5), 40);
+        play(restored, new RandomPolicy(5), 40);
+        assertArrayEquals(state(original), state(restored));
+        assertEquals(original.getScore(), restored.getScore());
+    }
+
+    @Test
+    void savesAlternateBetweenTheTwoSlots() throws IOException {
+        Path file = dir.resolve("alternate.ckpt");
+        GameEngine engine = start(4);
+        RandomPolicy policy = new RandomPolicy(4);
+        long[][] expected = {{1, 0}, {1, 2}, {3, 2}, {3, 4}};
+        try (CheckpointFile checkpoints = CheckpointFile.open(file, TYPE, SIZE, 3)) {
+            for (long[] slots : expected) {
+                play(engine, policy, 3);
+                checkpoints.save(2, engine);
+                assertEquals(Math.max(slots[0], slots[1]), checkpoints.getSequence(2));
+                assertEquals(slots[0], slotSequence(file, 2, 0));
+                assertEquals(slots[1], slotSequence(file, 2, 1));
+                assertEquals(0, slotSequence(file, 1, 0));
+            }
+        }
+    }
+
+    @Test
+    void tornSlotFallsBackToTheOlderOne() throws IOException {
+        Path file = dir.resolve("torn.ckpt");
+        GameEngine engine = start(5);
+        RandomPolicy policy = new RandomPolicy(5);
+        byte[] older;
+        try (CheckpointFile checkpoints = CheckpointFile.open(file, TYPE, SIZE, 1)) {
+            play(engine, policy, 10);
+            checkpoints.save(0, engine);
+            older = state(engine);
+            play(engine, policy, 10);
+            checkpoints.save(0, engine);
+        }
+        // The second save went to slot 1; damage its body so its CRC no longer matches.
+        corruptSlot(file, 0, 1);
+
+        GameEngine restored = start(0);
+        try (CheckpointFile checkpoints = CheckpointFile.open(file, TYPE, SIZE, 1)) {
+            assertEquals(1, checkpoints.getSequence(0));
+            assertTrue(checkpoints.restore(0, restored));
+            assertArrayEquals(older, state(restored));
+
+            // The next save replaces the torn slot rather than the intact one.
+            checkpoints.save(0, engine);
+            assertEquals(3, checkpoints.getSequence(0));
+        }
+        assertEquals(1, slotSequence(file, 0, 0));
+        assertEquals(3, slotSequence(file, 0, 1));
+
+        corruptSlot(file, 0, 0);
+        corruptSlot(file, 0, 1);
+        try (CheckpointFile checkpoints = CheckpointFile.open(file, TYPE, SIZE, 1)) {
+            GameEngine untouched = start(6);
+            byte[] before = state(untouched);
+            assertFalse(checkpoints.restore(0, untouched));
+            assertArrayEquals(before, state(untouched));
+            assertEquals(0, checkpoints.getSequence(0));
+        }
+    }
+
+    @Test
+    void rejectsFilesForAnotherGame() throws IOException {
+        Path file = dir.resolve("other.ckpt");
+        try (CheckpointFile checkpoints = CheckpointFile.open(file, TYPE, SIZE, 2)) {
+            checkpoints.save(0, start(1));
+            assertThrows(IllegalArgumentException.class,
+                    () -> checkpoints.save(0, new GameEngine(TYPE.create(1), new BoardSize(12, 20, 2))));
+            assertThrows(IndexOutOfBoundsException.class, () -> checkpoints.save(2, start(1)));
+        }
+        assertThrows(IOException.class, () -> CheckpointFile.open(file, RandomizerType.UNIFORM, SIZE, 2));
+        assertThrows(IOException.class, () -> CheckpointFile.open(file, TYPE, new BoardSize(12, 20, 2), 2));
+        assertThrows(IOException.class, () -> CheckpointFile.open(file, TYPE, SIZE, 3));
+        // Same length as the real layout, different dimensions.
+        assertThrows(IOException.class, () -> CheckpointFile.open(file, TYPE, new BoardSize(10, 18, 4), 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> CheckpointFile.open(dir.resolve("none.ckpt"), TYPE, SIZE, 0));
+        // The board fits in an int, its saved state does not.
+        BoardSize huge = new BoardSize(Integer.MAX_VALUE / 6, 4, 2);
+        assertThrows(IllegalArgumentException.class, () -> GameEngine.stateBytes(huge));
+        assertThrows(IllegalArgumentException.class,
+                () -> CheckpointFile.open(dir.resolve("huge.ckpt"), TYPE, huge, 1));
+
+        try (CheckpointFile checkpoints = CheckpointFile.open(file, TYPE, SIZE, 2)) {
+            assertEquals(1, checkpoints.getSequence(0));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoalescingDispatcherTest {
+
+    private static final Shape.PieceShape T = Shape.PieceShape.TShape;
+
+    private final ArrayDeque<Runnable> executor = new ArrayDeque<>();
+    private final List<List<GameEvent>> deliveries = new ArrayList<>();
+    private Consumer<GameEvent> during = e -> { };
+    private final CoalescingDispatcher dispatcher = new CoalescingDispatcher(e -> {
+        deliveries.get(deliveries.size() - 1).add(e);
+        during.accept(e);
+    }, executor::add);
+
+    private void runExecutor() {
+        while (!executor.isEmpty()) {
+            deliveries.add(new ArrayList<>());
+            executor.poll().run();
+        }
+        deliveries.removeIf(List::isEmpty);
+    }
+
+    private void tick(GameEvent... events) {
+        for (GameEvent event : events) {
+            dispatcher.accept(event);
+        }
+        dispatcher.endTick();
+    }
+
+    private static GameEvent locked(long tick) {
+        return new GameEvent.PieceLocked(tick, T, 0, 4, 18, (int) tick);
+    }
+
+    private static GameEvent spawned(long tick) {
+        return new GameEvent.PieceSpawned(tick, T, T);
+    }
+
+    private static GameEvent score(long tick) {
+        return new GameEvent.ScoreChanged(tick, 10 * (int) tick, 10 * (int) tick - 10);
+    }
+
+    @Test
+    void aTickEndingDuringDeliveryWaitsForTheNextOne() {
+        tick(locked(1), score(1));
+        // The logic thread finishes tick 2 while the listener is still handling tick 1.
+        during = e -> {
+            if (e.equals(locked(1))) {
+                tick(locked(2), spawned(2));
+            }
+        };
+        runExecutor();
+        assertEquals(List.of(List.of(locked(1), score(1)), List.of(locked(2), spawned(2))), deliveries);
+    }
+
+    @Test
+    void coalescesUndeliveredTicksAndDropsThemForANewGame() {
+        tick(locked(1), score(1), spawned(1));
+        tick(locked(2), spawned(2));
+        assertEquals(1, executor.size());
+        runExecutor();
+        assertEquals(List.of(List.of(locked(2), score(1), spawned(2))), deliveries);
+
+        deliveries.clear();
+        tick(locked(3), score(3));
+        GameEvent started = new GameEvent.GameStarted(4, 7, 0, 0, 0);
+        tick(started, spawned(4));
+        runExecutor();
+        assertEquals(List.of(List.of(started, spawned(4))), deliveries);
+    }
+
+    @Test
+    void everyDeliveryIsInTypeOrder() {
+        SplitMix64 random = new SplitMix64(25);
+        long[] next = {1};
+        Runnable logicTick = () -> {
+            long t = next[0]++;
+            List<GameEvent> events = new ArrayList<>(List.of(locked(t), score(t), spawned(t)));
+            if (random.nextInt(3) == 0) {
+                events.add(1, new GameEvent.LinesCleared(t, 1, (int) t));
+            }
+            if (random.nextInt(10) == 0) {
+                events.add(new GameEvent.GameOver(t, 0, 0, 0));
+            }
+            if (random.nextInt(50) == 0) {
+                events.add(0, new GameEvent.GameStarted(t, t, 0, 0, 0));
+            }
+            tick(events.stream().filter(e -> random.nextInt(4) != 0).toArray(GameEvent[]::new));
+        };
+        during = e -> {
+            if (random.nextInt(3) == 0) {
+                logicTick.run();
+            }
+        };
+        for (int i = 0; i < 2000; i++) {
+            logicTick.run();
+            if (random.nextInt(2) == 0) {
+                runExecutor();
+            }
+        }
+        runExecutor();
+        List<Class<?>> order = List.of(GameEvent.GameStarted.class, GameEvent.PieceLocked.class,
+                GameEvent.LinesCleared.class, GameEvent.ScoreChanged.class, GameEvent.PieceSpawned.class,
+                GameEvent.GameOver.class);
+        long lastTick = 0;
+        for (List<GameEvent> delivery : deliveries) {
+            for (int i = 1; i < delivery.size(); i++) {
+                assertTrue(order.indexOf(delivery.get(i - 1).getClass()) < order.indexOf(delivery.get(i).getClass()),
+                        delivery.toString());
+            }
+            // A tick is delivered whole, so nothing here was part of an earlier delivery's tick.
+            long previous = lastTick;
+            assertTrue(delivery.stream().allMatch(e -> e.tick() > previous), delivery.toString());
+            lastTick = delivery.stream().mapToLong(GameEvent::tick).max().orElseThrow();
+        }
+        assertTrue(deliveries.size() > 1000, "deliveries " + deliveries.size());
+    }
+}
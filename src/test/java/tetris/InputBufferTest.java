@@ -0,0 +1,91 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputBufferTest {
+
+    private record Event(InputBuffer.Key key, boolean down, long nanos) {
+    }
+
+    private static List<Event> drain(InputBuffer buffer) {
+        List<Event> events = new ArrayList<>();
+        int count = buffer.drain((key, down, nanos) -> events.add(new Event(key, down, nanos)));
+        assertEquals(events.size(), count);
+        return events;
+    }
+
+    @Test
+    void keepsOrderAcrossManyWraps() {
+        InputBuffer buffer = new InputBuffer(8);
+        InputBuffer.Key[] keys = InputBuffer.Key.values();
+        long n = 0;
+        for (int round = 0; round < 100; round++) {
+            List<Event> offered = new ArrayList<>();
+            // Batches that do not divide the capacity, so slots wrap at every offset.
+            for (int i = 0; i < 1 + round % 8; i++, n++) {
+                Event event = new Event(keys[(int) (n % keys.length)], n % 3 != 0, 1_000_000_000L * n - 7);
+                assertTrue(buffer.offer(event.key(), event.down(), event.nanos()));
+                offered.add(event);
+            }
+            assertEquals(offered, drain(buffer));
+        }
+        assertEquals(List.of(), drain(buffer));
+        assertEquals(0, buffer.getDropped());
+    }
+
+    @Test
+    void dropsWhenFullAndRecoversAfterADrain() {
+        // Rounded up to 8 slots.
+        InputBuffer buffer = new InputBuffer(5);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(buffer.offer(InputBuffer.Key.LEFT, true, i));
+        }
+        assertFalse(buffer.offer(InputBuffer.Key.RIGHT, true, 8));
+        assertFalse(buffer.offer(InputBuffer.Key.RIGHT, false, 9));
+        assertEquals(2, buffer.getDropped());
+
+        List<Event> events = drain(buffer);
+        assertEquals(8, events.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(new Event(InputBuffer.Key.LEFT, true, i), events.get(i));
+        }
+        assertTrue(buffer.offer(InputBuffer.Key.HARD_DROP, false, 10));
+        assertEquals(List.of(new Event(InputBuffer.Key.HARD_DROP, false, 10)), drain(buffer));
+        assertEquals(2, buffer.getDropped());
+    }
+
+    @Test
+    void producerAndConsumerThreadsSeeEveryEventInOrder() throws InterruptedException {
+        InputBuffer buffer = new InputBuffer(16);
+        int total = 50_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < total; ) {
+                if (buffer.offer(InputBuffer.Key.values()[i % 6], (i & 1) == 0, i)) {
+                    i++;
+                } else {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        long[] next = {0};
+        while (next[0] < total) {
+            buffer.drain((key, down, nanos) -> {
+                assertEquals(next[0], nanos);
+                assertEquals(InputBuffer.Key.values()[(int) (nanos % 6)], key);
+                assertEquals((nanos & 1) == 0, down);
+                next[0]++;
+            });
+            Thread.yield();
+        }
+        producer.join();
+        assertEquals(total, next[0]);
+    }
+}
@@ -0,0 +1,101 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PieceRandomizerTest {
+
+    private static final int PIECES = 7 * 2000;
+    private static final long[] SEEDS = {0, 1, 42, -1, 0x5EED_CAFEL, Long.MIN_VALUE};
+
+    private static Shape.PieceShape[] deal(PieceRandomizer randomizer, int count) {
+        Shape.PieceShape[] pieces = new Shape.PieceShape[count];
+        for (int i = 0; i < count; i++) {
+            pieces[i] = randomizer.next();
+        }
+        return pieces;
+    }
+
+    @Test
+    void sameSeedGivesTheSameSequence() {
+        for (RandomizerType type : RandomizerType.values()) {
+            for (long seed : SEEDS) {
+                Shape.PieceShape[] first = deal(type.create(seed), PIECES);
+                assertArrayEquals(first, deal(type.create(seed), PIECES), type + " seed " + seed);
+
+                PieceRandomizer reused = type.create(seed + 1);
+                deal(reused, 123);
+                reused.reset(seed);
+                assertArrayEquals(first, deal(reused, PIECES), type + " reset to seed " + seed);
+
+                assertFalse(Arrays.equals(first, deal(type.create(seed ^ 0x9E37), PIECES)),
+                        type + " seed " + seed + " matched another seed");
+            }
+        }
+    }
+
+    @Test
+    void savedStateContinuesTheSequence() {
+        for (RandomizerType type : RandomizerType.values()) {
+            PieceRandomizer randomizer = type.create(7);
+            // Stop mid-bag, so the saved state includes a partly dealt bag.
+            deal(randomizer, 7 * 5 + 3);
+            ByteBuffer state = ByteBuffer.allocate(PieceRandomizer.STATE_BYTES);
+            randomizer.writeState(state);
+            assertEquals(PieceRandomizer.STATE_BYTES, state.position());
+            Shape.PieceShape[] expected = deal(randomizer, 100);
+
+            PieceRandomizer restored = type.create(99);
+            restored.readState(state.flip());
+            assertArrayEquals(expected, deal(restored, 100), type.toString());
+        }
+    }
+
+    @Test
+    void everyBagIsAPermutationOfTheSevenPieces() {
+        Set<Shape.PieceShape> all = EnumSet.allOf(Shape.PieceShape.class);
+        all.remove(Shape.PieceShape.NoShape);
+        for (long seed : SEEDS) {
+            Shape.PieceShape[] pieces = deal(new SevenBagRandomizer(seed), PIECES);
+            for (int bag = 0; bag < PIECES; bag += 7) {
+                Set<Shape.PieceShape> dealt = EnumSet.noneOf(Shape.PieceShape.class);
+                for (int i = bag; i < bag + 7; i++) {
+                    dealt.add(pieces[i]);
+                }
+                assertEquals(all, dealt, "seed " + seed + " bag at " + bag);
+            }
+            // Bags bound droughts: at most 12 other pieces between two of the same.
+            int[] last = new int[Shape.PieceShape.values().length];
+            Arrays.fill(last, -1);
+            for (int i = 0; i < PIECES; i++) {
+                int ordinal = pieces[i].ordinal();
+                assertTrue(i - last[ordinal] <= 13, "seed " + seed + " drought at " + i);
+                last[ordinal] = i;
+            }
+        }
+    }
+
+    @Test
+    void uniformDealsEveryPieceButNoShape() {
+        for (long seed : SEEDS) {
+            int[] counts = new int[Shape.PieceShape.values().length];
+            for (Shape.PieceShape piece : deal(new UniformRandomizer(seed), PIECES)) {
+                counts[piece.ordinal()]++;
+            }
+            assertEquals(0, counts[Shape.PieceShape.NoShape.ordinal()]);
+            for (int p = 1; p < counts.length; p++) {
+                // 2000 expected; 6 standard deviations is about 250.
+                assertTrue(Math.abs(counts[p] - PIECES / 7) < 300, "seed " + seed + " piece " + p + ": " + counts[p]);
+            }
+        }
+    }
+}
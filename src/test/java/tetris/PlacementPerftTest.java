@@ -0,0 +1,136 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlacementPerftTest {
+
+    private static final BoardSize SIZE = BoardSize.DEFAULT;
+    private static final int DEPTH = 3;
+
+    private final PlacementPerft perft = new PlacementPerft(SIZE, DEPTH);
+
+    @Test
+    void matchesKnownCounts() {
+        for (PlacementPerft.Position position : PlacementPerft.POSITIONS) {
+            int[] rows = perft.rows(position);
+            Shape.PieceShape[] pieces = PlacementPerft.pieces(position.pieces());
+            for (int depth = 1; depth <= DEPTH; depth++) {
+                assertEquals(position.expected()[depth - 1], perft.perft(rows, pieces, depth),
+                        position.name() + " depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    void engineFindsTheSamePlacements() {
+        for (PlacementPerft.Position position : PlacementPerft.POSITIONS) {
+            int[] rows = perft.rows(position);
+            Shape.PieceShape[] pieces = PlacementPerft.pieces(position.pieces());
+            for (int depth = 1; depth <= PlacementPerft.ENGINE_CHECK_DEPTH; depth++) {
+                assertEquals(perft.perft(rows, pieces, depth), perft.enginePerft(rows, pieces, depth),
+                        position.name() + " depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    void bruteForceGridSearchFindsTheSamePlacements() {
+        for (PlacementPerft.Position position : PlacementPerft.POSITIONS) {
+            int[] rows = perft.rows(position);
+            boolean[][] grid = new boolean[SIZE.totalHeight()][SIZE.width()];
+            for (int y = 0; y < grid.length; y++) {
+                for (int x = 0; x < SIZE.width(); x++) {
+                    grid[y][x] = (rows[y] >>> x & 1) != 0;
+                }
+            }
+            Shape.PieceShape[] pieces = PlacementPerft.pieces(position.pieces());
+            for (int depth = 1; depth <= DEPTH; depth++) {
+                assertEquals(perft.perft(rows, pieces, depth), bruteForce(grid, pieces, 0, depth),
+                        position.name() + " depth " + depth);
+            }
+        }
+    }
+
+    // An independent plain-grid version of the rules: no bitboards, no generator.
+    private static long bruteForce(boolean[][] grid, Shape.PieceShape[] pieces, int ply, int depth) {
+        List<boolean[][]> children = children(grid, pieces[ply % pieces.length]);
+        if (ply == depth - 1) {
+            return children.size();
+        }
+        long total = 0;
+        for (boolean[][] child : children) {
+            total += bruteForce(child, pieces, ply + 1, depth);
+        }
+        return total;
+    }
+
+    private static List<boolean[][]> children(boolean[][] grid, Shape.PieceShape piece) {
+        int width = grid[0].length;
+        int height = grid.length;
+        List<boolean[][]> children = new ArrayList<>();
+        int[] start = {0, width / 2, -piece.getOrientation(0).minY};
+        if (!fits(grid, piece.getOrientation(0), start[1], start[2])) {
+            return children;
+        }
+        Set<List<Integer>> seen = new HashSet<>();
+        Set<Set<Integer>> locks = new HashSet<>();
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        seen.add(List.of(start[0], start[1], start[2]));
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int[] s = queue.poll();
+            Shape.Orientation o = piece.getOrientation(s[0]);
+            if (!fits(grid, o, s[1], s[2] + 1)) {
+                Set<Integer> cells = new HashSet<>();
+                for (int i = 0; i < 4; i++) {
+                    cells.add((s[2] + o.getY(i)) * width + s[1] + o.getX(i));
+                }
+                if (locks.add(cells)) {
+                    List<boolean[]> kept = new ArrayList<>();
+                    for (int y = 0; y < height; y++) {
+                        boolean[] row = grid[y].clone();
+                        boolean full = true;
+                        for (int x = 0; x < width; x++) {
+                            row[x] |= cells.contains(y * width + x);
+                            full &= row[x];
+                        }
+                        if (!full) {
+                            kept.add(row);
+                        }
+                    }
+                    while (kept.size() < height) {
+                        kept.add(0, new boolean[width]);
+                    }
+                    children.add(kept.toArray(new boolean[0][]));
+                }
+            }
+            int[][] moves = {{s[0], s[1] - 1, s[2]}, {s[0], s[1] + 1, s[2]}, {s[0], s[1], s[2] + 1},
+                    {piece.rotatedRight(s[0]), s[1], s[2]}, {piece.rotatedLeft(s[0]), s[1], s[2]}};
+            for (int[] m : moves) {
+                if (fits(grid, piece.getOrientation(m[0]), m[1], m[2]) && seen.add(List.of(m[0], m[1], m[2]))) {
+                    queue.add(m);
+                }
+            }
+        }
+        return children;
+    }
+
+    private static boolean fits(boolean[][] grid, Shape.Orientation o, int x, int y) {
+        for (int i = 0; i < 4; i++) {
+            int cx = x + o.getX(i);
+            int cy = y + o.getY(i);
+            if (cx < 0 || cx >= grid[0].length || cy < 0 || cy >= grid.length || grid[cy][cx]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,176 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayTest {
+
+    private static final int MAX_PIECES = 150;
+
+    @TempDir
+    Path dir;
+
+    /** Plays a seeded game with random inputs and gravity, recording every action at its tick. */
+    private static GameEngine record(ReplayRecorder recorder, RandomizerType type, long seed, BoardSize size) {
+        GameEngine engine = new GameEngine(type.create(seed), size);
+        engine.start(seed);
+        recorder.begin(type, seed, size);
+        GamePolicy policy = new RandomPolicy(seed);
+        SplitMix64 random = new SplitMix64(~seed);
+        long tick = 0;
+        while (engine.isStarted() && engine.getPiecesPlaced() < MAX_PIECES) {
+            tick += random.nextInt(40);
+            InputAction action = random.nextInt(5) == 0 ? InputAction.GRAVITY : policy.nextAction(engine);
+            recorder.record(action, tick);
+            action.apply(engine);
+        }
+        return engine;
+    }
+
+    /** Like ReplayPlayer.play, but hands back the engine so the board can be compared. */
+    private static GameEngine replay(Replay replay) {
+        GameEngine engine = new GameEngine(replay.getRandomizerType().create(replay.getSeed()), replay.getBoardSize());
+        engine.start(replay.getSeed());
+        Replay.Cursor cursor = replay.cursor();
+        while (cursor.next()) {
+            if (engine.isStarted()) {
+                cursor.getAction().apply(engine);
+            }
+        }
+        return engine;
+    }
+
+    private static byte[] cells(GameEngine engine) {
+        byte[] cells = new byte[engine.getWidth() * engine.getTotalHeight()];
+        engine.copyCells(cells);
+        return cells;
+    }
+
+    private static void assertSameGame(GameEngine expected, GameEngine actual) {
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getNumLinesRemoved(), actual.getNumLinesRemoved());
+        assertEquals(expected.getPiecesPlaced(), actual.getPiecesPlaced());
+        assertArrayEquals(cells(expected), cells(actual));
+    }
+
+    @Test
+    void roundTripsThroughAFile() throws IOException {
+        BoardSize[] sizes = {BoardSize.DEFAULT, new BoardSize(6, 12, 2), new BoardSize(32, 24, 4)};
+        long seed = 1;
+        for (RandomizerType type : RandomizerType.values()) {
+            for (BoardSize size : sizes) {
+                ReplayRecorder recorder = new ReplayRecorder();
+                GameEngine played = record(recorder, type, seed, size);
+                Path file = dir.resolve("replay-" + seed + ".trpl");
+                recorder.finish(played).write(file);
+
+                Replay replay = Replay.read(file);
+                assertEquals(type, replay.getRandomizerType());
+                assertEquals(seed, replay.getSeed());
+                assertEquals(size, replay.getBoardSize());
+                assertEquals(GameLoop.TICKS_PER_SECOND, replay.getTimeUnitsPerSecond());
+                assertSameGame(played, replay(replay));
+                assertTrue(ReplayPlayer.play(replay).matchesRecording());
+                seed = seed * 31 + 7;
+            }
+        }
+    }
+
+    @Test
+    void cursorReturnsTheRecordedEvents() {
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.begin(RandomizerType.SEVEN_BAG, -5L);
+        InputAction[] actions = InputAction.values();
+        for (int i = 0; i < actions.length; i++) {
+            recorder.record(actions[i], 1000L * i * i);
+        }
+        Replay replay = recorder.finish(12, 3, 4);
+        assertEquals(-5L, replay.getSeed());
+        Replay.Cursor cursor = replay.cursor();
+        for (int i = 0; i < actions.length; i++) {
+            assertTrue(cursor.next());
+            assertEquals(actions[i], cursor.getAction());
+            assertEquals(1000L * i * i, cursor.getTime());
+        }
+        assertFalse(cursor.next());
+        assertEquals(12, cursor.getScore());
+        assertEquals(3, cursor.getLines());
+        assertEquals(4, cursor.getPieces());
+    }
+
+    @Test
+    void readsOlderVersions() {
+        ReplayRecorder recorder = new ReplayRecorder();
+        GameEngine played = record(recorder, RandomizerType.UNIFORM, 42, BoardSize.DEFAULT);
+        byte[] v3 = bytes(recorder.finish(played));
+        // Versions 1 and 2 have no board size: drop the three one-byte varints after the fixed header.
+        assertArrayEquals(new byte[]{10, 20, 2}, Arrays.copyOfRange(v3, Replay.HEADER_SIZE, Replay.HEADER_SIZE + 3));
+        for (int version = 1; version <= 2; version++) {
+            ByteArrayOutputStream old = new ByteArrayOutputStream();
+            old.write(v3, 0, Replay.HEADER_SIZE);
+            old.write(v3, Replay.HEADER_SIZE + 3, v3.length - Replay.HEADER_SIZE - 3);
+            byte[] data = old.toByteArray();
+            data[4] = (byte) version;
+
+            Replay replay = new Replay(data);
+            assertEquals(BoardSize.DEFAULT, replay.getBoardSize());
+            assertEquals(version == 1 ? 1000 : GameLoop.TICKS_PER_SECOND, replay.getTimeUnitsPerSecond());
+            assertSameGame(played, replay(replay));
+        }
+    }
+
+    @Test
+    void rejectsForeignAndFutureFiles() {
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.begin(RandomizerType.UNIFORM, 1);
+        byte[] data = bytes(recorder.finish(0, 0, 0));
+
+        byte[] future = data.clone();
+        future[4] = Replay.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> new Replay(future));
+        byte[] unversioned = data.clone();
+        unversioned[4] = 0;
+        assertThrows(IllegalArgumentException.class, () -> new Replay(unversioned));
+        byte[] foreign = data.clone();
+        foreign[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> new Replay(foreign));
+        assertThrows(IllegalArgumentException.class, () -> new Replay(Arrays.copyOf(data, Replay.HEADER_SIZE - 1)));
+    }
+
+    @Test
+    void truncatedFileFailsInsteadOfEndingEarly() throws IOException {
+        ReplayRecorder recorder = new ReplayRecorder();
+        GameEngine played = record(recorder, RandomizerType.SEVEN_BAG, 9, BoardSize.DEFAULT);
+        byte[] data = bytes(recorder.finish(played));
+        Path file = dir.resolve("truncated.trpl");
+        Files.write(file, Arrays.copyOf(data, data.length / 2));
+
+        Replay replay = Replay.read(file);
+        assertThrows(IllegalStateException.class, () -> ReplayPlayer.play(replay));
+        // Cut inside the footer: every event is there, but the final totals are not.
+        Replay noFooter = new Replay(Arrays.copyOf(data, data.length - 1));
+        assertThrows(IllegalStateException.class, () -> ReplayPlayer.play(noFooter));
+    }
+
+    private byte[] bytes(Replay replay) {
+        try {
+            Path file = Files.createTempFile(dir, "replay", ".trpl");
+            replay.write(file);
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
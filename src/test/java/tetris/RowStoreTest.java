@@ -0,0 +1,134 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Checks RowStore against a plain cell array on boards wider than one 64-column word. */
+class RowStoreTest {
+
+    private static final int[] WIDTHS = {65, 100, 130};
+    private static final int HEIGHT = 24;
+
+    private static void assertConsistent(RowStore store, byte[][] model, int width) {
+        byte[] cells = new byte[width * HEIGHT];
+        store.copyCells(cells);
+        for (int y = 0; y < HEIGHT; y++) {
+            assertArrayEquals(model[y], Arrays.copyOfRange(cells, y * width, (y + 1) * width), "row " + y);
+            int filled = 0;
+            long[] words = new long[store.words()];
+            for (int x = 0; x < width; x++) {
+                boolean occupied = model[y][x] != 0;
+                assertEquals(occupied, store.isOccupied(x, y), "cell " + x + "," + y);
+                if (occupied) {
+                    filled++;
+                    words[x >>> 6] |= 1L << x;
+                }
+            }
+            for (int w = 0; w < words.length; w++) {
+                assertEquals(words[w], store.word(y, w), "word " + w + " of row " + y);
+            }
+            assertEquals(filled == 0, store.isEmpty(y));
+            assertEquals(filled == width, store.isFull(y));
+        }
+    }
+
+    private static boolean modelFits(byte[][] model, int width, Shape.Orientation o, int x, int y) {
+        for (int i = 0; i < 4; i++) {
+            int cx = x + o.getX(i);
+            int cy = y + o.getY(i);
+            if (cx < 0 || cx >= width || cy < 0 || cy >= HEIGHT || model[cy][cx] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void matchesAPlainGridThroughRandomChanges() {
+        for (int width : WIDTHS) {
+            RowStore store = new RowStore(width, HEIGHT);
+            byte[][] model = new byte[HEIGHT][width];
+            SplitMix64 random = new SplitMix64(width);
+            for (int step = 0; step < 400; step++) {
+                switch (random.nextInt(4)) {
+                    case 0 -> {
+                        // Scattered cells in the bottom half, where lines form
+                        for (int i = 0; i < 40; i++) {
+                            int x = random.nextInt(width);
+                            int y = HEIGHT / 2 + random.nextInt(HEIGHT / 2);
+                            byte id = (byte) (1 + random.nextInt(8));
+                            store.set(x, y, id);
+                            model[y][x] = id;
+                        }
+                    }
+                    case 1 -> {
+                        // Fill a row but maybe one cell, then clear every full row.
+                        int y = HEIGHT / 2 + random.nextInt(HEIGHT / 2);
+                        int gap = random.nextInt(2) == 0 ? random.nextInt(width) : -1;
+                        for (int x = 0; x < width; x++) {
+                            if (x != gap) {
+                                store.set(x, y, (byte) 3);
+                                model[y][x] = 3;
+                            }
+                        }
+                        int removed = store.removeFullRows(0, HEIGHT - 1);
+                        int dst = HEIGHT - 1;
+                        int expectedRemoved = 0;
+                        byte[][] next = new byte[HEIGHT][];
+                        for (int row = HEIGHT - 1; row >= 0; row--) {
+                            boolean full = true;
+                            for (int x = 0; x < width && full; x++) {
+                                full = model[row][x] != 0;
+                            }
+                            if (full) {
+                                expectedRemoved++;
+                            } else {
+                                next[dst--] = model[row];
+                            }
+                        }
+                        for (; dst >= 0; dst--) {
+                            next[dst] = new byte[width];
+                        }
+                        System.arraycopy(next, 0, model, 0, HEIGHT);
+                        assertEquals(expectedRemoved, removed);
+                    }
+                    case 2 -> {
+                        // Garbage: push the rows from the stack top up and wipe the rows that come in at the bottom.
+                        int count = 1 + random.nextInt(3);
+                        int from = random.nextInt(HEIGHT - count + 1);
+                        store.pushUp(from, count);
+                        System.arraycopy(model, from + count, model, from, HEIGHT - from - count);
+                        for (int y = HEIGHT - count; y < HEIGHT; y++) {
+                            model[y] = new byte[width];
+                        }
+                    }
+                    default -> {
+                        // Placement checks around word boundaries
+                        Shape.PieceShape[] shapes = Shape.PieceShape.values();
+                        for (int i = 0; i < 50; i++) {
+                            Shape.PieceShape shape = shapes[1 + random.nextInt(7)];
+                            Shape.Orientation o = shape.getOrientation(random.nextInt(shape.getOrientationCount()));
+                            int x = (64 * random.nextInt(store.words() + 1)) - 3 + random.nextInt(6);
+                            int y = random.nextInt(HEIGHT + 2) - 1;
+                            assertEquals(modelFits(model, width, o, x, y), store.fits(o, x, y),
+                                    shape + " at " + x + "," + y);
+                        }
+                    }
+                }
+                assertConsistent(store, model, width);
+            }
+
+            byte[] flat = new byte[width * HEIGHT];
+            store.copyCells(flat);
+            RowStore loaded = new RowStore(width, HEIGHT);
+            loaded.load(flat);
+            assertConsistent(loaded, model, width);
+            store.clear();
+            assertConsistent(store, new byte[HEIGHT][width], width);
+        }
+    }
+}
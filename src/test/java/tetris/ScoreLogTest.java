@@ -0,0 +1,170 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreLogTest {
+
+    // Matches ScoreLog's layout: a 16-byte header, then 48-byte records.
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 48;
+
+    @TempDir
+    Path dir;
+
+    private static ScoreRecord record(long time, long seed, int score) {
+        return new ScoreRecord(time, seed, RandomizerType.SEVEN_BAG, BoardSize.DEFAULT, score, score / 100, score / 10);
+    }
+
+    private static List<Long> times(List<ScoreRecord> records) {
+        return records.stream().map(ScoreRecord::timeMillis).toList();
+    }
+
+    @Test
+    void rebuildsTheTopOnReopen() throws IOException, InterruptedException {
+        Path file = dir.resolve("scores.log");
+        List<ScoreRecord> top;
+        try (ScoreLog log = ScoreLog.open(file, 5)) {
+            SplitMix64 random = new SplitMix64(1);
+            for (int i = 0; i < 200; i++) {
+                log.submit(record(1000 + i, i, random.nextInt(100_000)));
+            }
+            log.flush();
+            top = log.top();
+            assertEquals(200, log.size());
+        }
+        assertEquals(5, top.size());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).score() >= top.get(i).score());
+        }
+        try (ScoreLog log = ScoreLog.open(file, 5)) {
+            assertEquals(200, log.size());
+            assertEquals(top, log.top());
+        }
+        assertEquals(HEADER_SIZE + 200L * RECORD_SIZE, Files.size(file));
+    }
+
+    @Test
+    void truncatesAShortOrCorruptTail() throws IOException, InterruptedException {
+        Path file = dir.resolve("torn.log");
+        try (ScoreLog log = ScoreLog.open(file, 100)) {
+            for (int i = 0; i < 10; i++) {
+                log.submit(record(i, i, 10 * i));
+            }
+        }
+        // Half a record, as left by a crash mid-append.
+        Files.write(file, new byte[RECORD_SIZE / 2], StandardOpenOption.APPEND);
+        try (ScoreLog log = ScoreLog.open(file, 100)) {
+            assertEquals(10, log.size());
+        }
+        assertEquals(HEADER_SIZE + 10L * RECORD_SIZE, Files.size(file));
+
+        // A flipped byte in record 7 ends the log there, even though later records are intact.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long at = HEADER_SIZE + 7L * RECORD_SIZE + 12;
+            channel.read(b, at);
+            b.put(0, (byte) ~b.get(0));
+            channel.write(b.rewind(), at);
+        }
+        try (ScoreLog log = ScoreLog.open(file, 100)) {
+            assertEquals(7, log.size());
+            assertEquals(60, log.top().get(0).score());
+            assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L), times(log.between(Long.MIN_VALUE, Long.MAX_VALUE)));
+
+            log.submit(record(20, 20, 5));
+            log.flush();
+            assertEquals(8, log.size());
+        }
+        try (ScoreLog log = ScoreLog.open(file, 100)) {
+            assertEquals(8, log.size());
+            assertEquals(List.of(20L), times(log.bySeed(20)));
+        }
+    }
+
+    @Test
+    void clampsTimesSoTheyNeverDecrease() throws IOException, InterruptedException {
+        Path file = dir.resolve("clock.log");
+        List<ScoreRecord> top;
+        try (ScoreLog log = ScoreLog.open(file, 10)) {
+            long[] submitted = {100, 50, 200, 150, 150, 300};
+            for (int i = 0; i < submitted.length; i++) {
+                log.submit(record(submitted[i], i, 1000 - i));
+            }
+            log.flush();
+            assertEquals(List.of(100L, 100L, 200L, 200L, 200L, 300L),
+                    times(log.between(Long.MIN_VALUE, Long.MAX_VALUE)));
+            assertEquals(List.of(100L), times(log.bySeed(1)));
+            top = log.top();
+            assertEquals(List.of(100L, 100L, 200L, 200L, 200L, 300L), times(top));
+        }
+        try (ScoreLog log = ScoreLog.open(file, 10)) {
+            assertEquals(top, log.top());
+
+            // The clock only moves on from the newest record in the file.
+            log.submit(record(10, 9, 1));
+            log.flush();
+            assertEquals(List.of(300L), times(log.bySeed(9)));
+        }
+    }
+
+    @Test
+    void queriesBySeedAndTime() throws IOException, InterruptedException {
+        try (ScoreLog log = ScoreLog.open(dir.resolve("query.log"), 10)) {
+            // More than one read chunk, so scans cross chunk boundaries.
+            int count = 2 * ScoreLog.BATCH + 100;
+            for (int i = 0; i < count; i++) {
+                log.submit(record(10L * i, i % 3, i));
+            }
+            log.flush();
+
+            List<ScoreRecord> ones = log.bySeed(1);
+            assertEquals((count + 1) / 3, ones.size());
+            assertTrue(ones.stream().allMatch(r -> r.seed() == 1));
+            assertEquals(1, ones.get(0).score());
+            assertEquals(List.of(), log.bySeed(7));
+
+            assertEquals(List.of(30L, 40L, 50L), times(log.between(25, 55)));
+            assertEquals(List.of(30L, 40L), times(log.between(30, 50)));
+            assertEquals(List.of(), times(log.between(31, 40)));
+            assertEquals(List.of(), times(log.between(10L * count, Long.MAX_VALUE)));
+            assertEquals(count, log.between(Long.MIN_VALUE, Long.MAX_VALUE).size());
+            List<ScoreRecord> late = log.between(10L * (ScoreLog.BATCH - 2), 10L * (ScoreLog.BATCH + 2));
+            assertEquals(4, late.size());
+            assertEquals(ScoreLog.BATCH - 2, late.get(0).score());
+        }
+    }
+
+    @Test
+    void interruptedSubmitDoesNotHangFlush() throws IOException {
+        try (ScoreLog log = ScoreLog.open(dir.resolve("interrupted.log"), 10)) {
+            Thread.currentThread().interrupt();
+            log.submit(record(1, 1, 1));
+            assertTrue(Thread.interrupted());
+            log.submit(record(2, 2, 2));
+            assertTimeoutPreemptively(Duration.ofSeconds(10), log::flush);
+            assertEquals(1, log.size());
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("other.log");
+        Files.write(file, new byte[HEADER_SIZE]);
+        assertThrows(IOException.class, () -> ScoreLog.open(file, 10));
+    }
+}
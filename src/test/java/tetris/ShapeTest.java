@@ -0,0 +1,67 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShapeTest {
+
+    @Test
+    void rotatedLeavesThePieceAlone() {
+        for (Shape.PieceShape pieceShape : Shape.PieceShape.values()) {
+            Shape shape = new Shape();
+            shape.setPieceShape(pieceShape);
+            for (int o = 0; o < pieceShape.getOrientationCount(); o++) {
+                Shape right = shape.rotatedRight();
+                Shape left = shape.rotatedLeft();
+                assertEquals(o, shape.getOrientationIndex());
+                assertEquals(pieceShape.rotatedRight(o), right.getOrientationIndex());
+                assertEquals(pieceShape.rotatedLeft(o), left.getOrientationIndex());
+                assertSame(pieceShape, right.getPieceShape());
+                assertSame(right, shape.rotatedRight());
+                shape.turnRight();
+            }
+            assertEquals(0, shape.getOrientationIndex());
+        }
+    }
+
+    @Test
+    void rotatedPiecesAreReadOnly() {
+        Shape shape = new Shape();
+        shape.setPieceShape(Shape.PieceShape.TShape);
+        Shape view = shape.rotatedRight();
+        assertThrows(UnsupportedOperationException.class, () -> view.setOrientation(0));
+        assertThrows(UnsupportedOperationException.class, view::turnLeft);
+        assertThrows(UnsupportedOperationException.class,
+                () -> view.setPieceShape(Shape.PieceShape.LShape));
+    }
+
+    @Test
+    void rejectedRotationKeepsTheEnginePiece() {
+        GameEngine engine = new GameEngine();
+        engine.start(1);
+        Shape piece = engine.getCurrentPiece();
+        while (piece.getPieceShape() == Shape.PieceShape.SquareShape) {
+            engine.dropDownHard();
+            piece = engine.getCurrentPiece();
+        }
+        // Clear of the top edge, so the rotation itself fits.
+        engine.oneLineDown();
+        engine.oneLineDown();
+        int orientation = piece.getOrientationIndex();
+        // Far outside the board, so the move is rejected.
+        assertFalse(engine.tryMove(piece.rotatedRight(), -10, engine.getCurPieceY()));
+        assertEquals(orientation, engine.getCurrentPiece().getOrientationIndex());
+
+        assertTrue(engine.tryMove(piece.rotatedRight(), engine.getCurPieceX(), engine.getCurPieceY()));
+        assertEquals(piece.getPieceShape().rotatedRight(orientation), engine.getCurrentPiece().getOrientationIndex());
+        assertNotSame(piece.rotatedRight(), engine.getCurrentPiece());
+        engine.rotateLeft();
+        assertEquals(orientation, engine.getCurrentPiece().getOrientationIndex());
+    }
+}
@@ -0,0 +1,147 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpectatorCodecTest {
+
+    private final SpectatorCodec codec = new SpectatorCodec();
+    private final SpectatorView view = new SpectatorView();
+    private long seq;
+    private int keyframes;
+    private int deltas;
+
+    private boolean send(ByteBuffer frame) {
+        ByteBuffer payload = frame.duplicate().position(SpectatorCodec.HEADER_BYTES);
+        assertEquals(frame.remaining() - SpectatorCodec.HEADER_BYTES, frame.getInt(0));
+        if (payload.get(payload.position()) == SpectatorCodec.KEYFRAME) {
+            keyframes++;
+        } else {
+            deltas++;
+        }
+        return view.apply(payload);
+    }
+
+    private void follow(GameSnapshot previous, GameSnapshot current) {
+        assertTrue(send(codec.delta(++seq, previous, current)));
+        assertTrue(view.matches(current), "frame " + seq);
+    }
+
+    @Test
+    void followsAGameWithLocksClearsAndGarbage() {
+        GameEngine engine = new GameEngine();
+        engine.start(3);
+        GamePolicy bot = new BotPolicy(new BotSearch(Heuristic.DEFAULT, 1, 4, false));
+        SplitMix64 random = new SplitMix64(3);
+        GameSnapshot previous = GameSnapshot.capture(engine, null, false, 0, 0);
+        assertTrue(send(codec.keyframe(seq, previous)));
+        keyframes = 0;
+        int garbageAt = 0;
+        while (engine.isStarted() && engine.getPiecesPlaced() < 300) {
+            if (engine.getPiecesPlaced() >= garbageAt + 9) {
+                garbageAt = engine.getPiecesPlaced();
+                engine.addGarbage(1 + random.nextInt(3), random.nextInt(engine.getWidth()));
+            } else {
+                bot.nextAction(engine).apply(engine);
+            }
+            GameSnapshot current = GameSnapshot.capture(engine, previous, false, seq + 1, 0);
+            follow(previous, current);
+            previous = current;
+        }
+        assertTrue(engine.getNumLinesRemoved() > 10, "lines " + engine.getNumLinesRemoved());
+        // Only big garbage pushes shift enough rows to fall back to a keyframe.
+        assertTrue(deltas > 50 * keyframes, deltas + " deltas, " + keyframes + " keyframes");
+    }
+
+    @Test
+    void isExactForArbitraryBoardChanges() {
+        BoardSize size = new BoardSize(8, 14, 2);
+        int width = size.width();
+        int height = size.totalHeight();
+        GameEngine engine = new GameEngine(RandomizerType.UNIFORM.create(1), size);
+        engine.start(1);
+        SplitMix64 random = new SplitMix64(11);
+        byte[] cells = new byte[width * height];
+        GameSnapshot previous = GameSnapshot.capture(engine, null, false, 0, 0);
+        assertTrue(send(codec.keyframe(seq, previous)));
+        for (int step = 0; step < 3000; step++) {
+            byte[] next = cells.clone();
+            switch (random.nextInt(5)) {
+                case 0 -> {
+                    // A few cells set or cleared anywhere
+                    for (int i = random.nextInt(6); i >= 0; i--) {
+                        next[random.nextInt(next.length)] = (byte) random.nextInt(GameEngine.GARBAGE_CELL + 1);
+                    }
+                }
+                case 1 -> {
+                    // Some rows removed, full or not, the rest settling down
+                    int removed = 1 + random.nextInt(4);
+                    Arrays.fill(next, (byte) 0);
+                    int dst = height - 1;
+                    for (int y = height - 1; y >= 0; y--) {
+                        if (removed > 0 && random.nextInt(3) == 0) {
+                            removed--;
+                            continue;
+                        }
+                        System.arraycopy(cells, y * width, next, dst-- * width, width);
+                    }
+                }
+                case 2 -> {
+                    // Rows pushed in from the bottom, like garbage
+                    int rows = 1 + random.nextInt(3);
+                    System.arraycopy(cells, rows * width, next, 0, (height - rows) * width);
+                    for (int i = (height - rows) * width; i < next.length; i++) {
+                        next[i] = random.nextInt(width) == 0 ? 0 : GameEngine.GARBAGE_CELL;
+                    }
+                }
+                case 3 -> {
+                    // Removed rows and new cells in the same change
+                    int y = random.nextInt(height);
+                    System.arraycopy(cells, 0, next, width, y * width);
+                    Arrays.fill(next, 0, width, (byte) 0);
+                    next[random.nextInt(next.length)] = (byte) (1 + random.nextInt(7));
+                }
+                default -> {
+                    // A new board, too different for a delta
+                    for (int i = 0; i < next.length; i++) {
+                        next[i] = (byte) (random.nextInt(2) == 0 ? 0 : 1 + random.nextInt(7));
+                    }
+                }
+            }
+            cells = next;
+            engine.loadGrid(cells);
+            GameSnapshot current = GameSnapshot.capture(engine, previous, false, seq + 1, 0);
+            follow(previous, current);
+            previous = current;
+        }
+        assertTrue(deltas > 1000, "deltas " + deltas);
+        assertTrue(keyframes > 300, "keyframes " + keyframes);
+    }
+
+    @Test
+    void aMissedDeltaWaitsForTheNextKeyframe() {
+        GameEngine engine = new GameEngine();
+        engine.start(5);
+        GamePolicy policy = new RandomPolicy(5);
+        GameSnapshot previous = GameSnapshot.capture(engine, null, false, 0, 0);
+        assertTrue(send(codec.keyframe(seq, previous)));
+        for (int step = 0; step < 60; step++) {
+            policy.nextAction(engine).apply(engine);
+            GameSnapshot current = GameSnapshot.capture(engine, previous, false, step, 0);
+            ByteBuffer frame = codec.delta(++seq, previous, current);
+            previous = current;
+            if (step == 20) {
+                continue;
+            }
+            assertEquals(step < 20, send(frame));
+            assertEquals(step < 20, view.isSynced());
+        }
+        assertTrue(send(codec.keyframe(++seq, previous)));
+        assertTrue(view.matches(previous));
+    }
+}
@@ -0,0 +1,93 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorEnvTest {
+
+    private static final int ENVS = 32;
+    private static final int STEPS = 3000;
+
+    @Test
+    void matchesGameEngineStepByStep() {
+        long lines = 0;
+        for (RandomizerType type : RandomizerType.values()) {
+            for (BoardSize size : new BoardSize[]{BoardSize.DEFAULT, new BoardSize(6, 12, 2), new BoardSize(32, 24, 2)}) {
+                lines += playInLockstep(type, size);
+            }
+        }
+        assertTrue(lines > 0, "No lines were cleared, so clearing went unchecked");
+    }
+
+    // Same seeds and the same random actions through both; every observable must agree after every step.
+    private static long playInLockstep(RandomizerType type, BoardSize size) {
+        VectorEnv env = new VectorEnv(ENVS, type, size);
+        GameEngine[] engines = new GameEngine[ENVS];
+        long[] seeds = new long[ENVS];
+        for (int e = 0; e < ENVS; e++) {
+            seeds[e] = e * 7919L + 3;
+            engines[e] = new GameEngine(type.create(0), size);
+            engines[e].start(seeds[e]);
+        }
+        env.reset(seeds);
+        SplitMix64 random = new SplitMix64(99);
+        int[] actions = new int[ENVS];
+        float[] rewards = new float[ENVS];
+        boolean[] dones = new boolean[ENVS];
+        byte[] observations = new byte[ENVS * env.getObservationSize()];
+        long nextSeed = 1_000_000;
+        long lines = 0;
+        for (int step = 0; step < STEPS; step++) {
+            for (int e = 0; e < ENVS; e++) {
+                // Mostly moves and rotations, so games last long enough to clear lines.
+                int r = random.nextInt(20);
+                actions[e] = r < 6 ? 0 : r < 12 ? 1 : r < 15 ? 3 : r < 16 ? 4 : r < 17 ? 5 : r < 19 ? 6 : 2;
+            }
+            env.step(actions, rewards, dones);
+            env.observe(observations);
+            for (int e = 0; e < ENVS; e++) {
+                GameEngine engine = engines[e];
+                String where = type + " " + size + " env " + e + " step " + step;
+                int before = engine.getScore();
+                if (engine.isStarted()) {
+                    InputAction.fromCode(actions[e]).apply(engine);
+                }
+                assertEquals(engine.getScore() - before, rewards[e], where);
+                assertEquals(!engine.isStarted(), dones[e], where);
+                assertEquals(engine.getScore(), env.getScore(e), where);
+                assertEquals(engine.getNumLinesRemoved(), env.getLines(e), where);
+                assertEquals(engine.getPiecesPlaced(), env.getPiecesPlaced(e), where);
+                assertEquals(engine.getCurrentPiece().getPieceShape(), env.getPieceShape(e), where);
+                if (engine.isStarted()) {
+                    assertEquals(engine.getCurPieceX(), env.getPieceX(e), where);
+                    assertEquals(engine.getCurPieceY(), env.getPieceY(e), where);
+                    assertEquals(engine.getCurrentPiece().getOrientationIndex(), env.getOrientationIndex(e), where);
+                }
+                for (int y = 0; y < size.totalHeight(); y++) {
+                    assertEquals(engine.getRowMask(y), env.getRowMask(e, y), where + " row " + y);
+                }
+                int base = e * env.getObservationSize();
+                for (int y = size.hiddenRows(); y < size.totalHeight(); y++) {
+                    for (int x = 0; x < size.width(); x++) {
+                        byte cell = observations[base + (y - size.hiddenRows()) * size.width() + x];
+                        assertEquals(engine.isOccupied(x, y), cell == 1, where + " cell " + x + "," + y);
+                    }
+                }
+                assertEquals(engine.getNextPiece().getPieceShape().ordinal(),
+                        observations[base + env.getObservationSize() - 1], where);
+                if (dones[e]) {
+                    lines += engine.getNumLinesRemoved();
+                    long seed = nextSeed++;
+                    env.reset(e, seed);
+                    engine.start(seed);
+                }
+            }
+        }
+        for (GameEngine engine : engines) {
+            lines += engine.getNumLinesRemoved();
+        }
+        return lines;
+    }
+}